@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ru.bullyboo.encoder.methods.AES;
+import ru.bullyboo.encoder.methods.BatchResult;
+
+/**
+ * Benchmark of encryption of many short messages one by one and by {@link AES#encryptBatch}
+ */
+public class AESBatchBenchmark extends BaseBenchmark {
+
+    @Param({"AES_CBC_PKCS5PADDING", "AES_CTR_NO_PADDING"})
+    public AES.Method method;
+
+    @Param({"10000"})
+    public int count;
+
+    @Param({"64", "512"})
+    public int size;
+
+    private List<byte[]> messages;
+
+    @Setup
+    public void setUp() throws Exception {
+        messages = new ArrayList<>(count);
+
+        for(int i = 0; i < count; i++){
+            messages.add(createMessage(size + i % 16));
+        }
+    }
+
+    @Benchmark
+    public byte[][] encryptEach() throws Exception {
+        byte[][] result = new byte[count][];
+
+        for(int i = 0; i < count; i++){
+            result[i] = AES.encryptBytes(method.getMethod(), KEY, AES.Key.SIZE_128, VECTOR, messages.get(i));
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public BatchResult encryptBatch() throws Exception {
+        return AES.encryptBatch(method.getMethod(), KEY, AES.Key.SIZE_128, VECTOR, messages, false);
+    }
+
+    @Benchmark
+    public BatchResult encryptBatchParallel() throws Exception {
+        return AES.encryptBatch(method.getMethod(), KEY, AES.Key.SIZE_128, VECTOR, messages, true);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import ru.bullyboo.encoder.Base64;
+
+/**
+ * Benchmark of {@link Base64} encoding and decoding
+ */
+public class Base64Benchmark extends BaseBenchmark {
+
+    @Param({"16", "1024", "65536", "1048576", "67108864"})
+    public int size;
+
+    private byte[] message;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp(){
+        message = createMessage(size);
+        encoded = Base64.encode(message, Base64.DEFAULT);
+    }
+
+    @Benchmark
+    public byte[] encode(){
+        return Base64.encode(message, Base64.DEFAULT);
+    }
+
+    @Benchmark
+    public String encodeToString(){
+        return Base64.encodeToString(message, Base64.DEFAULT);
+    }
+
+    @Benchmark
+    public byte[] decode(){
+        return Base64.decode(encoded, Base64.DEFAULT);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.benchmarks;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Security;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common settings of all benchmarks.
+ *
+ * Every benchmark measures throughput in operations per second,
+ * the allocation rate is reported by the gc profiler (see the jmh task).
+ * BouncyCastle is registered, because most of PBE methods and some
+ * of the paddings are supplied only by it (as on Android).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public abstract class BaseBenchmark {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    static final byte[] KEY = "benchmark key".getBytes();
+    static final byte[] VECTOR = "benchmark vector".getBytes();
+
+    /**
+     * Random message of the size, the same for every run
+     */
+    static byte[] createMessage(int size){
+        byte[] message = new byte[size];
+
+        new Random(size).nextBytes(message);
+
+        return message;
+    }
+
+    /**
+     * Random printable message of the size, for the methods, which accept only String
+     */
+    static String createTextMessage(int size){
+        char[] message = new char[size];
+
+        Random random = new Random(size);
+
+        for(int i = 0; i < size; i++){
+            message[i] = (char) (' ' + random.nextInt(95));
+        }
+
+        return new String(message);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import ru.bullyboo.encoder.methods.DES;
+
+/**
+ * Benchmark of every {@link DES.Method} of {@link DES}
+ */
+public class DESBenchmark extends BaseBenchmark {
+
+    @Param
+    public DES.Method method;
+
+    @Param({"16", "1024", "65536", "1048576", "67108864"})
+    public int size;
+
+    private byte[] message;
+
+    private byte[] cipherText;
+
+    @Setup
+    public void setUp() throws Exception {
+        message = createMessage(size);
+        cipherText = encrypt().getBytes();
+    }
+
+    @Benchmark
+    public String encrypt() throws Exception {
+        return DES.encrypt(method.getMethod(), KEY, VECTOR, message);
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return DES.decrypt(method.getMethod(), KEY, VECTOR, cipherText);
+    }
+}
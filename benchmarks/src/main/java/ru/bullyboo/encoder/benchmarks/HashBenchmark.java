@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import ru.bullyboo.encoder.hashes.Hash;
+
+/**
+ * Benchmark of every hash function of {@link Hash}
+ */
+public class HashBenchmark extends BaseBenchmark {
+
+    @Param({"md2", "md4", "md5", "sha1", "sha224", "sha256", "sha384", "sha512",
+            "adler32", "fnv132", "ripemd128", "ripemd160", "ripemd256", "ripemd320"})
+    public String algorithm;
+
+    @Param({"16", "1024", "65536", "1048576", "67108864"})
+    public int size;
+
+    private Hash hash;
+
+    private String message;
+
+    @Setup
+    public void setUp(){
+        hash = new Hash();
+        message = createTextMessage(size);
+    }
+
+    @Benchmark
+    public String hash(){
+        switch (algorithm){
+            case "md2":
+                return hash.md2(message);
+            case "md4":
+                return hash.md4(message);
+            case "md5":
+                return hash.md5(message);
+            case "sha1":
+                return hash.sha1(message);
+            case "sha224":
+                return hash.sha224(message);
+            case "sha256":
+                return hash.sha256(message);
+            case "sha384":
+                return hash.sha384(message);
+            case "sha512":
+                return hash.sha512(message);
+            case "adler32":
+                return hash.adler32(message);
+            case "fnv132":
+                return hash.fnv132(message);
+            case "ripemd128":
+                return hash.ripemd128(message);
+            case "ripemd160":
+                return hash.ripemd160(message);
+            case "ripemd256":
+                return hash.ripemd256(message);
+            case "ripemd320":
+                return hash.ripemd320(message);
+            default:
+                throw new IllegalArgumentException(algorithm);
+        }
+    }
+}
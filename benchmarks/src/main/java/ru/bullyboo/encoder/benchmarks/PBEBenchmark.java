@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import ru.bullyboo.encoder.methods.PBE;
+
+/**
+ * Benchmark of every {@link PBE.Method} of {@link PBE}
+ */
+public class PBEBenchmark extends BaseBenchmark {
+
+    @Param
+    public PBE.Method method;
+
+    @Param({"16", "1024", "65536", "1048576", "67108864"})
+    public int size;
+
+    private byte[] message;
+
+    private byte[] cipherText;
+
+    private PBE.KeySize keySize;
+
+    @Setup
+    public void setUp() throws Exception {
+        keySize = PBE.setKeySize(method.getKeySizes()[0]);
+        message = createMessage(size);
+        cipherText = encrypt().getBytes();
+    }
+
+    @Benchmark
+    public String encrypt() throws Exception {
+        return PBE.encrypt(method, KEY, keySize, VECTOR, message);
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return PBE.decrypt(method, KEY, keySize, VECTOR, cipherText);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.security.KeyPair;
+
+import ru.bullyboo.encoder.methods.RSA;
+
+/**
+ * Benchmark of every {@link RSA.Method} of {@link RSA}.
+ *
+ * RSA encrypts only messages shorter than the key, so the sizes are limited
+ * by the shortest message of OAEP with SHA-512 and the 2048-bit key
+ */
+public class RSABenchmark extends BaseBenchmark {
+
+    @Param
+    public RSA.Method method;
+
+    @Param({"16", "64"})
+    public int size;
+
+    private KeyPair key;
+
+    private byte[] message;
+
+    private byte[] cipherText;
+
+    @Setup
+    public void setUp() throws Exception {
+        key = RSA.generateKey(RSA.setKeySize(2048));
+        message = createMessage(size);
+
+        cipherText = encrypt().getBytes();
+    }
+
+    @Benchmark
+    public String encrypt() throws Exception {
+        return RSA.encrypt(method, key, message, null);
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return RSA.decrypt(method, key, cipherText);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+import ru.bullyboo.encoder.methods.RSA;
+
+/**
+ * Benchmark of {@link RSA#generateKey(RSA.KeySize)}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RSAKeyBenchmark extends BaseBenchmark {
+
+    @Param({"1024", "2048", "4096"})
+    public int keySize;
+
+    @Benchmark
+    public KeyPair generateKey() throws Exception {
+        return RSA.generateKey(RSA.setKeySize(keySize));
+    }
+}
@@ -16,29 +16,54 @@
 
 package ru.bullyboo.encoder.builders;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
 
+import ru.bullyboo.encoder.Base64;
 import ru.bullyboo.encoder.callbacks.EncodeCallback;
-import ru.bullyboo.encoder.threads.BaseThread;
-import ru.bullyboo.encoder.threads.EncodingThread;
+import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.methods.BatchResult;
+import ru.bullyboo.encoder.threads.BaseTask;
+import ru.bullyboo.encoder.threads.EncoderExecutor;
+import ru.bullyboo.encoder.threads.EncoderFuture;
+import ru.bullyboo.encoder.threads.EncodingTask;
 
 /**
  * This class implements basic function of synchronous and asynchronous encoding
  */
 public abstract class BaseBuilder<B extends BaseBuilder>{
 
-    byte[] message;
+    /**
+     * Message, it is volatile, because the future operations read the stream
+     * or the file into it on the threads of the executor
+     */
+    volatile byte[] message;
+
+    /**
+     * Stream or file with the message, it is read only when the message is needed
+     */
+    private volatile InputStream inputStream;
+    private volatile File file;
 
     /**
      * Callback for getting the result of encryption
      */
     private volatile EncodeCallback callback;
 
+    /**
+     * Executor of asynchronous encrypting and decrypting
+     */
+    private volatile Executor executor;
+
     /**
      * Set the message for encrypting or decrypting
      */
@@ -145,23 +170,30 @@ public abstract class BaseBuilder<B extends BaseBuilder>{
         return (B) this;
     }
 
+    public B message(ByteBuffer buffer) {
+        this.message = new byte[buffer.remaining()];
+        buffer.get(this.message);
+
+        return (B) this;
+    }
+
+    /**
+     * Set the file or the stream with the message. They are read completely by
+     * encrypt() and decrypt(), and by chunks by encryptTo() and decryptTo()
+     */
     public B message(File file){
-        try {
-            return message(new FileInputStream(file));
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        }
+        this.message = null;
+        this.inputStream = null;
+        this.file = file;
 
-        return null;
+        return (B) this;
     }
 
     public B message(InputStream inputStream) {
-        try {
-            message = new byte[inputStream.available()];
-            inputStream.read(message);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        this.message = null;
+        this.file = null;
+        this.inputStream = inputStream;
+
         return (B) this;
     }
 
@@ -173,34 +205,28 @@ public abstract class BaseBuilder<B extends BaseBuilder>{
         return this;
     }
 
+    /**
+     * Set the executor for asynchronous encrypting and decrypting.
+     * If it is not set, {@link EncoderExecutor#getDefault()} is used
+     */
+    public B executor(Executor executor){
+        this.executor = executor;
+        return (B) this;
+    }
+
     /**
      * Start of asynchronous encrypting
     */
     public void encryptAsync(){
         if(hasEnoughData()){
-            BaseThread.EncodeAction action = new BaseThread.EncodeAction() {
+            BaseTask.EncodeAction<String> action = new BaseTask.EncodeAction<String>() {
                 @Override
-                public String action() {
-                    try {
-                        return encryption();
-                    } catch (Exception e) {
-                        callback.onFailure(e);
-                    }
-                    return null;
+                public String action() throws Exception {
+                    return encryption();
                 }
             };
 
-            new EncodingThread(action, new BaseThread.ThreadCallback<String>() {
-                @Override
-                public void onFinish(String parameter) {
-                    callback.onSuccess(parameter);
-                }
-
-                @Override
-                public void onFailed(Throwable e) {
-                    callback.onFailure(e);
-                }
-            }).start();
+            execute(new EncodingTask(action, getTaskCallback()));
         }
     }
 
@@ -209,32 +235,65 @@ public abstract class BaseBuilder<B extends BaseBuilder>{
      */
     public void decryptAsync(){
         if(hasEnoughData()){
-            BaseThread.EncodeAction action = new BaseThread.EncodeAction() {
+            BaseTask.EncodeAction<String> action = new BaseTask.EncodeAction<String>() {
                 @Override
-                public String action() {
-                    try {
-                        return decryption();
-                    } catch (Exception e) {
-                        callback.onFailure(e);
-                    }
-                    return null;
+                public String action() throws Exception {
+                    return decryption();
                 }
             };
 
-            new EncodingThread(action, new BaseThread.ThreadCallback<String>() {
-                @Override
-                public void onFinish(String parameter) {
-                    callback.onSuccess(parameter);
-                }
-
-                @Override
-                public void onFailed(Throwable e) {
-                    callback.onFailure(e);
-                }
-            }).start();
+            execute(new EncodingTask(action, getTaskCallback()));
         }
     }
 
+    /**
+     * Start of asynchronous encrypting, the result is returned as a future
+     */
+    public EncoderFuture<String> encryptFuture(){
+        return submitChecked(new BaseTask.EncodeAction<String>() {
+            @Override
+            public String action() throws Exception {
+                return encryption();
+            }
+        });
+    }
+
+    /**
+     * Start of asynchronous decrypting, the result is returned as a future
+     */
+    public EncoderFuture<String> decryptFuture(){
+        return submitChecked(new BaseTask.EncodeAction<String>() {
+            @Override
+            public String action() throws Exception {
+                return decryption();
+            }
+        });
+    }
+
+    /**
+     * Start of asynchronous encrypting, the message and the result are not encoded
+     */
+    public EncoderFuture<byte[]> encryptBytesFuture(){
+        return submitChecked(new BaseTask.EncodeAction<byte[]>() {
+            @Override
+            public byte[] action() throws Exception {
+                return encryption(getMessage());
+            }
+        });
+    }
+
+    /**
+     * Start of asynchronous decrypting, the message and the result are not encoded
+     */
+    public EncoderFuture<byte[]> decryptBytesFuture(){
+        return submitChecked(new BaseTask.EncodeAction<byte[]>() {
+            @Override
+            public byte[] action() throws Exception {
+                return decryption(getMessage());
+            }
+        });
+    }
+
     /**
      * Start of synchronous encrypting
      */
@@ -264,15 +323,368 @@ public abstract class BaseBuilder<B extends BaseBuilder>{
     }
 
     /**
-     * Implementation of calling encryption and decryption
+     * Start of synchronous encrypting, the message and the result are not encoded
+     */
+    public byte[] encryptBytes(){
+        try {
+            if(hasEnoughData()){
+                return encryption(getMessage());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Start of synchronous decrypting, the message and the result are not encoded
+     */
+    public byte[] decryptBytes(){
+        try {
+            if(hasEnoughData()){
+                return decryption(getMessage());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Start of synchronous encrypting of many messages with one initialized cipher,
+     * the message of the builder is not used. The results are stored one after
+     * another in one array (see {@link BatchResult})
+     */
+    public BatchResult encryptBatch(List<byte[]> messages){
+        return encryptBatch(messages, false);
+    }
+
+    /**
+     * Start of synchronous encrypting of many messages, if parallel is true,
+     * the messages are split into groups, which are encrypted on all processors
+     */
+    public BatchResult encryptBatch(List<byte[]> messages, boolean parallel){
+        try {
+            if(hasBatch(messages)){
+                return encryption(messages, parallel);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Start of synchronous decrypting of many messages with one initialized cipher
+     */
+    public BatchResult decryptBatch(List<byte[]> messages){
+        return decryptBatch(messages, false);
+    }
+
+    /**
+     * Start of synchronous decrypting of many messages, if parallel is true,
+     * the messages are split into groups, which are decrypted on all processors
+     */
+    public BatchResult decryptBatch(List<byte[]> messages, boolean parallel){
+        try {
+            if(hasBatch(messages)){
+                return decryption(messages, parallel);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private boolean hasBatch(List<byte[]> messages){
+        if(messages == null){
+            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
+        }
+        return hasEnoughSettings();
+    }
+
+    /**
+     * Start of synchronous encrypting of the message into the stream.
+     * The message is encrypted by chunks, so streams and files of any size
+     * are encrypted in constant memory. The output stream is not closed.
+     * Returns false, if encrypting failed, wrong settings are thrown before anything is written
+     */
+    public boolean encryptTo(OutputStream output){
+        return transfer(true, output);
+    }
+
+    /**
+     * Start of synchronous decrypting of the message into the stream,
+     * the message is not encoded with Base64.
+     * Returns false, if decrypting failed
+     */
+    public boolean decryptTo(OutputStream output){
+        return transfer(false, output);
+    }
+
+    /**
+     * Start of synchronous encrypting of the message into the file.
+     * If the message is a file, AES and Blowfish pass it through the cipher
+     * by the file channels, without copying it into the heap.
+     * Returns false, if encrypting failed, wrong settings are thrown before the file is opened
+     */
+    public boolean encryptTo(File output){
+        return transfer(true, output);
+    }
+
+    /**
+     * Start of synchronous decrypting of the message into the file.
+     * Returns false, if decrypting failed, wrong settings are thrown before the file is opened
+     */
+    public boolean decryptTo(File output){
+        return transfer(false, output);
+    }
+
+    private boolean transfer(boolean encrypt, File output){
+        // the settings are checked before the output file is opened, so wrong settings
+        // don't truncate it, their exception is thrown to the caller
+        if(!hasEnoughData()){
+            return false;
+        }
+
+        File file = this.file;
+
+        try {
+            if(message != null || file == null){
+                try (OutputStream stream = new FileOutputStream(output)) {
+                    write(encrypt, stream);
+                }
+            } else if(encrypt){
+                encryption(file, output);
+            } else {
+                decryption(file, output);
+            }
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private boolean transfer(boolean encrypt, OutputStream output){
+        if(!hasEnoughData()){
+            return false;
+        }
+
+        try {
+            write(encrypt, output);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Pass the message through the cipher into the stream, the stream is not closed
+     */
+    private void write(boolean encrypt, OutputStream output) throws Exception {
+        InputStream input = openMessage();
+
+        try {
+            if(encrypt){
+                encryption(input, output);
+            } else {
+                decryption(input, output);
+            }
+        } finally {
+            if(input != inputStream){
+                input.close();
+            }
+        }
+    }
+
+    /**
+     * Run the task on the executor of this builder or on the default one
+     */
+    void execute(Runnable task){
+        Executor executor = this.executor;
+
+        if(executor == null){
+            executor = EncoderExecutor.getDefault();
+        }
+
+        executor.execute(task);
+    }
+
+    /**
+     * Check the data like the synchronous methods, but return the failed future
+     * instead of null, then run the action on the executor
+     */
+    private <T> EncoderFuture<T> submitChecked(BaseTask.EncodeAction<T> action){
+        try {
+            if(!hasEnoughData()){
+                return EncoderFuture.failed(new IllegalStateException(Constants.SETTINGS_EXCEPTION));
+            }
+        } catch (RuntimeException e) {
+            return EncoderFuture.failed(e);
+        }
+
+        return submit(action);
+    }
+
+    /**
+     * Run the action on the executor and return the future of its result
+     */
+    <T> EncoderFuture<T> submit(BaseTask.EncodeAction<T> action){
+        EncoderFuture<T> future = new EncoderFuture<>(action);
+
+        execute(future);
+
+        return future;
+    }
+
+    private BaseTask.TaskCallback<String> getTaskCallback(){
+        final EncodeCallback callback = this.callback;
+
+        return new BaseTask.TaskCallback<String>() {
+            @Override
+            public void onFinish(String parameter) {
+                callback.onSuccess(parameter);
+            }
+
+            @Override
+            public void onFailed(Throwable e) {
+                callback.onFailure(e);
+            }
+        };
+    }
+
+    /**
+     * Check whether the message, the stream or the file was set
+     */
+    boolean hasMessage(){
+        return message != null || inputStream != null || file != null;
+    }
+
+    /**
+     * Message for encrypting or decrypting, the stream or the file is read completely
+     */
+    byte[] getMessage() throws IOException {
+        if(message == null && (inputStream != null || file != null)){
+            InputStream input = openMessage();
+
+            try {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+
+                int read;
+
+                while ((read = input.read(buffer)) != -1){
+                    output.write(buffer, 0, read);
+                }
+
+                message = output.toByteArray();
+            } finally {
+                if(input != inputStream){
+                    input.close();
+                }
+            }
+        }
+        return message;
+    }
+
+    private InputStream openMessage() throws IOException {
+        if(message != null){
+            return new ByteArrayInputStream(message);
+        } else if(file != null){
+            return new FileInputStream(file);
+        } else {
+            return inputStream;
+        }
+    }
+
+    /**
+     * Encryption and decryption of the message, which is encoded
+     * as a string by {@link #encode(byte[])} and {@link #decode(byte[])}
+     */
+    String encryption() throws Exception {
+        return encode(encryption(getMessage()));
+    }
+
+    String decryption() throws Exception {
+        return new String(decryption(decode(getMessage())));
+    }
+
+    /**
+     * Encoding of the encrypted message, Base64 by default
+     */
+    String encode(byte[] cipherText){
+        return Base64.encodeToString(cipherText, Base64.DEFAULT);
+    }
+
+    byte[] decode(byte[] message){
+        return Base64.decode(message, Base64.DEFAULT);
+    }
+
+    /**
+     * Implementation of calling encryption and decryption,
+     * the message and the result are not encoded
+     */
+    abstract byte[] encryption(byte[] message) throws Exception ;
+
+    abstract byte[] decryption(byte[] message) throws Exception ;
+
+    /**
+     * Implementation of calling encryption and decryption of the streams,
+     * it is not supported by default
+     */
+    void encryption(InputStream input, OutputStream output) throws Exception {
+        throw new UnsupportedOperationException(Constants.STREAM_EXCEPTION);
+    }
+
+    void decryption(InputStream input, OutputStream output) throws Exception {
+        throw new UnsupportedOperationException(Constants.STREAM_EXCEPTION);
+    }
+
+    /**
+     * Implementation of calling encryption and decryption of many messages,
+     * it is not supported by default
      */
-    abstract String encryption() throws Exception ;
+    BatchResult encryption(List<byte[]> messages, boolean parallel) throws Exception {
+        throw new UnsupportedOperationException(Constants.BATCH_EXCEPTION);
+    }
 
-    abstract String decryption() throws Exception ;
+    BatchResult decryption(List<byte[]> messages, boolean parallel) throws Exception {
+        throw new UnsupportedOperationException(Constants.BATCH_EXCEPTION);
+    }
+
+    /**
+     * Implementation of calling encryption and decryption of the files,
+     * by default the files are passed through the streams
+     */
+    void encryption(File input, File output) throws Exception {
+        try (InputStream inputStream = new FileInputStream(input);
+             OutputStream outputStream = new FileOutputStream(output)) {
+            encryption(inputStream, outputStream);
+        }
+    }
+
+    void decryption(File input, File output) throws Exception {
+        try (InputStream inputStream = new FileInputStream(input);
+             OutputStream outputStream = new FileOutputStream(output)) {
+            decryption(inputStream, outputStream);
+        }
+    }
 
     /**
      * Method for checking all set data in Builder
      */
-    abstract boolean hasEnoughData();
+    boolean hasEnoughData(){
+        if(!hasMessage()){
+            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
+        }
+        return hasEnoughSettings();
+    }
+
+    /**
+     * Method for checking all set data in Builder, except the message
+     */
+    abstract boolean hasEnoughSettings();
 
 }
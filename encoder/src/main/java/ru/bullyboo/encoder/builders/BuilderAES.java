@@ -16,7 +16,14 @@
 
 package ru.bullyboo.encoder.builders;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.methods.BatchResult;
+import ru.bullyboo.encoder.methods.CipherSpec;
 import ru.bullyboo.encoder.methods.AES;
 
 /**
@@ -31,21 +38,29 @@ public class BuilderAES extends BaseBuilder<BuilderAES>{
 
     private volatile byte[] iVector = new byte[]{};
 
+    private volatile boolean parallel;
+
+    private volatile int segmentSize;
+
     /**
-     * Set the encryption method for encrypting or decrypting
+     * Set the encryption method for encrypting or decrypting,
+     * it turns off the segmented format of segmented()
      */
     public BuilderAES method(AES.Method method) {
         this.method = method.getMethod();
+        this.segmentSize = 0;
         return this;
     }
 
     public BuilderAES method(AES.MethodCFB method) {
         this.method = method.getMethod();
+        this.segmentSize = 0;
         return this;
     }
 
     public BuilderAES method(AES.MethodOFB method) {
         this.method = method.getMethod();
+        this.segmentSize = 0;
         return this;
     }
 
@@ -92,21 +107,159 @@ public class BuilderAES extends BaseBuilder<BuilderAES>{
         return this;
     }
 
+    /**
+     * Process large messages on all processors, if the method supports it
+     * (see {@link AES#isParallelEncryption(String)} and {@link AES#isParallelDecryption(String)})
+     */
+    public BuilderAES parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Use the segmented AES/GCM format (see {@link AES#encryptSegmented(byte[], AES.Key, int, byte[])}),
+     * every segment of segmentSize bytes is encrypted and authenticated separately,
+     * so large messages are decrypted with bounded memory. The method is set to AES_GCM_NO_PADDING,
+     * the initialization vector is not used. For decryption the segment size is read from the message.
+     * A later method() call turns the segmented format off
+     */
+    public BuilderAES segmented(int segmentSize) {
+        if(segmentSize <= 0){
+            throw new IllegalArgumentException(Constants.SEGMENT_SIZE_EXCEPTION);
+        }
+        this.segmentSize = segmentSize;
+        this.method = AES.Method.AES_GCM_NO_PADDING.getMethod();
+        return this;
+    }
+
+    public BuilderAES segmented() {
+        return segmented(AES.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Freeze the settings into the immutable {@link CipherSpec}, which can be shared
+     * by any count of threads. The key and the initialization vector are prepared once,
+     * later changes of the builder don`t affect it. The stream modes (GCM, CTR, OFB and CFB) are refused
+     * with UnsupportedOperationException, because the fixed initialization vector of the spec
+     * would encrypt every message with the same key stream. Returns null, if the settings are wrong
+     */
+    public CipherSpec build() {
+        if(method != null && AES.isStreamMode(method)){
+            throw new UnsupportedOperationException(Constants.STREAM_BUILD_EXCEPTION + method);
+        }
+
+        try {
+            if(segmentSize > 0){
+                throw new UnsupportedOperationException(Constants.SPEC_EXCEPTION);
+            }
+            if(hasEnoughSettings()){
+                return AES.createSpec(method, key, keySize, iVector);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    byte[] encryption(byte[] message) throws Exception {
+        if(segmentSize > 0){
+            return isParallel(message.length)
+                    ? AES.encryptSegmentedParallel(key, keySize, segmentSize, message)
+                    : AES.encryptSegmented(key, keySize, segmentSize, message);
+        }
+        if(isParallel(message.length) && AES.isParallelEncryption(method)){
+            return AES.encryptParallel(method, key, keySize, iVector, message);
+        }
+        return AES.encryptBytes(method, key, keySize, iVector, message);
+    }
+
+    @Override
+    byte[] decryption(byte[] message) throws Exception {
+        if(segmentSize > 0){
+            return isParallel(message.length)
+                    ? AES.decryptSegmentedParallel(key, keySize, message)
+                    : AES.decryptSegmented(key, keySize, message);
+        }
+        if(isParallel(message.length) && AES.isParallelDecryption(method)){
+            return AES.decryptParallel(method, key, keySize, iVector, message);
+        }
+        return AES.decryptBytes(method, key, keySize, iVector, message);
+    }
+
+    @Override
+    BatchResult encryption(List<byte[]> messages, boolean parallel) throws Exception {
+        if(segmentSize > 0){
+            return super.encryption(messages, parallel);
+        }
+        return AES.encryptBatch(method, key, keySize, iVector, messages, parallel);
+    }
+
     @Override
-    String encryption() throws Exception {
-        return AES.encrypt(method, key, keySize, iVector, message);
+    BatchResult decryption(List<byte[]> messages, boolean parallel) throws Exception {
+        if(segmentSize > 0){
+            return super.decryption(messages, parallel);
+        }
+        return AES.decryptBatch(method, key, keySize, iVector, messages, parallel);
     }
 
     @Override
-    String decryption() throws Exception {
-        return AES.decrypt(method, key, keySize, iVector, message);
+    void encryption(InputStream input, OutputStream output) throws Exception {
+        if(segmentSize > 0){
+            AES.encryptSegmented(key, keySize, segmentSize, input, output);
+            return;
+        }
+        AES.encrypt(method, key, keySize, iVector, input, output);
     }
 
     @Override
-    boolean hasEnoughData() {
-        if(message == null){
-            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
+    void decryption(InputStream input, OutputStream output) throws Exception {
+        if(segmentSize > 0){
+            AES.decryptSegmented(key, keySize, input, output);
+            return;
         }
+        AES.decrypt(method, key, keySize, iVector, input, output);
+    }
+
+    @Override
+    void encryption(File input, File output) throws Exception {
+        if(segmentSize > 0){
+            if(isParallel(input.length())){
+                AES.encryptSegmentedParallel(key, keySize, segmentSize, input, output);
+            } else {
+                super.encryption(input, output);
+            }
+        } else if(isParallel(input.length()) && AES.isParallelEncryption(method)){
+            AES.encryptParallel(method, key, keySize, iVector, input, output);
+        } else {
+            AES.encrypt(method, key, keySize, iVector, input, output);
+        }
+    }
+
+    @Override
+    void decryption(File input, File output) throws Exception {
+        if(segmentSize > 0){
+            if(isParallel(input.length())){
+                AES.decryptSegmentedParallel(key, keySize, input, output);
+            } else {
+                super.decryption(input, output);
+            }
+        } else if(isParallel(input.length()) && AES.isParallelDecryption(method)){
+            AES.decryptParallel(method, key, keySize, iVector, input, output);
+        } else {
+            AES.decrypt(method, key, keySize, iVector, input, output);
+        }
+    }
+
+    /**
+     * Messages shorter than one chunk are processed on the calling thread
+     */
+    private boolean isParallel(long length){
+        return parallel && length > AES.PARALLEL_CHUNK_SIZE;
+    }
+
+    @Override
+    boolean hasEnoughSettings() {
         if(method == null){
             throw new NullPointerException(Constants.METHOD_EXCEPTION);
         }
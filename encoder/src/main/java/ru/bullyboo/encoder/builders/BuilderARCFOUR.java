@@ -16,7 +16,13 @@
 
 package ru.bullyboo.encoder.builders;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.methods.BatchResult;
+import ru.bullyboo.encoder.methods.CipherSpec;
 import ru.bullyboo.encoder.methods.ARCFOUR;
 
 /**
@@ -54,21 +60,52 @@ public class BuilderARCFOUR extends BaseBuilder<BuilderARCFOUR>{
         return this;
     }
 
+    /**
+     * RC4 has no initialization vector, so the spec would encrypt every message
+     * with the same key stream, the xor of two cipher texts is the xor of their plain texts.
+     * Always throws UnsupportedOperationException, encrypt and decrypt by the builder instead
+     */
+    public CipherSpec build() {
+        throw new UnsupportedOperationException(Constants.STREAM_BUILD_EXCEPTION + "ARCFOUR");
+    }
+
     @Override
-    String encryption() throws Exception {
-        return ARCFOUR.encrypt(key, keySize, message);
+    byte[] encryption(byte[] message) throws Exception {
+        return ARCFOUR.encryptBytes(key, keySize, message);
     }
 
     @Override
-    String decryption() throws Exception {
-        return ARCFOUR.decrypt(key, keySize, message);
+    byte[] decryption(byte[] message) throws Exception {
+        return ARCFOUR.decryptBytes(key, keySize, message);
     }
 
+    /**
+     * RC4 has no initialization vector, so all the messages of the batch would be encrypted
+     * with the same key stream. Always throws UnsupportedOperationException,
+     * encrypt every message by the builder with its own key instead
+     */
     @Override
-    boolean hasEnoughData() {
-        if(message == null){
-            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
-        }
+    public BatchResult encryptBatch(List<byte[]> messages, boolean parallel) {
+        throw new UnsupportedOperationException(Constants.STREAM_BATCH_EXCEPTION + "ARCFOUR");
+    }
+
+    @Override
+    BatchResult decryption(List<byte[]> messages, boolean parallel) throws Exception {
+        return ARCFOUR.decryptBatch(key, keySize, messages, parallel);
+    }
+
+    @Override
+    void encryption(InputStream input, OutputStream output) throws Exception {
+        ARCFOUR.encrypt(key, keySize, input, output);
+    }
+
+    @Override
+    void decryption(InputStream input, OutputStream output) throws Exception {
+        ARCFOUR.decrypt(key, keySize, input, output);
+    }
+
+    @Override
+    boolean hasEnoughSettings() {
         if(keySize == 0){
             throw new IllegalArgumentException(Constants.KEY_SIZE_EXCEPTION);
         } else if (keySize < 0){
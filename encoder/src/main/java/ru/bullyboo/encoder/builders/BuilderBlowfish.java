@@ -16,7 +16,14 @@
 
 package ru.bullyboo.encoder.builders;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.methods.BatchResult;
+import ru.bullyboo.encoder.methods.CipherSpec;
 import ru.bullyboo.encoder.methods.Blowfish;
 
 /**
@@ -31,6 +38,8 @@ public class BuilderBlowfish extends BaseBuilder<BuilderBlowfish>{
 
     private volatile byte[] iVector = new byte[]{};
 
+    private volatile boolean parallel;
+
     /**
      * Set the encryption method for encrypting or decrypting
      */
@@ -94,21 +103,93 @@ public class BuilderBlowfish extends BaseBuilder<BuilderBlowfish>{
         return this;
     }
 
+    /**
+     * Decrypt large messages on all processors, if the method supports it
+     * (see {@link Blowfish#isParallelDecryption(String)})
+     */
+    public BuilderBlowfish parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Freeze the settings into the immutable {@link CipherSpec}, which can be shared
+     * by any count of threads. The key and the initialization vector are prepared once,
+     * later changes of the builder don`t affect it. The stream modes (CTR, OFB and CFB) are refused
+     * with UnsupportedOperationException, because the fixed initialization vector of the spec
+     * would encrypt every message with the same key stream. Returns null, if the settings are wrong
+     */
+    public CipherSpec build() {
+        if(method != null && Blowfish.isStreamMode(method)){
+            throw new UnsupportedOperationException(Constants.STREAM_BUILD_EXCEPTION + method);
+        }
+
+        try {
+            if(hasEnoughSettings()){
+                return Blowfish.createSpec(method, key, keySize, iVector);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     @Override
-    String encryption() throws Exception {
-        return Blowfish.encrypt(method, key, keySize, iVector, message);
+    byte[] encryption(byte[] message) throws Exception {
+        return Blowfish.encryptBytes(method, key, keySize, iVector, message);
     }
 
     @Override
-    String decryption() throws Exception {
-        return Blowfish.decrypt(method, key, keySize, iVector, message);
+    byte[] decryption(byte[] message) throws Exception {
+        if(isParallel(message.length)){
+            return Blowfish.decryptParallel(method, key, keySize, iVector, message);
+        }
+        return Blowfish.decryptBytes(method, key, keySize, iVector, message);
     }
 
     @Override
-    boolean hasEnoughData() {
-        if (message == null) {
-            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
+    BatchResult encryption(List<byte[]> messages, boolean parallel) throws Exception {
+        return Blowfish.encryptBatch(method, key, keySize, iVector, messages, parallel);
+    }
+
+    @Override
+    BatchResult decryption(List<byte[]> messages, boolean parallel) throws Exception {
+        return Blowfish.decryptBatch(method, key, keySize, iVector, messages, parallel);
+    }
+
+    @Override
+    void encryption(InputStream input, OutputStream output) throws Exception {
+        Blowfish.encrypt(method, key, keySize, iVector, input, output);
+    }
+
+    @Override
+    void decryption(InputStream input, OutputStream output) throws Exception {
+        Blowfish.decrypt(method, key, keySize, iVector, input, output);
+    }
+
+    @Override
+    void encryption(File input, File output) throws Exception {
+        Blowfish.encrypt(method, key, keySize, iVector, input, output);
+    }
+
+    @Override
+    void decryption(File input, File output) throws Exception {
+        if(isParallel(input.length())){
+            Blowfish.decryptParallel(method, key, keySize, iVector, input, output);
+        } else {
+            Blowfish.decrypt(method, key, keySize, iVector, input, output);
         }
+    }
+
+    /**
+     * Messages shorter than one chunk are decrypted on the calling thread
+     */
+    private boolean isParallel(long length){
+        return parallel && length > Blowfish.PARALLEL_CHUNK_SIZE && Blowfish.isParallelDecryption(method);
+    }
+
+    @Override
+    boolean hasEnoughSettings() {
         if (method == null) {
             throw new NullPointerException(Constants.METHOD_EXCEPTION);
         }
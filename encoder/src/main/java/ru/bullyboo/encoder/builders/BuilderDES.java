@@ -16,7 +16,14 @@
 
 package ru.bullyboo.encoder.builders;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.methods.BatchResult;
+import ru.bullyboo.encoder.methods.CipherSpec;
 import ru.bullyboo.encoder.methods.DES;
 
 /**
@@ -30,6 +37,8 @@ public class BuilderDES extends BaseBuilder<BuilderDES>{
 
     private volatile byte[] iVector = new byte[]{};
 
+    private volatile boolean parallel;
+
     /**
      * Set the encryption method for encrypting or decrypting
      */
@@ -74,21 +83,88 @@ public class BuilderDES extends BaseBuilder<BuilderDES>{
         return this;
     }
 
+    /**
+     * Decrypt large messages on all processors, if the method supports it
+     * (see {@link DES#isParallelDecryption(String)})
+     */
+    public BuilderDES parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Freeze the settings into the immutable {@link CipherSpec}, which can be shared
+     * by any count of threads. The key and the initialization vector are prepared once,
+     * later changes of the builder don`t affect it. The stream modes (CTR, OFB and CFB) are refused
+     * with UnsupportedOperationException, because the fixed initialization vector of the spec
+     * would encrypt every message with the same key stream. Returns null, if the settings are wrong
+     */
+    public CipherSpec build() {
+        if(method != null && DES.isStreamMode(method)){
+            throw new UnsupportedOperationException(Constants.STREAM_BUILD_EXCEPTION + method);
+        }
+
+        try {
+            if(hasEnoughSettings()){
+                return DES.createSpec(method, key, iVector);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    byte[] encryption(byte[] message) throws Exception {
+        return DES.encryptBytes(method, key,iVector, message);
+    }
+
     @Override
-    String encryption() throws Exception {
-        return DES.encrypt(method, key,iVector, message);
+    byte[] decryption(byte[] message) throws Exception {
+        if(isParallel(message.length)){
+            return DES.decryptParallel(method, key, iVector, message);
+        }
+        return DES.decryptBytes(method, key, iVector, message);
     }
 
     @Override
-    String decryption() throws Exception {
-        return DES.decrypt(method, key, iVector, message);
+    BatchResult encryption(List<byte[]> messages, boolean parallel) throws Exception {
+        return DES.encryptBatch(method, key, iVector, messages, parallel);
     }
 
     @Override
-    boolean hasEnoughData() {
-        if(message == null){
-            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
+    BatchResult decryption(List<byte[]> messages, boolean parallel) throws Exception {
+        return DES.decryptBatch(method, key, iVector, messages, parallel);
+    }
+
+    @Override
+    void encryption(InputStream input, OutputStream output) throws Exception {
+        DES.encrypt(method, key, iVector, input, output);
+    }
+
+    @Override
+    void decryption(InputStream input, OutputStream output) throws Exception {
+        DES.decrypt(method, key, iVector, input, output);
+    }
+
+    @Override
+    void decryption(File input, File output) throws Exception {
+        if(isParallel(input.length())){
+            DES.decryptParallel(method, key, iVector, input, output);
+        } else {
+            super.decryption(input, output);
         }
+    }
+
+    /**
+     * Messages shorter than one chunk are decrypted on the calling thread
+     */
+    private boolean isParallel(long length){
+        return parallel && length > DES.PARALLEL_CHUNK_SIZE && DES.isParallelDecryption(method);
+    }
+
+    @Override
+    boolean hasEnoughSettings() {
         if(method == null){
             throw new NullPointerException(Constants.METHOD_EXCEPTION);
         }
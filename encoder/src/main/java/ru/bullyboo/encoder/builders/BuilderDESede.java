@@ -16,7 +16,13 @@
 
 package ru.bullyboo.encoder.builders;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.methods.BatchResult;
+import ru.bullyboo.encoder.methods.CipherSpec;
 import ru.bullyboo.encoder.methods.DESede;
 
 /**
@@ -83,21 +89,54 @@ public class BuilderDESede extends BaseBuilder<BuilderDESede>{
     }
 
 
+    /**
+     * Freeze the settings into the immutable {@link CipherSpec}, which can be shared
+     * by any count of threads. The key and the initialization vector are prepared once,
+     * later changes of the builder don`t affect it. Returns null, if the settings are wrong
+     */
+    public CipherSpec build() {
+        try {
+            if(hasEnoughSettings()){
+                return DESede.createSpec(method, key, keySize, iVector);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    byte[] encryption(byte[] message) throws Exception {
+        return DESede.encryptBytes(method, key, keySize, iVector, message);
+    }
+
     @Override
-    String encryption() throws Exception {
-        return DESede.encrypt(method, key, keySize, iVector, message);
+    byte[] decryption(byte[] message) throws Exception {
+        return DESede.decryptBytes(method, key, keySize, iVector, message);
     }
 
     @Override
-    String decryption() throws Exception {
-        return DESede.decrypt(method, key, keySize, iVector, message);
+    BatchResult encryption(List<byte[]> messages, boolean parallel) throws Exception {
+        return DESede.encryptBatch(method, key, keySize, iVector, messages, parallel);
     }
 
     @Override
-    boolean hasEnoughData() {
-        if(message == null){
-            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
-        }
+    BatchResult decryption(List<byte[]> messages, boolean parallel) throws Exception {
+        return DESede.decryptBatch(method, key, keySize, iVector, messages, parallel);
+    }
+
+    @Override
+    void encryption(InputStream input, OutputStream output) throws Exception {
+        DESede.encrypt(method, key, keySize, iVector, input, output);
+    }
+
+    @Override
+    void decryption(InputStream input, OutputStream output) throws Exception {
+        DESede.decrypt(method, key, keySize, iVector, input, output);
+    }
+
+    @Override
+    boolean hasEnoughSettings() {
         if(method == null){
             throw new NullPointerException(Constants.METHOD_EXCEPTION);
         }
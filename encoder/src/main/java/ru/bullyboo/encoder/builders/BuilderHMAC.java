@@ -16,8 +16,15 @@
 
 package ru.bullyboo.encoder.builders;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import javax.crypto.Mac;
+
 import ru.bullyboo.encoder.constants.Constants;
 import ru.bullyboo.encoder.methods.HMAC;
+import ru.bullyboo.encoder.utils.HexUtils;
 
 /**
  * HMAC Encrypt/Decrypt Builder
@@ -28,6 +35,24 @@ public class BuilderHMAC extends BaseBuilder<BuilderHMAC>{
 
     private volatile byte[] key;
 
+    /**
+     * Mac of the incremental HMAC, it is taken from the pool of HMAC by the first update() call
+     * and returned into the pool by doFinal()
+     */
+    private Mac mac;
+
+    /**
+     * Method and copy of the key of the taken Mac, later changes of the builder don`t affect them
+     */
+    private HMAC.Method macMethod;
+
+    private byte[] macKey;
+
+    /**
+     * True if an update() call failed, the result of doFinal() is null then
+     */
+    private boolean failed;
+
     /**
      * Set the encryption method for encrypting or decrypting
      */
@@ -49,6 +74,169 @@ public class BuilderHMAC extends BaseBuilder<BuilderHMAC>{
         return this;
     }
 
+    /**
+     * Append the bytes to the message of the incremental HMAC. The message of any length
+     * can be passed by parts, for example the body of the response by its chunks,
+     * the message of message() is not used
+     */
+    public synchronized BuilderHMAC update(byte[] bytes) {
+        return update(bytes, 0, bytes.length);
+    }
+
+    public synchronized BuilderHMAC update(byte[] bytes, int offset, int length) {
+        try {
+            Mac mac = getMac();
+
+            if(mac != null){
+                mac.update(bytes, offset, length);
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+        return this;
+    }
+
+    public synchronized BuilderHMAC update(ByteBuffer buffer) {
+        try {
+            Mac mac = getMac();
+
+            if(mac != null){
+                mac.update(buffer);
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+        return this;
+    }
+
+    /**
+     * Append the stream to the message of the incremental HMAC, the stream is read
+     * by chunks till its end and is not closed
+     */
+    public synchronized BuilderHMAC update(InputStream input) {
+        try {
+            Mac mac = getMac();
+
+            if(mac != null){
+                byte[] buffer = new byte[8192];
+
+                int read;
+
+                while ((read = input.read(buffer)) != -1){
+                    mac.update(buffer, 0, read);
+                }
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+        return this;
+    }
+
+    /**
+     * Complete the incremental HMAC, the result is encoded as hex string.
+     * After this call the next update() starts a new message
+     */
+    public String doFinal() {
+        byte[] result = doFinalBytes();
+
+        return result != null ? encode(result) : null;
+    }
+
+    /**
+     * Complete the incremental HMAC, the result is not encoded
+     */
+    public synchronized byte[] doFinalBytes() {
+        try {
+            Mac mac = getMac();
+
+            if(mac != null){
+                byte[] result = mac.doFinal();
+
+                HMAC.release(macMethod, macKey, mac);
+
+                return result;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            this.mac = null;
+            this.macKey = null;
+            this.failed = false;
+        }
+        return null;
+    }
+
+    private Mac getMac() throws Exception {
+        if(mac == null && !failed && hasEnoughSettings()){
+            macMethod = method;
+            macKey = key.clone();
+
+            mac = HMAC.take(macMethod, macKey);
+        }
+        return mac;
+    }
+
+    /**
+     * The Mac of the failed message is not returned into the pool
+     */
+    private void fail(Exception e){
+        e.printStackTrace();
+
+        mac = null;
+        macKey = null;
+        failed = true;
+    }
+
+    /**
+     * Check the tag of the message, the bytes are compared in constant time.
+     * Returns false if the tag is wrong or the check failed
+     */
+    public boolean verify(byte[] tag) {
+        try {
+            if(hasEnoughData()){
+                return HMAC.verify(method, key, getMessage(), tag);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Check the tag of the message, encoded as hex string
+     */
+    public boolean verify(String tag) {
+        try {
+            return verify(HexUtils.fromHex(tag));
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Check the tags of many messages with one key, tags.get(i) is the tag of messages.get(i).
+     * The message of the builder is not used. Returns null if the check failed
+     */
+    public boolean[] verifyBatch(List<byte[]> messages, List<byte[]> tags) {
+        return verifyBatch(messages, tags, false);
+    }
+
+    /**
+     * With parallel the messages are split into groups of about 1 MB,
+     * which are checked on all processors
+     */
+    public boolean[] verifyBatch(List<byte[]> messages, List<byte[]> tags, boolean parallel) {
+        try {
+            if(hasEnoughSettings()){
+                return HMAC.verifyBatch(method, key, messages, tags, parallel);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     /**
      * HMAC encryption method doesn`t support decryption
      */
@@ -57,29 +245,39 @@ public class BuilderHMAC extends BaseBuilder<BuilderHMAC>{
         return super.decrypt();
     }
 
+    @Deprecated
+    public byte[] decryptBytes() {
+        return super.decryptBytes();
+    }
+
     @Deprecated
     public void decryptAsync() {
         return;
     }
 
     @Override
-    String encryption() throws Exception {
-        return HMAC.encrypt(method, key, message);
+    byte[] encryption(byte[] message) throws Exception {
+        return HMAC.encryptBytes(method, key, message);
+    }
+
+    /**
+     * HMAC is encoded as hex string
+     */
+    @Override
+    String encode(byte[] cipherText) {
+        return HexUtils.toHex(cipherText);
     }
 
     @Deprecated
-    String decryption() throws Exception {
+    byte[] decryption(byte[] message) throws Exception {
         throw new NoSuchMethodError();
     }
 
     @Override
-    boolean hasEnoughData() {
+    boolean hasEnoughSettings() {
         if(method == null){
             throw new NullPointerException(Constants.METHOD_EXCEPTION);
         }
-        if(message == null){
-            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
-        }
         return true;
     }
 }
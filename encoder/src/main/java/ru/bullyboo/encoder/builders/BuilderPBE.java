@@ -16,7 +16,13 @@
 
 package ru.bullyboo.encoder.builders;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.methods.BatchResult;
+import ru.bullyboo.encoder.methods.CipherSpec;
 import ru.bullyboo.encoder.methods.PBE;
 
 /**
@@ -82,27 +88,66 @@ public class BuilderPBE extends BaseBuilder<BuilderPBE>{
         return this;
     }
 
+    /**
+     * Freeze the settings into the immutable {@link CipherSpec}, which can be shared
+     * by any count of threads. The key and the initialization vector are prepared once,
+     * later changes of the builder don`t affect it. The stream modes (RC4) are refused
+     * with UnsupportedOperationException, because the fixed initialization vector of the spec
+     * would encrypt every message with the same key stream. Returns null, if the settings are wrong
+     */
+    public CipherSpec build() {
+        if(method != null && PBE.isStreamMode(method.getMethod())){
+            throw new UnsupportedOperationException(Constants.STREAM_BUILD_EXCEPTION + method.getMethod());
+        }
+
+        try {
+            if(hasEnoughSettings()){
+                return PBE.createSpec(method, key, keySize, vector);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    byte[] encryption(byte[] message) throws Exception {
+        return PBE.encryptBytes(method, key, keySize, vector, message);
+    }
+
+    @Override
+    byte[] decryption(byte[] message) throws Exception {
+        return PBE.decryptBytes(method, key, keySize, vector, message);
+    }
+
     @Override
-    String encryption() throws Exception {
-        return PBE.encrypt(method, key, keySize, vector, message);
+    BatchResult encryption(List<byte[]> messages, boolean parallel) throws Exception {
+        return PBE.encryptBatch(method, key, keySize, vector, messages, parallel);
     }
 
     @Override
-    String decryption() throws Exception {
-        return PBE.decrypt(method, key, keySize, vector, message);
+    BatchResult decryption(List<byte[]> messages, boolean parallel) throws Exception {
+        return PBE.decryptBatch(method, key, keySize, vector, messages, parallel);
     }
 
     @Override
-    boolean hasEnoughData() {
+    void encryption(InputStream input, OutputStream output) throws Exception {
+        PBE.encrypt(method, key, keySize, vector, input, output);
+    }
+
+    @Override
+    void decryption(InputStream input, OutputStream output) throws Exception {
+        PBE.decrypt(method, key, keySize, vector, input, output);
+    }
+
+    @Override
+    boolean hasEnoughSettings() {
         if (!methodHasKeySize()) {
             throw new IllegalStateException(Constants.PBE_KEY_SIZE_EXCEPTION + getAllSizes());
         }
         if (method == null) {
             throw new NullPointerException(Constants.METHOD_EXCEPTION);
         }
-        if (message == null) {
-            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
-        }
 
         return true;
     }
@@ -21,10 +21,11 @@ import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 
-import ru.bullyboo.encoder.threads.BaseThread;
 import ru.bullyboo.encoder.constants.Constants;
 import ru.bullyboo.encoder.methods.RSA;
-import ru.bullyboo.encoder.threads.KeyGenerateThread;
+import ru.bullyboo.encoder.threads.BaseTask;
+import ru.bullyboo.encoder.threads.EncoderFuture;
+import ru.bullyboo.encoder.threads.KeyGenerateTask;
 import ru.bullyboo.encoder.utils.EncryptUtils;
 
 /**
@@ -41,6 +42,8 @@ public class BuilderRSA extends BaseBuilder<BuilderRSA>{
 
     private volatile RSA.KeyCallback keyCallback;
 
+    private volatile boolean envelope;
+
     /**
      * Set the encryption method for encrypting or decrypting
      */
@@ -90,6 +93,16 @@ public class BuilderRSA extends BaseBuilder<BuilderRSA>{
         return this;
     }
 
+    /**
+     * Enable hybrid encryption: the message of any size is encrypted with AES/GCM
+     * by a random data key and only the data key is encrypted with RSA-OAEP (SHA-256).
+     * The method is not used in this mode
+     */
+    public BuilderRSA envelope(boolean envelope) {
+        this.envelope = envelope;
+        return this;
+    }
+
     /**
      * This method calls synchronous key generation
      */
@@ -114,19 +127,16 @@ public class BuilderRSA extends BaseBuilder<BuilderRSA>{
             throw new NullPointerException(Constants.RSA_KEY_CALLBACK_EXCEPTION);
         }
 
-        BaseThread.EncodeAction<KeyPair> action = new BaseThread.EncodeAction<KeyPair> () {
+        final RSA.KeyCallback keyCallback = this.keyCallback;
+
+        BaseTask.EncodeAction<KeyPair> action = new BaseTask.EncodeAction<KeyPair> () {
             @Override
-            public KeyPair action() {
-                try {
-                    return generateKey();
-                } catch (Exception e) {
-                    keyCallback.onFailure(e);
-                }
-                return null;
+            public KeyPair action() throws Exception {
+                return generateKey();
             }
         };
 
-        new KeyGenerateThread(action, new BaseThread.ThreadCallback<KeyPair>() {
+        execute(new KeyGenerateTask(action, new BaseTask.TaskCallback<KeyPair>() {
             @Override
             public void onFinish(KeyPair parameter) {
                 keyCallback.onSuccess(parameter);
@@ -136,39 +146,74 @@ public class BuilderRSA extends BaseBuilder<BuilderRSA>{
             public void onFailed(Throwable e) {
                 keyCallback.onFailure(e);
             }
-        }).start();
+        }));
+    }
+
+    /**
+     * This method calls asynchronous key generation, the key is returned as a future
+     */
+    public EncoderFuture<KeyPair> generateKeyFuture(){
+        if(keySize == null){
+            throw new NullPointerException(Constants.RSA_KEY_SIZE_EXCEPTION);
+        }
+
+        final RSA.KeySize keySize = this.keySize;
+
+        return submit(new BaseTask.EncodeAction<KeyPair>() {
+            @Override
+            public KeyPair action() throws Exception {
+                return RSA.generateKey(keySize);
+            }
+        });
     }
 
     @Override
-    String encryption() throws Exception {
+    byte[] encryption(byte[] message) throws Exception {
+        if(envelope){
+            if(key != null){
+                return RSA.encryptEnvelope(key, message, keyCallback);
+            } else if(publicKey != null){
+                return RSA.encryptEnvelope(publicKey, message, keyCallback);
+            } else {
+                return RSA.encryptEnvelope(keySize, message, keyCallback);
+            }
+        }
+
         if(key != null){
-            return RSA.encrypt(method, key, message, keyCallback);
+            return RSA.encryptBytes(method, key, message, keyCallback);
         } else if(publicKey != null){
-            return RSA.encrypt(method, publicKey, message, keyCallback);
+            return RSA.encryptBytes(method, publicKey, message, keyCallback);
         } else {
-            return RSA.encrypt(method, keySize, message, keyCallback);
+            return RSA.encryptBytes(method, keySize, message, keyCallback);
         }
     }
 
     @Override
-    String decryption() throws Exception{
+    byte[] decryption(byte[] message) throws Exception {
+        if(envelope){
+            if(key != null){
+                return RSA.decryptEnvelope(key, message);
+            } else if(privateKey != null){
+                return RSA.decryptEnvelope(privateKey, message);
+            } else {
+                throw new NullPointerException(Constants.RSA_HAS_NOT_KEY_EXCEPTION);
+            }
+        }
+
         if(key != null){
-            return RSA.decrypt(method, key, message);
+            return RSA.decryptBytes(method, key, message);
         } else if(privateKey != null){
-            return RSA.decrypt(method, privateKey, message);
+            return RSA.decryptBytes(method, privateKey, message);
         } else {
             throw new NullPointerException(Constants.RSA_HAS_NOT_KEY_EXCEPTION);
         }
     }
 
     @Override
-    boolean hasEnoughData(){
-        if(method == null){
+    boolean hasEnoughSettings() {
+        if(method == null && !envelope){
             throw new NullPointerException(Constants.METHOD_EXCEPTION);
         }
-        if(message == null){
-            throw new NullPointerException(Constants.MESSAGE_EXCEPTION);
-        }
         return true;
     }
 }
@@ -26,16 +26,36 @@ public class Constants {
      */
     public static final String MESSAGE_EXCEPTION = "Message was not set";
     public static final String METHOD_EXCEPTION = "Method was not set";
+    public static final String SETTINGS_EXCEPTION = "Settings of the builder are not valid";
     public static final String METHOD_CFB_OFB_EXCEPTION = "Wrong method number. Set the method number between 8 and 128";
     public static final String KEY_SIZE_EXCEPTION = "Key size can`t be equal to 0";
     public static final String LESS_ZERO_KEY_SIZE_EXCEPTION = "Key size can`t be less than 0";
+    public static final String PARALLEL_METHOD_EXCEPTION = "This method can`t be processed in parallel: ";
+    public static final String STREAM_EXCEPTION = "This method doesn`t support encryption of streams";
+    public static final String BATCH_EXCEPTION = "This method doesn`t support encryption of batches";
+    public static final String STREAM_BATCH_EXCEPTION = "This mode would encrypt all the messages of the batch with the same key stream: ";
+    public static final String BATCH_SIZE_EXCEPTION = "Results of the batch don`t fit into one array";
+    public static final String SPEC_EXCEPTION = "Segmented format can`t be frozen into CipherSpec";
+    public static final String STREAM_BUILD_EXCEPTION = "CipherSpec of the stream mode would encrypt every message with the same key stream, encrypt by the builder instead: ";
+    public static final String STREAM_SPEC_EXCEPTION = "CipherSpec of the stream mode can`t encrypt, every message needs its own initialization vector: ";
+    public static final String SEGMENT_SIZE_EXCEPTION = "Wrong segment size. Set the segment size between 1 and 67108864";
+    public static final String SEGMENTED_HEADER_EXCEPTION = "Wrong header of the segmented message";
+    public static final String SEGMENTED_LENGTH_EXCEPTION = "Wrong length of the segmented message";
+    public static final String RANGE_EXCEPTION = "Offset and length can`t be less than 0";
+    public static final String HEX_EXCEPTION = "Wrong hex string";
 
     public static final String RSA_KEY_EXCEPTION = "Wrong key size value. Set the key size between 512 and 65536";
     public static final String RSA_KEY_MULTIPLY_EXCEPTION = "Wrong key size value. Key must be a multiple of 64";
     public static final String RSA_KEY_CALLBACK_EXCEPTION = "Key Callback was not set";
     public static final String RSA_HAS_NOT_KEY_EXCEPTION = "Private key was not set. Try to use privateKey() or key() methods";
     public static final String RSA_KEY_SIZE_EXCEPTION = "Key size was not set";
+    public static final String RSA_ENVELOPE_EXCEPTION = "Wrong format of the envelope";
+    public static final String KEY_POOL_DEPTH_EXCEPTION = "Depth of the key pool can`t be less than 0";
+
+    public static final String HMAC_TAGS_EXCEPTION = "Count of the tags must be equal to count of the messages";
 
     public static final String PBE_KEY_SIZE_EXCEPTION = "Key size is not valid. Key size must be: ";
+    public static final String PBE_CACHE_SIZE_EXCEPTION = "Size of the cache can`t be less than 0";
+    public static final String PBE_CACHE_TIMEOUT_EXCEPTION = "Timeout of the cache can`t be less than 0";
 
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.hashes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ru.bullyboo.encoder.utils.HexUtils;
+
+/**
+ * Base class for the Merkle-Damgard hash functions with 512-bit blocks
+ * (MD4, MD5, SHA1, SHA224, SHA256 and the RIPEMD family).
+ *
+ * Bytes of the message are packed straight into a reusable 16-word block,
+ * which is handed to {@link #processHash(int[])} as soon as it is full,
+ * so hashing needs no extra memory regardless of the message length.
+ */
+abstract class BaseHash implements Digest {
+
+    /**
+     * Size of one block in bytes
+     */
+    static final int BLOCK_SIZE = 64;
+
+    /**
+     * Current 16-word block
+     */
+    private final int[] block = new int[16];
+
+    /**
+     * True if the words of the block are big-endian (SHA family),
+     * false if they are little-endian (MD and RIPEMD families)
+     */
+    private final boolean bigEndian;
+
+    /**
+     * Count of bytes already written into the current block
+     */
+    private int position;
+
+    /**
+     * Count of bytes of the whole message
+     */
+    private long count;
+
+    BaseHash(ByteOrder order){
+        this.bigEndian = order == ByteOrder.BIG_ENDIAN;
+
+        reset();
+    }
+
+    /**
+     * Step 3. Initialize MD Buffer
+     */
+    protected abstract void initMdBuffer();
+
+    /**
+     * Step 4. Process Message in 16-Word Blocks
+     *
+     * Process one block of the message, the words of the block
+     * are already in the byte order of the hash function
+     */
+    protected abstract void processHash(int[] x);
+
+    /**
+     * Words of the MD buffer, which are the output of the hash function
+     */
+    protected abstract int[] getOutput();
+
+    /**
+     * This method return hash of message
+     */
+    public String getHash(String input){
+        reset();
+
+        update(input.getBytes());
+
+        return HexUtils.toHex(digest());
+    }
+
+    @Override
+    public void reset(){
+        position = 0;
+        count = 0;
+
+        initMdBuffer();
+    }
+
+    @Override
+    public int getDigestLength(){
+        return getOutput().length * 4;
+    }
+
+    @Override
+    public void update(byte[] bytes){
+        update(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void update(byte[] bytes, int offset, int length){
+        count += length;
+
+        while (length > 0 && position != 0){
+            putByte(bytes[offset++]);
+            length--;
+        }
+
+        while (length >= BLOCK_SIZE){
+            for(int i = 0; i < 16; i++){
+                block[i] = getWord(bytes, offset + i * 4);
+            }
+
+            processHash(block);
+
+            offset += BLOCK_SIZE;
+            length -= BLOCK_SIZE;
+        }
+
+        while (length > 0){
+            putByte(bytes[offset++]);
+            length--;
+        }
+    }
+
+    @Override
+    public void update(ByteBuffer buffer){
+        if(buffer.hasArray()){
+            int length = buffer.remaining();
+
+            update(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+
+            buffer.position(buffer.position() + length);
+            return;
+        }
+
+        count += buffer.remaining();
+
+        while (buffer.hasRemaining() && position != 0){
+            putByte(buffer.get());
+        }
+
+        if(buffer.remaining() >= BLOCK_SIZE){
+            ByteOrder order = buffer.order();
+
+            buffer.order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+
+            while (buffer.remaining() >= BLOCK_SIZE){
+                for(int i = 0; i < 16; i++){
+                    block[i] = buffer.getInt();
+                }
+
+                processHash(block);
+            }
+
+            buffer.order(order);
+        }
+
+        while (buffer.hasRemaining()){
+            putByte(buffer.get());
+        }
+    }
+
+    @Override
+    public byte[] digest(){
+        finish();
+
+        int[] words = getOutput();
+
+        byte[] hash = new byte[words.length * 4];
+
+        for(int i = 0; i < words.length; i++){
+            putWord(words[i], hash, i * 4);
+        }
+
+        reset();
+
+        return hash;
+    }
+
+    /**
+     * Step 1. Append Padding Bits
+     *
+     * The message is "padded" (extended) so that its length (in bits) is
+     * congruent to 448, modulo 512. Padding is performed as follows: a single
+     * "1" bit is appended to the message, and then "0" bits are appended so
+     * that the length in bits of the padded message becomes congruent to 448,
+     * modulo 512.
+     *
+     * Step 2. Append Length
+     *
+     * A 64-bit representation of b (the length of the message before the
+     * padding bits were added) is appended to the result of the previous
+     * step. The MD and RIPEMD families append it low-order word first,
+     * the SHA family appends it high-order word first.
+     *
+     * Copied from RFC 1321
+     * Page 3
+     * https://tools.ietf.org/html/rfc1321
+     */
+    protected void finish(){
+        long bits = count << 3;
+
+        putByte((byte) 0x80);
+
+        while (position != BLOCK_SIZE - 8){
+            putByte((byte) 0);
+        }
+
+        if(bigEndian){
+            block[14] = (int) (bits >>> 32);
+            block[15] = (int) bits;
+        } else {
+            block[14] = (int) bits;
+            block[15] = (int) (bits >>> 32);
+        }
+
+        processHash(block);
+    }
+
+    private void putByte(byte b){
+        int word = position >> 2;
+        int shift = bigEndian ? (3 - (position & 3)) << 3 : (position & 3) << 3;
+
+        if((position & 3) == 0){
+            block[word] = (b & 0xFF) << shift;
+        } else {
+            block[word] |= (b & 0xFF) << shift;
+        }
+
+        if(++position == BLOCK_SIZE){
+            processHash(block);
+            position = 0;
+        }
+    }
+
+    private void putWord(int word, byte[] bytes, int offset){
+        if(bigEndian){
+            bytes[offset] = (byte) (word >>> 24);
+            bytes[offset + 1] = (byte) (word >>> 16);
+            bytes[offset + 2] = (byte) (word >>> 8);
+            bytes[offset + 3] = (byte) word;
+        } else {
+            bytes[offset] = (byte) word;
+            bytes[offset + 1] = (byte) (word >>> 8);
+            bytes[offset + 2] = (byte) (word >>> 16);
+            bytes[offset + 3] = (byte) (word >>> 24);
+        }
+    }
+
+    private int getWord(byte[] bytes, int offset){
+        if(bigEndian){
+            return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                    | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+        } else {
+            return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8
+                    | (bytes[offset + 2] & 0xFF) << 16 | (bytes[offset + 3] & 0xFF) << 24;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.hashes;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental hash function.
+ *
+ * The message can be passed by parts of any size, only one block of
+ * the message is buffered between the calls, so messages of any length
+ * can be hashed in constant memory.
+ *
+ * Digest is not thread-safe, use one instance per thread.
+ */
+public interface Digest {
+
+    /**
+     * Append the whole array to the message
+     */
+    void update(byte[] bytes);
+
+    /**
+     * Append length bytes of the array, starting from offset, to the message
+     */
+    void update(byte[] bytes, int offset, int length);
+
+    /**
+     * Append the remaining bytes of the buffer to the message,
+     * position of the buffer will be equal to its limit after the call
+     */
+    void update(ByteBuffer buffer);
+
+    /**
+     * Complete the hash computation and return the hash.
+     * Digest is reset after this call and can be used again
+     */
+    byte[] digest();
+
+    /**
+     * Drop the message, passed into this digest
+     */
+    void reset();
+
+    /**
+     * Length of the hash in bytes
+     */
+    int getDigestLength();
+}
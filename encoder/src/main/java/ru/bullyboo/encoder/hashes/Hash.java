@@ -16,33 +16,46 @@
 
 package ru.bullyboo.encoder.hashes;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Formatter;
+import java.util.concurrent.ExecutorService;
+
+import ru.bullyboo.encoder.utils.HexUtils;
 
 /**
- * Class for getting hash function from String
+ * Class for getting hash function from String or File
  */
 public class Hash {
 
     /**
-     * Converting String to md2 hash
+     * Size of the file region, which is mapped into memory at once
      */
-    public String md2(String message){
-        byte[] hash = new MD2().getHash(message);
+    private static final long MAP_SIZE = 64 * 1024 * 1024;
 
-        StringBuilder hexString = new StringBuilder();
+    private final long mapSize;
 
-        for(int i = 0; i < 16; i++){
-            String h = Integer.toHexString(0xFF & hash[i]);
+    public Hash(){
+        this(MAP_SIZE);
+    }
 
-            while (h.length() < 2){
-                h = "0" + h;
-            }
-            hexString.append(h);
-        }
+    /**
+     * Create Hash, which maps the files by regions of mapSize bytes
+     */
+    Hash(long mapSize){
+        this.mapSize = mapSize;
+    }
 
-        return hexString.toString();
+    /**
+     * Converting String to md2 hash
+     */
+    public String md2(String message){
+        return new MD2().getHash(message);
     }
 
     /**
@@ -170,4 +183,278 @@ public class Hash {
         return new RIPEMD_320().getHash(message);
     }
 
+    /**
+     * Converting File to md2 hash
+     */
+    public String md2(File file){
+        return getHash(new MD2(), file);
+    }
+
+    /**
+     * Converting File to md4 hash
+     */
+    public String md4(File file){
+        return getHash(new MD4(), file);
+    }
+
+    /**
+     * Converting File to md5 hash
+     */
+    public String md5(File file){
+        return getHash(new MD5(), file);
+    }
+
+    /**
+     * Converting File to sha1 hash
+     */
+    public String sha1(File file){
+        return getHash(new SHA1(), file);
+    }
+
+    /**
+     * Converting File to sha224 hash
+     */
+    public String sha224(File file){
+        return getHash(new SHA224(), file);
+    }
+
+    /**
+     * Converting File to sha256 hash
+     */
+    public String sha256(File file){
+        return getHash(new SHA256(), file);
+    }
+
+    /**
+     * Converting File to sha384 hash
+     */
+    public String sha384(File file){
+        try {
+            return getHash(new JdkDigest("SHA-384"), file);
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Converting File to sha512 hash
+     */
+    public String sha512(File file){
+        try {
+            return getHash(new JdkDigest("SHA-512"), file);
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Converting File to ripemd128 hash
+     */
+    public String ripemd128(File file){
+        return getHash(new RIPEMD_128(), file);
+    }
+
+    /**
+     * Converting File to ripemd160 hash
+     */
+    public String ripemd160(File file){
+        return getHash(new RIPEMD_160(), file);
+    }
+
+    /**
+     * Converting File to ripemd256 hash
+     */
+    public String ripemd256(File file){
+        return getHash(new RIPEMD_256(), file);
+    }
+
+    /**
+     * Converting File to ripemd320 hash
+     */
+    public String ripemd320(File file){
+        return getHash(new RIPEMD_320(), file);
+    }
+
+    /**
+     * Converting File to sha256 tree hash, leaves of the file are hashed
+     * in parallel. See {@link TreeHash} for the description of the tree
+     */
+    public String sha256Tree(File file){
+        return getHash(TreeHash.sha256(), file);
+    }
+
+    /**
+     * Converting File to ripemd160 tree hash, leaves of the file are hashed
+     * in parallel. See {@link TreeHash} for the description of the tree
+     */
+    public String ripemd160Tree(File file){
+        return getHash(TreeHash.ripemd160(), file);
+    }
+
+    /**
+     * Incremental md2 hash function
+     */
+    public Digest md2Digest(){
+        return new MD2();
+    }
+
+    /**
+     * Incremental md4 hash function
+     */
+    public Digest md4Digest(){
+        return new MD4();
+    }
+
+    /**
+     * Incremental md5 hash function
+     */
+    public Digest md5Digest(){
+        return new MD5();
+    }
+
+    /**
+     * Incremental sha1 hash function
+     */
+    public Digest sha1Digest(){
+        return new SHA1();
+    }
+
+    /**
+     * Incremental sha224 hash function
+     */
+    public Digest sha224Digest(){
+        return new SHA224();
+    }
+
+    /**
+     * Incremental sha256 hash function
+     */
+    public Digest sha256Digest(){
+        return new SHA256();
+    }
+
+    /**
+     * Incremental ripemd128 hash function
+     */
+    public Digest ripemd128Digest(){
+        return new RIPEMD_128();
+    }
+
+    /**
+     * Incremental ripemd160 hash function
+     */
+    public Digest ripemd160Digest(){
+        return new RIPEMD_160();
+    }
+
+    /**
+     * Incremental ripemd256 hash function
+     */
+    public Digest ripemd256Digest(){
+        return new RIPEMD_256();
+    }
+
+    /**
+     * Incremental ripemd320 hash function
+     */
+    public Digest ripemd320Digest(){
+        return new RIPEMD_320();
+    }
+
+    /**
+     * Converting String to several hashes at once, the message is read only once.
+     * Hashes are returned in the order of the digests
+     */
+    public String[] hashes(String message, Digest... digests){
+        MultiDigest multiDigest = new MultiDigest(digests);
+
+        multiDigest.update(message.getBytes());
+
+        return toHex(multiDigest.digests());
+    }
+
+    /**
+     * Converting File to several hashes at once, the file is read only once.
+     * Hashes are returned in the order of the digests
+     */
+    public String[] hashes(File file, Digest... digests){
+        return hashes(file, null, digests);
+    }
+
+    /**
+     * Converting File to several hashes at once, the file is read only once
+     * and every hash is computed on the threads of the executor.
+     * Hashes are returned in the order of the digests
+     */
+    public String[] hashes(File file, ExecutorService executor, Digest... digests){
+        MultiDigest multiDigest = new MultiDigest(executor, digests);
+
+        try {
+            update(multiDigest, file);
+
+            return toHex(multiDigest.digests());
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    private String getHash(Digest digest, File file){
+        try {
+            update(digest, file);
+
+            return HexUtils.toHex(digest.digest());
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    private String getHash(TreeHash treeHash, File file){
+        try {
+            return HexUtils.toHex(treeHash.hash(file));
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Feed the file into the digest by regions of mapSize bytes,
+     * which are mapped into memory, so the file is never copied into the heap
+     */
+    private void update(Digest digest, File file) throws IOException {
+        try (FileInputStream stream = new FileInputStream(file)) {
+            FileChannel channel = stream.getChannel();
+
+            long size = channel.size();
+
+            for(long position = 0; position < size; position += mapSize){
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position, Math.min(mapSize, size - position));
+
+                digest.update(buffer);
+            }
+        }
+    }
+
+    private String[] toHex(byte[][] hashes){
+        String[] hex = new String[hashes.length];
+
+        for(int i = 0; i < hashes.length; i++){
+            hex[i] = HexUtils.toHex(hashes[i]);
+        }
+
+        return hex;
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.hashes;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Digest, which delegates to the {@link MessageDigest} of the platform.
+ * Used for the hash functions, which have no own implementation (sha384, sha512)
+ */
+class JdkDigest implements Digest {
+
+    private final MessageDigest digest;
+
+    JdkDigest(String algorithm) throws NoSuchAlgorithmException {
+        this.digest = MessageDigest.getInstance(algorithm);
+    }
+
+    @Override
+    public void update(byte[] bytes){
+        digest.update(bytes);
+    }
+
+    @Override
+    public void update(byte[] bytes, int offset, int length){
+        digest.update(bytes, offset, length);
+    }
+
+    @Override
+    public void update(ByteBuffer buffer){
+        digest.update(buffer);
+    }
+
+    @Override
+    public byte[] digest(){
+        return digest.digest();
+    }
+
+    @Override
+    public void reset(){
+        digest.reset();
+    }
+
+    @Override
+    public int getDigestLength(){
+        return digest.getDigestLength();
+    }
+}
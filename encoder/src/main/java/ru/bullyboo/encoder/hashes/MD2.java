@@ -16,13 +16,15 @@
 
 package ru.bullyboo.encoder.hashes;
 
-import ru.bullyboo.encoder.utils.ArrayUtils;
+import java.nio.ByteBuffer;
+
+import ru.bullyboo.encoder.utils.HexUtils;
 
 /**
  * The MD2 Message-Digest Algorithm
  */
 
-class MD2 {
+class MD2 implements Digest {
 
     /**
      * substitution table derived from Pi. Copied from the RFC.
@@ -45,24 +47,85 @@ class MD2 {
             242, 239, 183,  14, 102,  88, 208, 228, 166, 119, 114, 248, 235, 117,  75,  10,
             49,  68,  80, 180, 143, 237,  31,  26, 219, 153, 141,  51, 159,  17, 131,  20};
 
+    /**
+     * Size of one block in bytes
+     */
+    private static final int BLOCK_SIZE = 16;
+
     /**
      * MD Buffer
      */
-    private int[] x;
+    private final int[] x = new int[48];
+
+    /**
+     * Checksum of the message
+     */
+    private final int[] checkSum = new int[16];
+
+    /**
+     * Current 16-byte block
+     */
+    private final int[] block = new int[16];
+
+    /**
+     * Count of bytes already written into the current block
+     */
+    private int position;
+
+    /**
+     * Last byte of the checksum
+     */
+    private int L;
+
+    MD2(){
+        reset();
+    }
 
     /**
      * This method return hash of message
      */
-    public byte[] getHash(String message){
+    public String getHash(String message){
+        reset();
+
+        update(message.getBytes());
+
+        return HexUtils.toHex(digest());
+    }
+
+    @Override
+    public void update(byte[] bytes){
+        update(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void update(byte[] bytes, int offset, int length){
+        for(int i = 0; i < length; i++){
+            putByte(bytes[offset + i]);
+        }
+    }
+
+    @Override
+    public void update(ByteBuffer buffer){
+        while (buffer.hasRemaining()){
+            putByte(buffer.get());
+        }
+    }
+
+    @Override
+    public byte[] digest(){
+        appendPaddingBytes();
+        appendCheckSum();
 
-        int[] messageInt = appendPaddingBytes(message.getBytes());
-        messageInt = appendCheckSum(messageInt);
+        byte[] hash = getOutput();
 
-        initMdBuffer();
+        reset();
 
-        int[] x = processMessage(messageInt);
+        return hash;
+    }
 
-        return getOutput(x);
+    @Override
+    public int getDigestLength(){
+        return 16;
     }
 
     /**
@@ -87,25 +150,12 @@ class MD2 {
      * https://tools.ietf.org/html/rfc1319
      *
      */
-    private int[] appendPaddingBytes(byte[] bytes){
-
-        int size = bytes.length;
-
-        int temp = size;
+    private void appendPaddingBytes(){
+        int value = BLOCK_SIZE - position;
 
-        do{
-            temp++;
-        } while (temp % 16 != 0);
-
-        int value = temp - size;
-
-        int[] paddingBytes = new int[value];
-
-        for(int i = 0; i < value ; i++){
-            paddingBytes[i] = value;
+        for(int i = 0; i < value; i++){
+            putByte((byte) value);
         }
-
-        return ArrayUtils.mergeArrays(bytes, paddingBytes);
     }
 
     /**
@@ -126,26 +176,20 @@ class MD2 {
      * https://tools.ietf.org/html/rfc1319
      *
      */
-    private int[] appendCheckSum(int[] bytes){
-
-        int[] checkSum = new int[16];
-
-        int size = checkSum.length;
-
-        int L = 0;
-
-        for(int i = 0; i < size/16; i++){
-
-            for(int j = 0; j < 16; j++){
+    private void appendCheckSum(){
+        processMessage(checkSum);
+    }
 
-                int c = bytes[i * 16 + j];
-                int s = S[c^L];
-                L = checkSum[j] ^ s;
-                checkSum[j] = L;
-            }
+    /**
+     * Update the checksum with one block of the message
+     */
+    private void updateCheckSum(int[] block){
+        for(int j = 0; j < 16; j++){
+            int c = block[j];
+            int s = S[c^L];
+            L = checkSum[j] ^ s;
+            checkSum[j] = L;
         }
-
-        return ArrayUtils.mergeArrays(bytes, checkSum);
     }
 
     /**
@@ -159,9 +203,18 @@ class MD2 {
      * https://tools.ietf.org/html/rfc1319
      *
      */
-    private int[] initMdBuffer() {
-        x = new int[48];
-        return x;
+    @Override
+    public void reset(){
+        for(int i = 0; i < 48; i++){
+            x[i] = 0;
+        }
+
+        for(int i = 0; i < 16; i++){
+            checkSum[i] = 0;
+        }
+
+        L = 0;
+        position = 0;
     }
 
     /**
@@ -174,34 +227,37 @@ class MD2 {
      * https://tools.ietf.org/html/rfc1319
      *
      */
-    private int[] processMessage(int[] array){
+    private void processMessage(int[] block){
 
-        int size = array.length;
+//        copy block into x
+        for(int j = 0; j < 16; j++){
+            x[16 + j] = block[j];
+            x[32 + j] = x[16 + j] ^ x[j];
+        }
 
-        for(int i = 0; i < size/16; i++){
+        int t = 0;
 
-//            copy block i into x
-            for(int j = 0; j < 16; j++){
-                x[16 + j] = array[i * 16 + j];
-                x[32 + j] = x[16 + j] ^ x[j];
-            }
+//        18 rounds
+        for(int j = 0; j < 18; j++){
 
-            int t = 0;
+//            round j
+            for(int k = 0; k < 48; k++){
+                x[k] = x[k] ^ S[t];
+                t = x[k];
+            }
 
-//            18 rounds
-            for(int j = 0; j < 18; j++){
+            t = (t+j) % 256;
+        }
+    }
 
-//                round j
-                for(int k = 0; k < 48; k++){
-                    x[k] = x[k] ^ S[t];
-                    t = x[k];
-                }
+    private void putByte(byte b){
+        block[position] = b & 0xFF;
 
-                t = (t+j) % 256;
-            }
+        if(++position == BLOCK_SIZE){
+            updateCheckSum(block);
+            processMessage(block);
+            position = 0;
         }
-
-        return x;
     }
 
     /**
@@ -218,7 +274,7 @@ class MD2 {
      * https://tools.ietf.org/html/rfc1319
      *
      */
-    private byte[] getOutput(int[] x) {
+    private byte[] getOutput() {
         byte[] hash = new byte[16];
 
         for(int i = 0; i < 16; i++){
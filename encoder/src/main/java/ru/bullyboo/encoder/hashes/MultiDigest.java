@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.hashes;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Digest, which computes several hash functions in one pass over the message.
+ *
+ * Every part of the message is passed to all the digests, so the message
+ * is read only once. If an executor is set, the digests process every part
+ * of the message on different threads, which is useful for large parts
+ * (for example, regions of a mapped file), for small parts the cost of
+ * passing the work to other threads is higher than the cost of hashing.
+ *
+ * The result of {@link #digest()} is the concatenation of all the hashes,
+ * in the order of the digests, {@link #digests()} returns them separately.
+ * Every digest must be passed only once, one instance updated by two threads
+ * at once would compute a wrong hash.
+ */
+public class MultiDigest implements Digest {
+
+    private final Digest[] digests;
+
+    private final ExecutorService executor;
+
+    /**
+     * Create digest, which computes all the hash functions on the calling thread
+     */
+    public MultiDigest(Digest... digests){
+        this(null, digests);
+    }
+
+    /**
+     * Create digest, which computes the hash functions on the threads of the executor
+     */
+    public MultiDigest(ExecutorService executor, Digest... digests){
+        if(digests.length == 0){
+            throw new IllegalArgumentException("At least one digest is required");
+        }
+
+        for(int i = 0; i < digests.length; i++){
+            for(int j = 0; j < i; j++){
+                if(digests[i] == digests[j]){
+                    throw new IllegalArgumentException("The digest is passed twice: " + digests[i]);
+                }
+            }
+        }
+
+        this.executor = executor;
+        this.digests = digests.clone();
+    }
+
+    @Override
+    public void update(byte[] bytes){
+        update(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void update(final byte[] bytes, final int offset, final int length){
+        if(executor == null || digests.length == 1){
+            for(Digest digest : digests){
+                digest.update(bytes, offset, length);
+            }
+            return;
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(digests.length);
+
+        for(final Digest digest : digests){
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    digest.update(bytes, offset, length);
+                    return null;
+                }
+            });
+        }
+
+        invokeAll(tasks);
+    }
+
+    @Override
+    public void update(ByteBuffer buffer){
+        if(executor == null || digests.length == 1){
+            for(Digest digest : digests){
+                digest.update(buffer.duplicate());
+            }
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>(digests.length);
+
+            for(final Digest digest : digests){
+                final ByteBuffer part = buffer.duplicate();
+
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        digest.update(part);
+                        return null;
+                    }
+                });
+            }
+
+            invokeAll(tasks);
+        }
+
+        buffer.position(buffer.limit());
+    }
+
+    /**
+     * Complete the computation and return the concatenation of all the hashes
+     */
+    @Override
+    public byte[] digest(){
+        byte[] hash = new byte[getDigestLength()];
+
+        int offset = 0;
+
+        for(byte[] part : digests()){
+            System.arraycopy(part, 0, hash, offset, part.length);
+            offset += part.length;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Complete the computation and return the hashes in the order of the digests
+     */
+    public byte[][] digests(){
+        byte[][] hashes = new byte[digests.length][];
+
+        for(int i = 0; i < digests.length; i++){
+            hashes[i] = digests[i].digest();
+        }
+
+        return hashes;
+    }
+
+    @Override
+    public void reset(){
+        for(Digest digest : digests){
+            digest.reset();
+        }
+    }
+
+    @Override
+    public int getDigestLength(){
+        int length = 0;
+
+        for(Digest digest : digests){
+            length += digest.getDigestLength();
+        }
+
+        return length;
+    }
+
+    private void invokeAll(List<Callable<Void>> tasks){
+        try {
+            for(Future<Void> future : executor.invokeAll(tasks)){
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hashing was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Hashing failed", e.getCause());
+        }
+    }
+}
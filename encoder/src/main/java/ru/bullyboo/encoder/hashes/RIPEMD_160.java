@@ -16,17 +16,14 @@
 
 package ru.bullyboo.encoder.hashes;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import ru.bullyboo.encoder.utils.ArrayUtils;
+import java.nio.ByteOrder;
 
 /**
  * The RIPEMD-160 Message-Digest Algorithm
  * (RACE Integrity Primitives Evaluation Message Digest)
  */
 @SuppressWarnings("all")
-class RIPEMD_160 {
+class RIPEMD_160 extends BaseHash {
 
     /**
      * Message Digest Buffer
@@ -81,87 +78,8 @@ class RIPEMD_160 {
             12, 15, 10,  4,  1,  5,  8,  7,  6,  2, 13, 14,  0,  3,  9, 11
     };
 
-    /**
-     * This method return hash of message
-     */
-    public String getHash(String input){
-        byte[] bytes = input.getBytes();
-
-        List<Integer> intList = appendPaddingBits(bytes);
-
-        intList = appendLength(intList, bytes.length * 8);
-
-        int[] array = ArrayUtils.convertListToArray(intList);
-
-        initMdBuffer();
-
-        array = processHash(array);
-
-        return getOutput(array);
-    }
-
-    /**
-     * Step 1. Append Padding Bits
-     *
-     * The message is "padded" (extended) so that its length (in bits) is
-     * congruent to 448, modulo 512. That is, the message is extended so
-     * that it is just 64 bits shy of being a multiple of 512 bits long.
-     * Padding is always performed, even if the length of the message is
-     * already congruent to 448, modulo 512.
-     *
-     * Padding is performed as follows: a single "1" bit is appended to the
-     * message, and then "0" bits are appended so that the length in bits of
-     * the padded message becomes congruent to 448, modulo 512. In all, at
-     * least one bit and at most 512 bits are appended.
-     *
-     */
-    private List<Integer> appendPaddingBits(byte[] bytes){
-        List<Integer> intList = new ArrayList<>();
-
-        for (byte aByte : bytes) {
-            intList.add((int) aByte);
-        }
-
-        int one = 128;
-        int zero = 0;
-
-        intList.add(one);
-
-        while (intList.size() % 64 != 56){
-            intList.add(zero);
-        }
-
-        return intList;
-    }
-
-    /**
-     * Step 2. Append Length
-     *
-     * A 64-bit representation of b (the length of the message before the
-     * padding bits were added) is appended to the result of the previous
-     * step. In the unlikely event that b is greater than 2^64, then only
-     * the low-order 64 bits of b are used. (These bits are appended as two
-     * 32-bit words and appended low-order word first in accordance with the
-     * previous conventions.)
-     *
-     * At this point the resulting message (after padding with bits and with
-     * b) has a length that is an exact multiple of 512 bits. Equivalently,
-     * this message has a length that is an exact multiple of 16 (32-bit)
-     * words. Let M[0 ... N-1] denote the words of the resulting message,
-     * where N is a multiple of 16.
-     *
-     */
-    private List<Integer> appendLength(List<Integer> intList, int length){
-        List<Integer> integers = new ArrayList<>();
-
-        for (int i = 0; i < intList.size(); i += 4) {
-            integers.add(intList.get(i) | intList.get(i + 1) << 8 | intList.get(i + 2) << 16 | intList.get(i + 3) << 24);
-        }
-
-        integers.add(length);
-        integers.add(0);
-
-        return integers;
+    RIPEMD_160(){
+        super(ByteOrder.LITTLE_ENDIAN);
     }
 
     /**
@@ -179,7 +97,7 @@ class RIPEMD_160 {
      * word E: f0 e1 d2 c3
      *
      */
-    private void initMdBuffer(){
+    protected void initMdBuffer(){
         A = 0x67452301;
         B = 0xEFCDAB89;
         C = 0x98BADCFE;
@@ -190,7 +108,7 @@ class RIPEMD_160 {
     /**
      * Step 4. Process Message in 16-Word Blocks
      */
-    private int[] processHash(int[] array){
+    protected void processHash(int[] x){
 
 //        paramseters for left line
         int AL, BL, CL, DL, EL;
@@ -198,50 +116,37 @@ class RIPEMD_160 {
 //        paramseters for right line
         int AR, BR, CR, DR, ER;
 
-        int[] x = new int[16];
-
-        int length = array.length;
-
-        for(int i = 0; i < length / 16; i++){
-
-//            Copy block i into X
-            System.arraycopy(array, i * 16, x, 0, 16);
-
-//            init parameters
-            AL = AR = A;
-            BL = BR = B;
-            CL = CR = C;
-            DL = DR = D;
-            EL = ER = E;
-
-            for(int j = 0; j <= 79; j++){
-
-                int T = FF(j, AL, BL, CL, DL, x[X[j]], S[j]) + EL;
-                AL = EL;
-                EL = DL;
-                DL = rol(CL, 10);
-                CL = BL;
-                BL = T;
-
-                T = FFF(79 - j, AR, BR, CR, DR, x[XX[j]], SS[j]) + ER;
-                AR = ER;
-                ER = DR;
-                DR = rol(CR, 10);
-                CR = BR;
-                BR = T;
-            }
-
-//            Converting result
-            int T = B + CL + DR;
-            B = C + DL + ER;
-            C = D + EL + AR;
-            D = E + AL + BR;
-            E = A + BL + CR;
-            A = T;
-
+//        init parameters
+        AL = AR = A;
+        BL = BR = B;
+        CL = CR = C;
+        DL = DR = D;
+        EL = ER = E;
+
+        for(int j = 0; j <= 79; j++){
+
+            int T = FF(j, AL, BL, CL, DL, x[X[j]], S[j]) + EL;
+            AL = EL;
+            EL = DL;
+            DL = rol(CL, 10);
+            CL = BL;
+            BL = T;
+
+            T = FFF(79 - j, AR, BR, CR, DR, x[XX[j]], SS[j]) + ER;
+            AR = ER;
+            ER = DR;
+            DR = rol(CR, 10);
+            CR = BR;
+            BR = T;
         }
 
-        return new int[]{A, B, C, D, E};
+//        Converting result
+        int T = B + CL + DR;
+        B = C + DL + ER;
+        C = D + EL + AR;
+        D = E + AL + BR;
+        E = A + BL + CR;
+        A = T;
     }
 
     /**
@@ -316,21 +221,10 @@ class RIPEMD_160 {
     }
 
     /**
-     * Method for converting A, B, C, D, E params to hex for getting hash
+     * Method for getting A, B, C, D, E params as output words
      */
-    private String getOutput(int[] array){
-        StringBuilder hexString = new StringBuilder();
-
-        for(int i = 0; i < 5; i++){
-            String h = Integer.toHexString(changeEndianness(array[i]));
-            hexString.append(h);
-        }
-
-        return hexString.toString();
-    }
-
-    private int changeEndianness(int x){
-        return ((x & 0xFF) << 24) | ((x & 0xFF00) << 8) | ((x & 0xFF0000) >>> 8) | ((x & 0xFF000000) >>> 24);
+    protected int[] getOutput(){
+        return new int[]{A, B, C, D, E};
     }
 
 }
@@ -16,17 +16,14 @@
 
 package ru.bullyboo.encoder.hashes;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import ru.bullyboo.encoder.utils.ArrayUtils;
+import java.nio.ByteOrder;
 
 /**
  * The RIPEMD-256 Message-Digest Algorithm
  * (RACE Integrity Primitives Evaluation Message Digest)
  */
 @SuppressWarnings("all")
-class RIPEMD_256 {
+class RIPEMD_256 extends BaseHash {
 
     /**
      * Message Digest Buffer
@@ -81,87 +78,8 @@ class RIPEMD_256 {
             8,  6,  4,  1,  3, 11, 15,  0,  5, 12,  2, 13,  9,  7, 10, 14
     };
 
-    /**
-     * This method return hash of message
-     */
-    public String getHash(String input){
-        byte[] bytes = input.getBytes();
-
-        List<Integer> intList = appendPaddingBits(bytes);
-
-        intList = appendLength(intList, bytes.length * 8);
-
-        int[] array = ArrayUtils.convertListToArray(intList);
-
-        initMdBuffer();
-
-        array = processHash(array);
-
-        return getOutput(array);
-    }
-
-    /**
-     * Step 1. Append Padding Bits
-     *
-     * The message is "padded" (extended) so that its length (in bits) is
-     * congruent to 448, modulo 512. That is, the message is extended so
-     * that it is just 64 bits shy of being a multiple of 512 bits long.
-     * Padding is always performed, even if the length of the message is
-     * already congruent to 448, modulo 512.
-     *
-     * Padding is performed as follows: a single "1" bit is appended to the
-     * message, and then "0" bits are appended so that the length in bits of
-     * the padded message becomes congruent to 448, modulo 512. In all, at
-     * least one bit and at most 512 bits are appended.
-     *
-     */
-    private List<Integer> appendPaddingBits(byte[] bytes){
-        List<Integer> intList = new ArrayList<>();
-
-        for (byte aByte : bytes) {
-            intList.add((int) aByte);
-        }
-
-        int one = 128;
-        int zero = 0;
-
-        intList.add(one);
-
-        while (intList.size() % 64 != 56){
-            intList.add(zero);
-        }
-
-        return intList;
-    }
-
-    /**
-     * Step 2. Append Length
-     *
-     * A 64-bit representation of b (the length of the message before the
-     * padding bits were added) is appended to the result of the previous
-     * step. In the unlikely event that b is greater than 2^64, then only
-     * the low-order 64 bits of b are used. (These bits are appended as two
-     * 32-bit words and appended low-order word first in accordance with the
-     * previous conventions.)
-     *
-     * At this point the resulting message (after padding with bits and with
-     * b) has a length that is an exact multiple of 512 bits. Equivalently,
-     * this message has a length that is an exact multiple of 16 (32-bit)
-     * words. Let M[0 ... N-1] denote the words of the resulting message,
-     * where N is a multiple of 16.
-     *
-     */
-    private List<Integer> appendLength(List<Integer> intList, int length){
-        List<Integer> integers = new ArrayList<>();
-
-        for (int i = 0; i < intList.size(); i += 4) {
-            integers.add(intList.get(i) | intList.get(i + 1) << 8 | intList.get(i + 2) << 16 | intList.get(i + 3) << 24);
-        }
-
-        integers.add(length);
-        integers.add(0);
-
-        return integers;
+    RIPEMD_256(){
+        super(ByteOrder.LITTLE_ENDIAN);
     }
 
     /**
@@ -183,7 +101,7 @@ class RIPEMD_256 {
      * word DR: 67 45 23 10
      *
      */
-    private void initMdBuffer(){
+    protected void initMdBuffer(){
         AL = 0x67452301;
         BL = 0xEFCDAB89;
         CL = 0x98BADCFE;
@@ -198,7 +116,7 @@ class RIPEMD_256 {
     /**
      * Step 4. Process Message in 16-Word Blocks
      */
-    private int[] processHash(int[] array){
+    protected void processHash(int[] x){
 
 //        paramseters for left line
         int AAL, BBL, CCL, DDL;
@@ -206,72 +124,60 @@ class RIPEMD_256 {
 //        paramseters for right line
         int AAR, BBR, CCR, DDR;
 
-        int[] x = new int[16];
-
-        int length = array.length;
-
-        for(int i = 0; i < length / 16; i++){
-
-//            Copy block i into X
-            System.arraycopy(array, i * 16, x, 0, 16);
-
-//            init parameters
-            AAL = AL;
-            BBL = BL;
-            CCL = CL;
-            DDL = DL;
-
-            AAR = AR;
-            BBR = BR;
-            CCR = CR;
-            DDR = DR;
-
-            for(int j = 0; j <= 63; j++){
-
-                int T = FF(j, AAL, BBL, CCL, DDL, x[X[j]], S[j]);
-                AAL = DDL;
-                DDL = CCL;
-                CCL = BBL;
-                BBL = T;
-
-                T = FFF(63 - j, AAR, BBR, CCR, DDR, x[XX[j]], SS[j]);
-                AAR = DDR;
-                DDR = CCR;
-                CCR = BBR;
+//        init parameters
+        AAL = AL;
+        BBL = BL;
+        CCL = CL;
+        DDL = DL;
+
+        AAR = AR;
+        BBR = BR;
+        CCR = CR;
+        DDR = DR;
+
+        for(int j = 0; j <= 63; j++){
+
+            int T = FF(j, AAL, BBL, CCL, DDL, x[X[j]], S[j]);
+            AAL = DDL;
+            DDL = CCL;
+            CCL = BBL;
+            BBL = T;
+
+            T = FFF(63 - j, AAR, BBR, CCR, DDR, x[XX[j]], SS[j]);
+            AAR = DDR;
+            DDR = CCR;
+            CCR = BBR;
+            BBR = T;
+
+            if(j == 15){
+                T = AAL;
+                AAL = AAR;
+                AAR = T;
+            } else if(j == 31){
+                T = BBL;
+                BBL = BBR;
                 BBR = T;
-
-                if(j == 15){
-                    T = AAL;
-                    AAL = AAR;
-                    AAR = T;
-                } else if(j == 31){
-                    T = BBL;
-                    BBL = BBR;
-                    BBR = T;
-                } else if(j == 47){
-                    T = CCL;
-                    CCL = CCR;
-                    CCR = T;
-                } else if(j == 63){
-                    T = DDL;
-                    DDL = DDR;
-                    DDR = T;
-                }
+            } else if(j == 47){
+                T = CCL;
+                CCL = CCR;
+                CCR = T;
+            } else if(j == 63){
+                T = DDL;
+                DDL = DDR;
+                DDR = T;
             }
-
-//            Converting result
-            AL = AL + AAL;
-            BL = BL + BBL;
-            CL = CL + CCL;
-            DL = DL + DDL;
-
-            AR = AR + AAR;
-            BR = BR + BBR;
-            CR = CR + CCR;
-            DR = DR + DDR;
         }
 
-        return new int[]{AL, BL, CL, DL, AR, BR, CR, DR};
+//        Converting result
+        AL = AL + AAL;
+        BL = BL + BBL;
+        CL = CL + CCL;
+        DL = DL + DDL;
+
+        AR = AR + AAR;
+        BR = BR + BBR;
+        CR = CR + CCR;
+        DR = DR + DDR;
     }
 
     /**
@@ -339,25 +245,10 @@ class RIPEMD_256 {
     }
 
     /**
-     * Method for converting AL, BL, CL, DL, AR, BR, CR, DR params to hex for getting hash
+     * Method for getting AL, BL, CL, DL, AR, BR, CR, DR params as output words
      */
-    private String getOutput(int[] array){
-        StringBuilder hexString = new StringBuilder();
-
-        for(int i = 0; i < 8; i++){
-            String h = Integer.toHexString(changeEndianness(array[i]));
-
-            while (h.length() < 8){
-                h = "0" + h;
-            }
-            hexString.append(h);
-        }
-
-        return hexString.toString();
-    }
-
-    private int changeEndianness(int x){
-        return ((x & 0xFF) << 24) | ((x & 0xFF00) << 8) | ((x & 0xFF0000) >>> 8) | ((x & 0xFF000000) >>> 24);
+    protected int[] getOutput(){
+        return new int[]{AL, BL, CL, DL, AR, BR, CR, DR};
     }
 
 }
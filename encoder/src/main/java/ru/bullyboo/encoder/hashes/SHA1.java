@@ -16,15 +16,17 @@
 package ru.bullyboo.encoder.hashes;
 
 
-import java.util.ArrayList;
-import java.util.List;
-
-import ru.bullyboo.encoder.utils.ArrayUtils;
+import java.nio.ByteOrder;
 
 /**
  * The SHA1 Message-Digest Algorithm
  */
-class SHA1 {
+class SHA1 extends BaseHash {
+
+    /**
+     * Message schedule
+     */
+    private final int[] x = new int[80];
 
     /**
      * Message Digest Buffer
@@ -35,89 +37,8 @@ class SHA1 {
     private int D;
     private int E;
 
-    /**
-     * This method return hash of message
-     */
-    public String getHash(String input){
-
-        byte[] bytes = input.getBytes();
-
-        List<Integer> intList = appendPaddingBits(bytes);
-
-        intList = appendLength(intList, bytes.length * 8);
-
-        int[] array = ArrayUtils.convertListToArray(intList);
-
-        initMdBuffer();
-
-        array = processHash(array);
-
-        return getOutput(array);
-    }
-
-    /**
-     * Step 1. Append Padding Bits
-     *
-     * The message is "padded" (extended) so that its length (in bits) is
-     * congruent to 448, modulo 512. That is, the message is extended so
-     * that it is just 64 bits shy of being a multiple of 512 bits long.
-     * Padding is always performed, even if the length of the message is
-     * already congruent to 448, modulo 512.
-     *
-     * Padding is performed as follows: a single "1" bit is appended to the
-     * message, and then "0" bits are appended so that the length in bits of
-     * the padded message becomes congruent to 448, modulo 512. In all, at
-     * least one bit and at most 512 bits are appended.
-     *
-     */
-    private List<Integer> appendPaddingBits(byte[] bytes){
-        List<Integer> intList = new ArrayList<>();
-
-        for (byte aByte : bytes) {
-            intList.add((int) aByte);
-        }
-
-        int one = 128;
-        int zero = 0;
-
-        intList.add(one);
-
-        while (intList.size() % 64 != 56){
-            intList.add(zero);
-        }
-
-        return intList;
-    }
-
-    /**
-     * Step 2. Append Length
-     *
-     * A 64-bit representation of b (the length of the message before the
-     * padding bits were added) is appended to the result of the previous
-     * step. In the unlikely event that b is greater than 2^64, then only
-     * the low-order 64 bits of b are used. (These bits are appended as two
-     * 32-bit words and appended low-order word first in accordance with the
-     * previous conventions.)
-     *
-     * At this point the resulting message (after padding with bits and with
-     * b) has a length that is an exact multiple of 512 bits. Equivalently,
-     * this message has a length that is an exact multiple of 16 (32-bit)
-     * words. Let M[0 ... N-1] denote the words of the resulting message,
-     * where N is a multiple of 16.
-     *
-     */
-    private List<Integer> appendLength(List<Integer> intList, int length){
-        List<Integer> integers = new ArrayList<>();
-
-
-        for (int i = 0; i < intList.size(); i += 4) {
-            integers.add(intList.get(i) | intList.get(i + 1) << 8 | intList.get(i + 2) << 16 | intList.get(i + 3) << 24);
-        }
-
-        integers.add(length);
-        integers.add(0);
-
-        return integers;
+    SHA1(){
+        super(ByteOrder.BIG_ENDIAN);
     }
 
     /**
@@ -134,7 +55,7 @@ class SHA1 {
      * word D: 76 54 32 10
      * word E: 0f e1 d2 c3
      */
-    private void initMdBuffer(){
+    protected void initMdBuffer(){
         A = 0x67452301;
         B = 0xefcdab89;
         C = 0x98badcfe;
@@ -145,55 +66,40 @@ class SHA1 {
     /**
      * Step 4. Process Message in 16-Word Blocks
      */
-    private int[] processHash(int[] array){
+    protected void processHash(int[] block){
 
         int AA, BB, CC, DD, EE;
 
-        int[] x = new int[80];
-
-        int length = array.length;
+        System.arraycopy(block, 0, x, 0, 16);
 
-//        Process each 16-word block
-        for(int i = 0; i < length / 16; i++){
-
-//            Copy block i into X
-            System.arraycopy(array, i * 16, x, 0, 16);
-
-            for(int k = 0; k < 16; k++){
-                x[k] = changeEndianness(array[i*16 + k]);
-            }
-
-            for(int k = 16; k < 80; k++){
-                x[k] = rol(x[k-3] ^ x[k-8] ^ x[k-14] ^ x[k-16], 1);
-            }
-
-//            Save A as AA, B as BB, C as CC, and D as DD
-            AA = A;
-            BB = B;
-            CC = C;
-            DD = D;
-            EE = E;
-
-            for(int j = 0; j < 80; j++){
-                int T = FF(j, AA, BB, CC, DD, EE, x[j]);
-                EE = DD;
-                DD = CC;
-                CC = rol(BB, 30);
-                BB = AA;
-                AA = T;
-            }
+        for(int k = 16; k < 80; k++){
+            x[k] = rol(x[k-3] ^ x[k-8] ^ x[k-14] ^ x[k-16], 1);
+        }
 
-//            Then perform the following additions. (That is increment each
-//            of the four registers by the value it had before this block
-//            was started.)
-            A += AA;
-            B += BB;
-            C += CC;
-            D += DD;
-            E += EE;
+//        Save A as AA, B as BB, C as CC, and D as DD
+        AA = A;
+        BB = B;
+        CC = C;
+        DD = D;
+        EE = E;
+
+        for(int j = 0; j < 80; j++){
+            int T = FF(j, AA, BB, CC, DD, EE, x[j]);
+            EE = DD;
+            DD = CC;
+            CC = rol(BB, 30);
+            BB = AA;
+            AA = T;
         }
 
-        return new int[]{A, B, C, D, E};
+//        Then perform the following additions. (That is increment each
+//        of the four registers by the value it had before this block
+//        was started.)
+        A += AA;
+        B += BB;
+        C += CC;
+        D += DD;
+        E += EE;
     }
 
     /**
@@ -243,20 +149,9 @@ class SHA1 {
     }
 
     /**
-     * Method for converting A, B, C, D, E params to hex for getting hash
+     * Method for getting A, B, C, D, E params as output words
      */
-    private String getOutput(int[] array){
-        StringBuilder hexString = new StringBuilder();
-
-        for(int i = 0; i < 5; i++){
-            String h = Integer.toHexString(array[i]);
-            hexString.append(h);
-        }
-
-        return hexString.toString();
-    }
-
-    private int changeEndianness(int x){
-        return ((x & 0xFF) << 24) | ((x & 0xFF00) << 8) | ((x & 0xFF0000) >>> 8) | ((x & 0xFF000000) >>> 24);
+    protected int[] getOutput(){
+        return new int[]{A, B, C, D, E};
     }
 }
@@ -15,15 +15,12 @@
  */
 package ru.bullyboo.encoder.hashes;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import ru.bullyboo.encoder.utils.ArrayUtils;
+import java.nio.ByteOrder;
 
 /**
  * The SHA256 Message-Digest Algorithm
  */
-class SHA256 {
+class SHA256 extends BaseHash {
 
     private static final int[] K = {
             0x428A2F98, 0x71374491, 0xB5C0FBCF, 0xE9B5DBA5, 0x3956C25B, 0x59F111F1, 0x923F82A4, 0xAB1C5ED5,
@@ -36,6 +33,11 @@ class SHA256 {
             0x748F82EE, 0x78A5636F, 0x84C87814, 0x8CC70208, 0x90BEFFFA, 0xA4506CEB, 0xBEF9A3F7, 0xC67178F2
     };
 
+    /**
+     * Message schedule
+     */
+    private final int[] x = new int[64];
+
     /**
      * Message Digest Buffer
      */
@@ -48,89 +50,8 @@ class SHA256 {
     private int G;
     private int H;
 
-    /**
-     * This method return hash of message
-     */
-    public String getHash(String input){
-
-        byte[] bytes = input.getBytes();
-
-        List<Integer> intList = appendPaddingBits(bytes);
-
-        intList = appendLength(intList, bytes.length * 8);
-
-        int[] array = ArrayUtils.convertListToArray(intList);
-
-        initMdBuffer();
-
-        array = processHash(array);
-
-        return getOutput(array);
-    }
-
-    /**
-     * Step 1. Append Padding Bits
-     *
-     * The message is "padded" (extended) so that its length (in bits) is
-     * congruent to 448, modulo 512. That is, the message is extended so
-     * that it is just 64 bits shy of being a multiple of 512 bits long.
-     * Padding is always performed, even if the length of the message is
-     * already congruent to 448, modulo 512.
-     *
-     * Padding is performed as follows: a single "1" bit is appended to the
-     * message, and then "0" bits are appended so that the length in bits of
-     * the padded message becomes congruent to 448, modulo 512. In all, at
-     * least one bit and at most 512 bits are appended.
-     *
-     */
-    private List<Integer> appendPaddingBits(byte[] bytes){
-        List<Integer> intList = new ArrayList<>();
-
-        for (byte aByte : bytes) {
-            intList.add((int) aByte);
-        }
-
-        int one = 128;
-        int zero = 0;
-
-        intList.add(one);
-
-        while (intList.size() % 64 != 56){
-            intList.add(zero);
-        }
-
-        return intList;
-    }
-
-    /**
-     * Step 2. Append Length
-     *
-     * A 64-bit representation of b (the length of the message before the
-     * padding bits were added) is appended to the result of the previous
-     * step. In the unlikely event that b is greater than 2^64, then only
-     * the low-order 64 bits of b are used. (These bits are appended as two
-     * 32-bit words and appended low-order word first in accordance with the
-     * previous conventions.)
-     *
-     * At this point the resulting message (after padding with bits and with
-     * b) has a length that is an exact multiple of 512 bits. Equivalently,
-     * this message has a length that is an exact multiple of 16 (32-bit)
-     * words. Let M[0 ... N-1] denote the words of the resulting message,
-     * where N is a multiple of 16.
-     *
-     */
-    private List<Integer> appendLength(List<Integer> intList, int length){
-        List<Integer> integers = new ArrayList<>();
-
-
-        for (int i = 0; i < intList.size(); i += 4) {
-            integers.add(intList.get(i) | intList.get(i + 1) << 8 | intList.get(i + 2) << 16 | intList.get(i + 3) << 24);
-        }
-
-        integers.add(length);
-        integers.add(0);
-
-        return integers;
+    SHA256(){
+        super(ByteOrder.BIG_ENDIAN);
     }
 
     /**
@@ -151,7 +72,7 @@ class SHA256 {
      * word H: 19 CD E0 5B
      *
      */
-    private void initMdBuffer(){
+    protected void initMdBuffer(){
         A = 0x6A09E667;
         B = 0xBB67AE85;
         C = 0x3C6EF372;
@@ -165,72 +86,57 @@ class SHA256 {
     /**
      * Step 4. Process Message in 16-Word Blocks
      */
-    private int[] processHash(int[] array) {
+    protected void processHash(int[] block){
 
         int AA, BB, CC, DD, EE, FF, GG, HH;
 
-        int[] x = new int[64];
-
-        int length = array.length;
-
-//        Process each 16-word block
-        for (int i = 0; i < length / 16; i++) {
+        System.arraycopy(block, 0, x, 0, 16);
 
-//            Copy block i into X
-            System.arraycopy(array, i * 16, x, 0, 16);
-
-            for (int k = 0; k < 16; k++) {
-                x[k] = changeEndianness(array[i * 16 + k]);
-            }
-
-            for (int k = 16; k < 64; k++) {
-                int s0 = rolR(x[k - 15], 7) ^ rolR(x[k - 15], 18) ^ (x[k - 15] >>> 3);
-                int s1 = rolR(x[k - 2], 17) ^ rolR(x[k - 2], 19) ^ (x[k - 2] >>> 10);
-                x[k] = x[k - 16] + s0 + x[k - 7] + s1;
-            }
-
-//            Save A as AA, B as BB, C as CC, and D as DD
-            AA = A;
-            BB = B;
-            CC = C;
-            DD = D;
-            EE = E;
-            FF = F;
-            GG = G;
-            HH = H;
-
-            for (int j = 0; j < 64; j++) {
-                int z0 = rolR(AA, 2) ^ rolR(AA, 13) ^ rolR(AA, 22);
-                int Ma = (AA & BB) ^ (AA & CC) ^ (BB & CC);
-                int t2 = z0 + Ma;
-                int z1 = rolR(EE, 6) ^ rolR(EE, 11) ^ rolR(EE, 25);
-                int Ch = (EE & FF) ^ (~EE & GG);
-                int t1 = HH + z1 + Ch + K[j] + x[j];
-
-                HH = GG;
-                GG = FF;
-                FF = EE;
-                EE = DD + t1;
-                DD = CC;
-                CC = BB;
-                BB = AA;
-                AA = t1 + t2;
-            }
+        for (int k = 16; k < 64; k++) {
+            int s0 = rolR(x[k - 15], 7) ^ rolR(x[k - 15], 18) ^ (x[k - 15] >>> 3);
+            int s1 = rolR(x[k - 2], 17) ^ rolR(x[k - 2], 19) ^ (x[k - 2] >>> 10);
+            x[k] = x[k - 16] + s0 + x[k - 7] + s1;
+        }
 
-//            Then perform the following additions. (That is increment each
-//            of the four registers by the value it had before this block
-//            was started.)
-            A += AA;
-            B += BB;
-            C += CC;
-            D += DD;
-            E += EE;
-            F += FF;
-            G += GG;
-            H += HH;
+//        Save A as AA, B as BB, C as CC, and D as DD
+        AA = A;
+        BB = B;
+        CC = C;
+        DD = D;
+        EE = E;
+        FF = F;
+        GG = G;
+        HH = H;
+
+        for (int j = 0; j < 64; j++) {
+            int z0 = rolR(AA, 2) ^ rolR(AA, 13) ^ rolR(AA, 22);
+            int Ma = (AA & BB) ^ (AA & CC) ^ (BB & CC);
+            int t2 = z0 + Ma;
+            int z1 = rolR(EE, 6) ^ rolR(EE, 11) ^ rolR(EE, 25);
+            int Ch = (EE & FF) ^ (~EE & GG);
+            int t1 = HH + z1 + Ch + K[j] + x[j];
+
+            HH = GG;
+            GG = FF;
+            FF = EE;
+            EE = DD + t1;
+            DD = CC;
+            CC = BB;
+            BB = AA;
+            AA = t1 + t2;
         }
 
-        return new int[]{A, B, C, D, E, F, G, H};
+//        Then perform the following additions. (That is increment each
+//        of the four registers by the value it had before this block
+//        was started.)
+        A += AA;
+        B += BB;
+        C += CC;
+        D += DD;
+        E += EE;
+        F += FF;
+        G += GG;
+        H += HH;
     }
 
     private int rolR(int x, int y){
@@ -238,20 +144,9 @@ class SHA256 {
     }
 
     /**
-     * Method for converting A, B, C, D, E, F, G, H params to hex for getting hash
+     * Method for getting A, B, C, D, E, F, G, H params as output words
      */
-    private String getOutput(int[] array){
-        StringBuilder hexString = new StringBuilder();
-
-        for(int i = 0; i < 8; i++){
-            String h = Integer.toHexString(array[i]);
-            hexString.append(h);
-        }
-
-        return hexString.toString();
-    }
-
-    private int changeEndianness(int x){
-        return ((x & 0xFF) << 24) | ((x & 0xFF00) << 8) | ((x & 0xFF0000) >>> 8) | ((x & 0xFF000000) >>> 24);
+    protected int[] getOutput(){
+        return new int[]{A, B, C, D, E, F, G, H};
     }
 }
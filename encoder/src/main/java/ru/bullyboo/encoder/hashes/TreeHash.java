@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.hashes;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+
+import ru.bullyboo.encoder.threads.EncoderExecutor;
+import ru.bullyboo.encoder.threads.RangeTask;
+import ru.bullyboo.encoder.threads.TaskException;
+
+/**
+ * Merkle tree hash, whose leaves are hashed in parallel on a ForkJoinPool.
+ *
+ * The result depends only on the message, the hash function and the leaf
+ * size, and never on the count of threads, so it is the same on every
+ * machine. The tree is the one of RFC 6962 (Certificate Transparency),
+ * section 2.1:
+ *
+ * 1. The message is split into leaves of leafSize bytes, the last leaf
+ *    may be shorter. The hash of the empty message is H(), the hash
+ *    of the empty string.
+ *
+ * 2. The hash of a leaf is H(0x00 || leaf).
+ *
+ * 3. The hash of n > 1 leaves D[0 ... n-1] is
+ *    H(0x01 || MTH(D[0 ... k-1]) || MTH(D[k ... n-1])),
+ *    where k is the largest power of two smaller than n.
+ *
+ * The tree hash is not equal to the plain hash of the message, even if
+ * the message fits into one leaf.
+ */
+public class TreeHash {
+
+    /**
+     * Default size of one leaf, 1 MB
+     */
+    public static final int DEFAULT_LEAF_SIZE = 1024 * 1024;
+
+    private static final byte[] LEAF_PREFIX = {0x00};
+    private static final byte[] NODE_PREFIX = {0x01};
+
+    /**
+     * Factory of the digests for hashing the leaves and the nodes
+     */
+    public interface DigestFactory {
+        Digest create();
+    }
+
+    private final DigestFactory factory;
+
+    private final int leafSize;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Create tree hash with the default leaf size, computed on the shared pool
+     */
+    public TreeHash(DigestFactory factory){
+        this(factory, DEFAULT_LEAF_SIZE, null);
+    }
+
+    /**
+     * Create tree hash with the leaf size, computed on the pool.
+     * If the pool is null, the shared pool is used
+     */
+    public TreeHash(DigestFactory factory, int leafSize, ForkJoinPool pool){
+        if(leafSize <= 0){
+            throw new IllegalArgumentException("Leaf size must be positive");
+        }
+
+        this.factory = factory;
+        this.leafSize = leafSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Tree hash with sha256 as the hash function
+     */
+    public static TreeHash sha256(){
+        return new TreeHash(new DigestFactory() {
+            @Override
+            public Digest create() {
+                return new SHA256();
+            }
+        });
+    }
+
+    /**
+     * Tree hash with ripemd160 as the hash function
+     */
+    public static TreeHash ripemd160(){
+        return new TreeHash(new DigestFactory() {
+            @Override
+            public Digest create() {
+                return new RIPEMD_160();
+            }
+        });
+    }
+
+    public int getLeafSize(){
+        return leafSize;
+    }
+
+    /**
+     * Compute tree hash of the message
+     */
+    public byte[] hash(final byte[] message){
+        Leaves leaves = new Leaves(message.length) {
+            @Override
+            ByteBuffer get(long position, int length) {
+                return ByteBuffer.wrap(message, (int) position, length);
+            }
+        };
+
+        return hash(leaves);
+    }
+
+    /**
+     * Compute tree hash of the file, every leaf is mapped into memory
+     * separately, so the file is never read into the heap
+     */
+    public byte[] hash(File file) throws IOException {
+        try (FileInputStream stream = new FileInputStream(file)) {
+            final FileChannel channel = stream.getChannel();
+
+            Leaves leaves = new Leaves(channel.size()) {
+                @Override
+                ByteBuffer get(long position, int length) throws IOException {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                }
+            };
+
+            return hash(leaves);
+
+        } catch (TaskException e) {
+            // only the leaves of the file throw, and only IOException
+            throw (IOException) e.getCause();
+        }
+    }
+
+    private byte[] hash(Leaves leaves){
+        if(leaves.size == 0){
+            return factory.create().digest();
+        }
+
+        return getPool().invoke(new NodeTask(leaves, 0, leaves.count));
+    }
+
+    private ForkJoinPool getPool(){
+        return pool != null ? pool : EncoderExecutor.getForkJoinPool();
+    }
+
+    /**
+     * Source of the bytes of the leaves
+     */
+    private abstract class Leaves {
+
+        final long size;
+
+        final long count;
+
+        Leaves(long size){
+            this.size = size;
+            this.count = (size + leafSize - 1) / leafSize;
+        }
+
+        abstract ByteBuffer get(long position, int length) throws IOException;
+
+        byte[] hash(long index) throws IOException {
+            long position = index * leafSize;
+
+            Digest digest = factory.create();
+
+            digest.update(LEAF_PREFIX);
+            digest.update(get(position, (int) Math.min(leafSize, size - position)));
+
+            return digest.digest();
+        }
+    }
+
+    /**
+     * Task, which computes hash of the leaves from, ..., to - 1
+     */
+    private class NodeTask extends RangeTask<byte[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Leaves leaves;
+
+        NodeTask(Leaves leaves, long from, long to){
+            super(from, to);
+            this.leaves = leaves;
+        }
+
+        @Override
+        protected boolean isLeaf() {
+            return to - from == 1;
+        }
+
+        @Override
+        protected byte[] computeLeaf() throws IOException {
+            return leaves.hash(from);
+        }
+
+        /**
+         * The left subtree has the largest power of two of the leaves, which is smaller than their count
+         */
+        @Override
+        protected long split() {
+            return from + Long.highestOneBit(to - from - 1);
+        }
+
+        @Override
+        protected RangeTask<byte[]> create(long from, long to) {
+            return new NodeTask(leaves, from, to);
+        }
+
+        @Override
+        protected byte[] merge(byte[] left, byte[] right) {
+            Digest digest = factory.create();
+
+            digest.update(NODE_PREFIX);
+            digest.update(left);
+            digest.update(right);
+
+            return digest.digest();
+        }
+    }
+}
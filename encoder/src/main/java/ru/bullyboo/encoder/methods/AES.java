@@ -16,6 +16,12 @@
 
 package ru.bullyboo.encoder.methods;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
@@ -34,6 +40,11 @@ public class AES extends BaseMethod{
 
     private static final int VECTOR_LEGHT = 16;
 
+    /**
+     * Default size of the segments of the segmented format, 64 KB
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = SegmentedCipher.DEFAULT_SEGMENT_SIZE;
+
     /**
      * All supported methods
      */
@@ -161,9 +172,16 @@ public class AES extends BaseMethod{
     }
 
     /**
-     * Implementation of AES encryption
+     * Implementation of AES encryption, the result is encoded with Base64
      */
     public static String encrypt(String method, byte[] key, Key keyType, byte[] vector, byte[] message) throws Exception {
+        return Base64.encodeToString(encryptBytes(method, key, keyType, vector, message), Base64.DEFAULT);
+    }
+
+    /**
+     * Implementation of AES encryption, the message and the result are not encoded
+     */
+    public static byte[] encryptBytes(String method, byte[] key, Key keyType, byte[] vector, byte[] message) throws Exception {
 
 //        generate Key
         byte[] keyBytes = generateKey(key, keyType.type);
@@ -173,23 +191,21 @@ public class AES extends BaseMethod{
         byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
         IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
 
-        Cipher cipher = Cipher.getInstance(method);
-
-        if(hasInitVector(method)){
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
-        } else {
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec);
-        }
-
-        byte[] cipherText = cipher.doFinal(message);
+        return CipherPool.doFinal(method, Cipher.ENCRYPT_MODE, keySpec,
+                hasInitVector(method) ? ivSpec : null, message);
+    }
 
-        return Base64.encodeToString(cipherText, Base64.DEFAULT);
+    /**
+     * Implementation of AES decryption of the message, encoded with Base64
+     */
+    public static String decrypt(String method, byte[] key, Key keyType, byte[] vector, byte[] message) throws Exception {
+        return new String(decryptBytes(method, key, keyType, vector, Base64.decode(message, Base64.DEFAULT)));
     }
 
     /**
-     * Implementation of AES decryption
+     * Implementation of AES decryption, the message and the result are not encoded
      */
-    public static String decrypt(String method, byte[] key, Key keyType, byte[] vector, byte[] message) throws Exception       {
+    public static byte[] decryptBytes(String method, byte[] key, Key keyType, byte[] vector, byte[] message) throws Exception {
 
 //        generate Key
         byte[] keyBytes = generateKey(key, keyType.type);
@@ -199,16 +215,271 @@ public class AES extends BaseMethod{
         byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
         IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
 
-        Cipher cipher = Cipher.getInstance(method);
+        return CipherPool.doFinal(method, Cipher.DECRYPT_MODE, keySpec,
+                hasInitVector(method) ? ivSpec : null, message);
+    }
+
+    /**
+     * Implementation of AES encryption of the stream. The stream is encrypted
+     * by chunks, so it can be of any size, the streams are not closed
+     */
+    public static void encrypt(String method, byte[] key, Key keyType, byte[] vector,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.ENCRYPT_MODE, method, key, keyType, vector), input, output);
+    }
+
+    /**
+     * Implementation of AES decryption of the stream. The stream is decrypted
+     * by chunks, so it can be of any size, the streams are not closed
+     */
+    public static void decrypt(String method, byte[] key, Key keyType, byte[] vector,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.DECRYPT_MODE, method, key, keyType, vector), input, output);
+    }
+
+    /**
+     * Implementation of AES encryption of many messages with one initialized cipher,
+     * the results are stored one after another in one array
+     */
+    public static BatchResult encryptBatch(String method, byte[] key, Key keyType, byte[] vector,
+                                           List<byte[]> messages, boolean parallel) throws Exception {
+        return createSpec(method, key, keyType, vector).encryptBatch(messages, parallel);
+    }
+
+    /**
+     * Implementation of AES decryption of many messages with one initialized cipher
+     */
+    public static BatchResult decryptBatch(String method, byte[] key, Key keyType, byte[] vector,
+                                           List<byte[]> messages, boolean parallel) throws Exception {
+        return createSpec(method, key, keyType, vector).decryptBatch(messages, parallel);
+    }
+
+    /**
+     * Implementation of AES encryption of the file into the output file.
+     * The files are passed through the cipher by the channels and direct buffers
+     */
+    public static void encrypt(String method, byte[] key, Key keyType, byte[] vector,
+                               File input, File output) throws Exception {
+        doFinal(getCipher(Cipher.ENCRYPT_MODE, method, key, keyType, vector), input, output);
+    }
+
+    /**
+     * Implementation of AES decryption of the file into the output file.
+     * The files are passed through the cipher by the channels and direct buffers
+     */
+    public static void decrypt(String method, byte[] key, Key keyType, byte[] vector,
+                               File input, File output) throws Exception {
+        doFinal(getCipher(Cipher.DECRYPT_MODE, method, key, keyType, vector), input, output);
+    }
+
+    /**
+     * Implementation of parallel AES encryption, the message is split into chunks,
+     * which are encrypted on all processors. Only AES_CTR_NO_PADDING is supported,
+     * the result is equal to the result of encryptBytes()
+     */
+    public static byte[] encryptParallel(String method, byte[] key, Key keyType, byte[] vector,
+                                         byte[] message) throws Exception {
+
+        return invoke(getParallelCipher(Cipher.ENCRYPT_MODE, method, key, keyType, vector), message);
+    }
+
+    /**
+     * Implementation of parallel AES decryption, the message is split into chunks,
+     * which are decrypted on all processors. CTR, CBC and CFB methods are supported
+     */
+    public static byte[] decryptParallel(String method, byte[] key, Key keyType, byte[] vector,
+                                         byte[] message) throws Exception {
+
+        return invoke(getParallelCipher(Cipher.DECRYPT_MODE, method, key, keyType, vector), message);
+    }
+
+    /**
+     * Implementation of parallel AES encryption of the file into the output file,
+     * every chunk of the files is mapped into memory and encrypted separately
+     */
+    public static void encryptParallel(String method, byte[] key, Key keyType, byte[] vector,
+                                       File input, File output) throws Exception {
+
+        getParallelCipher(Cipher.ENCRYPT_MODE, method, key, keyType, vector).invoke(input, output);
+    }
+
+    /**
+     * Implementation of parallel AES decryption of the file into the output file
+     */
+    public static void decryptParallel(String method, byte[] key, Key keyType, byte[] vector,
+                                       File input, File output) throws Exception {
+
+        getParallelCipher(Cipher.DECRYPT_MODE, method, key, keyType, vector).invoke(input, output);
+    }
+
+    /**
+     * Implementation of AES/GCM encryption in the segmented format (see {@link SegmentedCipher}):
+     * every segment of segmentSize bytes is encrypted and authenticated separately
+     * with its own nonce, the key of the message is derived from the key and a random salt
+     */
+    public static byte[] encryptSegmented(byte[] key, Key keyType, int segmentSize, byte[] message) throws Exception {
+        return SegmentedCipher.create(generateKey(key, keyType.type), segmentSize).encrypt(message, false);
+    }
+
+    /**
+     * Implementation of AES/GCM decryption of the message in the segmented format,
+     * the segment size is read from the header of the message
+     */
+    public static byte[] decryptSegmented(byte[] key, Key keyType, byte[] message) throws Exception {
+        return SegmentedCipher.decrypt(generateKey(key, keyType.type), message, false);
+    }
+
+    /**
+     * Implementation of AES/GCM encryption of the stream in the segmented format.
+     * Only one segment is in memory at any time, the streams are not closed
+     */
+    public static void encryptSegmented(byte[] key, Key keyType, int segmentSize,
+                                        InputStream input, OutputStream output) throws Exception {
+        SegmentedCipher.create(generateKey(key, keyType.type), segmentSize).encrypt(input, output);
+    }
+
+    /**
+     * Implementation of AES/GCM decryption of the stream in the segmented format.
+     * The plain text of every segment is written after its tag is checked,
+     * so only one segment is in memory at any time, the streams are not closed
+     */
+    public static void decryptSegmented(byte[] key, Key keyType,
+                                        InputStream input, OutputStream output) throws Exception {
+        SegmentedCipher.decrypt(generateKey(key, keyType.type), input, output);
+    }
+
+    /**
+     * Implementation of AES/GCM encryption in the segmented format,
+     * the segments are encrypted on all processors
+     */
+    public static byte[] encryptSegmentedParallel(byte[] key, Key keyType, int segmentSize,
+                                                  byte[] message) throws Exception {
+        return SegmentedCipher.create(generateKey(key, keyType.type), segmentSize).encrypt(message, true);
+    }
+
+    /**
+     * Implementation of AES/GCM decryption in the segmented format,
+     * the segments are decrypted on all processors
+     */
+    public static byte[] decryptSegmentedParallel(byte[] key, Key keyType, byte[] message) throws Exception {
+        return SegmentedCipher.decrypt(generateKey(key, keyType.type), message, true);
+    }
+
+    /**
+     * Implementation of AES/GCM encryption of the file into the output file in the segmented format,
+     * the segments are encrypted on all processors
+     */
+    public static void encryptSegmentedParallel(byte[] key, Key keyType, int segmentSize,
+                                                File input, File output) throws Exception {
+        SegmentedCipher.create(generateKey(key, keyType.type), segmentSize).encrypt(input, output);
+    }
+
+    /**
+     * Implementation of AES/GCM decryption of the file into the output file in the segmented format,
+     * the segments are decrypted on all processors
+     */
+    public static void decryptSegmentedParallel(byte[] key, Key keyType,
+                                                File input, File output) throws Exception {
+        SegmentedCipher.decrypt(generateKey(key, keyType.type), input, output);
+    }
+
+    /**
+     * Open the file in the segmented format for reading of its plain text from any position,
+     * only the segments, which cover the read bytes, are decrypted (see {@link SegmentedFileChannel})
+     */
+    public static SegmentedFileChannel openSegmented(byte[] key, Key keyType, File file) throws Exception {
+        return new SegmentedFileChannel(file, generateKey(key, keyType.type));
+    }
+
+    /**
+     * Check whether the method can be encrypted in parallel, only CTR without padding
+     */
+    public static boolean isParallelEncryption(String method){
+        return Method.AES_CTR_NO_PADDING.getMethod().equals(method);
+    }
+
+    /**
+     * Check whether the method can be decrypted in parallel: CTR without padding, CBC and CFB
+     */
+    public static boolean isParallelDecryption(String method){
+        return isParallelEncryption(method) || isChainedMode(method);
+    }
+
+    private static ParallelCipher getParallelCipher(int mode, String method, byte[] key,
+                                                    Key keyType, byte[] vector) throws Exception {
 
-        if(hasInitVector(method)){
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
+//        generate Key
+        byte[] keyBytes = generateKey(key, keyType.type);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, Method.AES.getMethod());
+
+//        generate Initialization Vector
+        byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
+
+        if(isParallelEncryption(method)){
+            return getCounterCipher(mode, method, keySpec, keyBytesIv);
+        } else if(mode == Cipher.DECRYPT_MODE && isChainedMode(method)){
+            return getChainedDecryption(method, keySpec, keyBytesIv);
         } else {
-            cipher.init(Cipher.DECRYPT_MODE, keySpec);
+            throw new IllegalArgumentException(Constants.PARALLEL_METHOD_EXCEPTION + method);
         }
+    }
+
+    /**
+     * Parallel CTR mode. The counter of every block is the initialization vector
+     * plus the index of the block, so every chunk can be processed by its own cipher,
+     * which starts with the counter of the first block of the chunk
+     */
+    private static ParallelCipher getCounterCipher(final int mode, final String method,
+                                                   final SecretKeySpec keySpec, final byte[] vector) {
+        return new ParallelCipher() {
+            @Override
+            int process(long index, boolean last, ByteBuffer input, ByteBuffer output) throws Exception {
+                long block = index * (PARALLEL_CHUNK_SIZE / VECTOR_LEGHT);
+
+                Cipher cipher = Cipher.getInstance(method);
+                cipher.init(mode, keySpec, new IvParameterSpec(addCounter(vector, block)));
+                return cipher.doFinal(input, output);
+            }
+        };
+    }
 
-        byte[] cipherText = cipher.doFinal(Base64.decode(message, Base64.DEFAULT));
+    /**
+     * Add the value to the counter, which is a 128-bit big-endian number
+     */
+    private static byte[] addCounter(byte[] counter, long value){
+        byte[] result = counter.clone();
+
+        for(int i = result.length - 1; i >= 0 && value != 0; i--){
+            int sum = (result[i] & 0xFF) + (int) (value & 0xFF);
+
+            result[i] = (byte) sum;
+            value = (value >>> 8) + (sum >>> 8);
+        }
 
-        return new String(cipherText);
+        return result;
+    }
+
+    /**
+     * Prepare the key and the initialization vector once, the result can be used
+     * by any count of threads (see {@link CipherSpec})
+     */
+    public static CipherSpec createSpec(String method, byte[] key, Key keyType, byte[] vector) throws Exception {
+
+//        generate Key
+        byte[] keyBytes = generateKey(key, keyType.type);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, Method.AES.getMethod());
+
+//        generate Initialization Vector
+        byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
+        IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
+
+        return new CipherSpec(method, keySpec, hasInitVector(method) ? ivSpec : null);
+    }
+
+    /**
+     * Create initialized cipher, which is used by one caller only
+     */
+    static Cipher getCipher(int mode, String method, byte[] key, Key keyType, byte[] vector) throws Exception {
+        return createSpec(method, key, keyType, vector).getCipher(mode);
     }
 }
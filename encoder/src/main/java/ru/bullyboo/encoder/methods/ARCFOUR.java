@@ -16,6 +16,10 @@
 
 package ru.bullyboo.encoder.methods;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -32,34 +36,87 @@ public class ARCFOUR extends BaseMethod{
     private static final String ARCFOUR = "ARCFOUR";
 
     /**
-     * Implementation of ARCFOUR encryption
+     * Implementation of ARCFOUR encryption, the result is encoded with Base64
      */
     public static String encrypt(byte[] key, int keySize, byte[] message) throws Exception {
+        return Base64.encodeToString(encryptBytes(key, keySize, message), Base64.DEFAULT);
+    }
+
+    /**
+     * Implementation of ARCFOUR encryption, the message and the result are not encoded
+     */
+    public static byte[] encryptBytes(byte[] key, int keySize, byte[] message) throws Exception {
 
 //        generate Key
         byte[] keyBytes = generateKey(key, keySize);
         SecretKeySpec keySpec = new SecretKeySpec(keyBytes, ARCFOUR);
 
-        Cipher cipher = Cipher.getInstance(ARCFOUR);
-        cipher.init(Cipher.ENCRYPT_MODE, keySpec);
-        byte[] cipherText = cipher.doFinal(message);
-
-        return Base64.encodeToString(cipherText, Base64.DEFAULT);
+        return CipherPool.doFinal(ARCFOUR, Cipher.ENCRYPT_MODE, keySpec, null, message);
     }
 
     /**
-     * Implementation of ARCFOUR decryption
+     * Implementation of ARCFOUR decryption of the message, encoded with Base64
      */
     public static String decrypt(byte[] key, int keySize, byte[] message) throws Exception {
+        return new String(decryptBytes(key, keySize, Base64.decode(message, Base64.DEFAULT)));
+    }
+
+    /**
+     * Implementation of ARCFOUR decryption, the message and the result are not encoded
+     */
+    public static byte[] decryptBytes(byte[] key, int keySize, byte[] message) throws Exception {
+
+//        generate Key
+        byte[] keyBytes = generateKey(key, keySize);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, ARCFOUR);
+
+        return CipherPool.doFinal(ARCFOUR, Cipher.ENCRYPT_MODE, keySpec, null, message);
+    }
+
+    /**
+     * Implementation of ARCFOUR encryption of the stream. The stream is encrypted
+     * by chunks, so it can be of any size, the streams are not closed
+     */
+    public static void encrypt(byte[] key, int keySize,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.ENCRYPT_MODE, key, keySize), input, output);
+    }
+
+    /**
+     * Implementation of ARCFOUR decryption of the stream. The stream is decrypted
+     * by chunks, so it can be of any size, the streams are not closed
+     */
+    public static void decrypt(byte[] key, int keySize,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.ENCRYPT_MODE, key, keySize), input, output);
+    }
+
+    /**
+     * Implementation of ARCFOUR decryption of many messages with one initialized cipher
+     */
+    public static BatchResult decryptBatch(byte[] key, int keySize,
+                                           List<byte[]> messages, boolean parallel) throws Exception {
+        return createSpec(key, keySize).decryptBatch(messages, parallel);
+    }
+
+    /**
+     * Prepare the key and the initialization vector once, the result can be used
+     * by any count of threads (see {@link CipherSpec})
+     */
+    public static CipherSpec createSpec(byte[] key, int keySize) throws Exception {
 
 //        generate Key
         byte[] keyBytes = generateKey(key, keySize);
         SecretKeySpec keySpec = new SecretKeySpec(keyBytes, ARCFOUR);
 
-        Cipher cipher = Cipher.getInstance(ARCFOUR);
-        cipher.init(Cipher.ENCRYPT_MODE, keySpec);
-        byte[] cipherText = cipher.doFinal(Base64.decode(message, Base64.DEFAULT));
+//        decryption of ARCFOUR is the same as encryption
+        return new CipherSpec(ARCFOUR, keySpec, null, Cipher.ENCRYPT_MODE);
+    }
 
-        return new String(cipherText);
+    /**
+     * Create initialized cipher, which is used by one caller only
+     */
+    static Cipher getCipher(int mode, byte[] key, int keySize) throws Exception {
+        return createSpec(key, keySize).getCipher(mode);
     }
 }
@@ -16,13 +16,44 @@
 
 package ru.bullyboo.encoder.methods;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
 
 /**
  * Basic encryption class
  */
 abstract class BaseMethod {
 
+    /**
+     * Size of the chunks of the streams, which are passed through the cipher
+     */
+    static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Size of the chunks of the files, which are passed through the cipher
+     */
+    static final int FILE_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * Size of the chunks of the parallel methods, 1 MB, shorter messages
+     * are not worth splitting
+     */
+    public static final int PARALLEL_CHUNK_SIZE = 1024 * 1024;
+
     /**
      * Method for creation of valid byte array from key
      */
@@ -72,4 +103,177 @@ abstract class BaseMethod {
         }
         return true;
     }
+
+    /**
+     * Pass the input stream through the initialized cipher into the output stream.
+     * Only one chunk of the stream is in memory at any time
+     */
+    static void doFinal(Cipher cipher, InputStream input, OutputStream output)
+            throws IOException, GeneralSecurityException {
+
+        byte[] buffer = new byte[STREAM_CHUNK_SIZE];
+        byte[] result = new byte[cipher.getOutputSize(STREAM_CHUNK_SIZE)];
+
+        int read;
+
+        while ((read = input.read(buffer)) != -1){
+            if(result.length < cipher.getOutputSize(read)){
+                result = new byte[cipher.getOutputSize(read)];
+            }
+
+            int length = cipher.update(buffer, 0, read, result);
+
+            output.write(result, 0, length);
+        }
+
+        if(result.length < cipher.getOutputSize(0)){
+            result = new byte[cipher.getOutputSize(0)];
+        }
+
+        int length = cipher.doFinal(result, 0);
+
+        output.write(result, 0, length);
+        output.flush();
+    }
+
+    /**
+     * Pass the input file through the initialized cipher into the output file.
+     * The files are read and written by the channels through direct buffers,
+     * so the bytes are not copied into the heap
+     */
+    static void doFinal(Cipher cipher, File input, File output) throws IOException, GeneralSecurityException {
+        try (FileInputStream inputStream = new FileInputStream(input);
+             FileOutputStream outputStream = new FileOutputStream(output)) {
+
+            FileChannel inputChannel = inputStream.getChannel();
+            FileChannel outputChannel = outputStream.getChannel();
+
+            ByteBuffer in = ByteBuffer.allocateDirect(FILE_CHUNK_SIZE);
+            ByteBuffer out = ByteBuffer.allocateDirect(cipher.getOutputSize(FILE_CHUNK_SIZE));
+
+            while (inputChannel.read(in) != -1){
+                if(in.hasRemaining()){
+                    continue;
+                }
+
+                in.flip();
+                out = update(cipher, in, out, false);
+                write(outputChannel, out);
+                in.clear();
+            }
+
+            in.flip();
+            out = update(cipher, in, out, true);
+            write(outputChannel, out);
+        }
+    }
+
+    /**
+     * Pass the input buffer through the cipher, the output buffer
+     * is replaced by a larger one, if it is too small
+     */
+    private static ByteBuffer update(Cipher cipher, ByteBuffer in, ByteBuffer out, boolean last)
+            throws GeneralSecurityException {
+
+        int size = cipher.getOutputSize(in.remaining());
+
+        if(out.capacity() < size){
+            out = ByteBuffer.allocateDirect(size);
+        }
+
+        out.clear();
+
+        if(last){
+            cipher.doFinal(in, out);
+        } else {
+            cipher.update(in, out);
+        }
+
+        out.flip();
+
+        return out;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Check whether the method turns the key and the initialization vector into a key stream,
+     * which is xored with the message: GCM, CTR, OFB, CFB and RC4. Two messages encrypted
+     * with the same key and vector share the key stream, so the xor of the cipher texts
+     * is the xor of the messages
+     */
+    public static boolean isStreamMode(String method){
+        String upper = method.toUpperCase(Locale.US);
+
+        if(upper.contains("RC4") || upper.startsWith("ARCFOUR")){
+            return true;
+        }
+
+        String[] parts = upper.split("/");
+
+        if(parts.length < 2){
+            return false;
+        }
+
+        String mode = parts[1];
+
+        return mode.equals("GCM") || mode.equals("CTR") || mode.startsWith("OFB") || mode.startsWith("CFB");
+    }
+
+    /**
+     * Check whether the method is CBC or CFB. Decryption of a block of these modes
+     * needs only the previous block of the cipher text, so it can be done in parallel
+     */
+    static boolean isChainedMode(String method){
+        String[] parts = method.split("/");
+
+        return parts.length == 3 && (parts[1].equals("CBC") || parts[1].startsWith("CFB"));
+    }
+
+    /**
+     * Parallel decryption of CBC and CFB modes. Every chunk is decrypted by its own
+     * cipher, whose initialization vector is the last block of the cipher text
+     * before the chunk. The chunks are decrypted without padding, except the last one,
+     * so the padding is checked and removed only at the end of the message
+     */
+    static ParallelCipher getChainedDecryption(final String method, final Key key, final byte[] vector){
+        String[] parts = method.split("/");
+
+        final String chunkMethod = parts[0] + "/" + parts[1] + "/NoPadding";
+
+        return new ParallelCipher(vector.length) {
+            @Override
+            int process(long index, boolean last, ByteBuffer input, ByteBuffer output) throws Exception {
+                byte[] chunkVector = vector;
+
+                if(index != 0){
+                    ByteBuffer previous = input.duplicate();
+                    previous.position(input.position() - vector.length);
+
+                    chunkVector = new byte[vector.length];
+                    previous.get(chunkVector);
+                }
+
+                Cipher cipher = Cipher.getInstance(last ? method : chunkMethod);
+                cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(chunkVector));
+
+                return cipher.doFinal(input, output);
+            }
+        };
+    }
+
+    /**
+     * Process the message in parallel, the result is cut to its real length
+     */
+    static byte[] invoke(ParallelCipher cipher, byte[] message) throws Exception {
+        byte[] result = new byte[message.length];
+
+        int length = cipher.invoke(message, result);
+
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import java.util.List;
+
+import javax.crypto.Cipher;
+
+import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.threads.EncoderExecutor;
+import ru.bullyboo.encoder.threads.RangeTask;
+
+/**
+ * Encryption or decryption of many messages with the same settings.
+ *
+ * The key and the initialization vector are prepared and the cipher is
+ * initialized once, doFinal() returns the cipher into its initialized state,
+ * so it is used for all the messages. The results are written into one array,
+ * the region of every message is reserved by getOutputSize(), at the end
+ * the results are moved to the start of the array one after another.
+ *
+ * In parallel mode the messages are split into groups of about
+ * {@link BaseMethod#PARALLEL_CHUNK_SIZE} bytes,
+ * every group is processed by its own cipher on the shared ForkJoinPool.
+ *
+ * The stream modes (GCM, CTR, OFB, CFB and RC4) never encrypt batches: all the
+ * messages would be encrypted with the same key and initialization vector, so with
+ * the same key stream, and the xor of two cipher texts would be the xor of the
+ * messages. GCM would lose the authenticity as well. Their batches are only decrypted.
+ */
+abstract class BatchCipher {
+
+    /**
+     * Create initialized cipher
+     */
+    abstract Cipher create() throws Exception;
+
+    /**
+     * Process all the messages, in parallel if parallel is true
+     */
+    BatchResult invoke(List<byte[]> messages, boolean parallel) throws Exception {
+        byte[][] input = messages.toArray(new byte[messages.size()][]);
+
+        Cipher cipher = create();
+
+        int[] offsets = new int[input.length + 1];
+        long size = 0;
+
+        for(int i = 0; i < input.length; i++){
+            size += cipher.getOutputSize(input[i].length);
+
+            if(size > Integer.MAX_VALUE){
+                throw new IllegalArgumentException(Constants.BATCH_SIZE_EXCEPTION);
+            }
+
+            offsets[i + 1] = (int) size;
+        }
+
+        byte[] buffer = new byte[(int) size];
+        int[] lengths = new int[input.length];
+
+        Batch batch = new Batch(input, buffer, offsets, lengths);
+
+        if(!parallel || size <= BaseMethod.PARALLEL_CHUNK_SIZE){
+            batch.process(cipher, 0, input.length);
+        } else {
+            new BatchTask(batch, 0, input.length).invokeOn(EncoderExecutor.getForkJoinPool());
+        }
+
+        int position = 0;
+
+        for(int i = 0; i < input.length; i++){
+            if(offsets[i] != position){
+                System.arraycopy(buffer, offsets[i], buffer, position, lengths[i]);
+            }
+
+            offsets[i] = position;
+            position += lengths[i];
+        }
+
+        offsets[input.length] = position;
+
+        return new BatchResult(buffer, offsets);
+    }
+
+    /**
+     * Messages, their reserved regions in the buffer and the lengths of the results
+     */
+    private class Batch {
+
+        private final byte[][] input;
+
+        private final byte[] buffer;
+
+        private final int[] offsets;
+
+        private final int[] lengths;
+
+        Batch(byte[][] input, byte[] buffer, int[] offsets, int[] lengths){
+            this.input = input;
+            this.buffer = buffer;
+            this.offsets = offsets;
+            this.lengths = lengths;
+        }
+
+        /**
+         * Process the messages from, ..., to - 1 with the cipher
+         */
+        void process(Cipher cipher, int from, int to) throws Exception {
+            for(int i = from; i < to; i++){
+                lengths[i] = cipher.doFinal(input[i], 0, input[i].length, buffer, offsets[i]);
+            }
+        }
+    }
+
+    /**
+     * Task, which processes the messages from, ..., to - 1
+     */
+    private class BatchTask extends RangeTask<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Batch batch;
+
+        BatchTask(Batch batch, long from, long to){
+            super(from, to);
+            this.batch = batch;
+        }
+
+        @Override
+        protected boolean isLeaf() {
+            return to - from == 1 || batch.offsets[(int) to] - batch.offsets[(int) from] <= BaseMethod.PARALLEL_CHUNK_SIZE;
+        }
+
+        @Override
+        protected Void computeLeaf() throws Exception {
+            batch.process(BatchCipher.this.create(), (int) from, (int) to);
+            return null;
+        }
+
+        @Override
+        protected RangeTask<Void> create(long from, long to) {
+            return new BatchTask(batch, from, to);
+        }
+
+        @Override
+        protected Void merge(Void left, Void right) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import java.util.Arrays;
+
+/**
+ * Results of encryption or decryption of many messages, which are stored
+ * one after another in one array. The result of the message i is
+ * getLength(i) bytes of getBuffer() from getOffset(i).
+ *
+ * The array may be longer than the total length of the results,
+ * because its size is reserved before the messages are processed.
+ */
+public class BatchResult {
+
+    private final byte[] buffer;
+
+    /**
+     * Offsets of the results, the last one is the end of the last result
+     */
+    private final int[] offsets;
+
+    BatchResult(byte[] buffer, int[] offsets){
+        this.buffer = buffer;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Count of the results
+     */
+    public int size(){
+        return offsets.length - 1;
+    }
+
+    /**
+     * Array with all the results, it is not copied
+     */
+    public byte[] getBuffer(){
+        return buffer;
+    }
+
+    public int getOffset(int index){
+        checkIndex(index);
+        return offsets[index];
+    }
+
+    public int getLength(int index){
+        checkIndex(index);
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Total length of the results
+     */
+    public int getTotalLength(){
+        return offsets[offsets.length - 1];
+    }
+
+    /**
+     * Copy of the result of the message
+     */
+    public byte[] get(int index){
+        checkIndex(index);
+        return Arrays.copyOfRange(buffer, offsets[index], offsets[index + 1]);
+    }
+
+    private void checkIndex(int index){
+        if(index < 0 || index >= size()){
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+    }
+}
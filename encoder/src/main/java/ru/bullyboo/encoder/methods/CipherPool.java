@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+
+/**
+ * Pool of initialized ciphers of the calling thread.
+ *
+ * Cipher.getInstance() looks up the provider and init() computes the key
+ * schedule, for short messages it takes longer than the encryption itself.
+ * Every thread keeps up to MAX_SIZE ciphers, one per transformation, key
+ * and mode, the least recently used one is dropped when the pool is full.
+ * doFinal() returns the cipher into its initialized state, so it is
+ * initialized again only when the initialization vector is changed.
+ *
+ * GCM ciphers are never pooled. GCM must never encrypt two messages with
+ * the same key and initialization vector: the key stream repeats, so the xor
+ * of the plain texts leaks and the authentication key can be recovered.
+ * The pool doesn't make it safe, every GCM call initializes a new cipher
+ * with the vector of the caller, so the caller must pass a unique vector
+ * for every message encrypted with the same key.
+ */
+final class CipherPool {
+
+    /**
+     * Maximum count of ciphers of one thread
+     */
+    static final int MAX_SIZE = 16;
+
+    private static final ThreadLocal<Map<PoolKey, PoolEntry>> POOL = new ThreadLocal<Map<PoolKey, PoolEntry>>() {
+        @Override
+        protected Map<PoolKey, PoolEntry> initialValue() {
+            return new LinkedHashMap<PoolKey, PoolEntry>(MAX_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PoolKey, PoolEntry> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            };
+        }
+    };
+
+    private CipherPool() {
+
+    }
+
+    /**
+     * Encrypt or decrypt the message with the cipher from the pool.
+     * The vector is null for the methods without initialization vector
+     */
+    static byte[] doFinal(String transformation, int mode, Key key, IvParameterSpec vector,
+                          byte[] message) throws GeneralSecurityException {
+
+        // the vector of GCM is the nonce, it must be unique for every message of the key,
+        // the caller is responsible for it
+        if(transformation.contains("GCM")){
+            return init(Cipher.getInstance(transformation), mode, key, vector).doFinal(message);
+        }
+
+        Map<PoolKey, PoolEntry> pool = POOL.get();
+        PoolKey poolKey = new PoolKey(transformation, mode, key);
+
+        PoolEntry entry = pool.remove(poolKey);
+
+        byte[] iv = vector != null ? vector.getIV() : null;
+
+        if(entry == null){
+            entry = new PoolEntry(init(Cipher.getInstance(transformation), mode, key, vector), iv);
+        } else if(!Arrays.equals(entry.vector, iv)){
+            init(entry.cipher, mode, key, vector);
+            entry.vector = iv;
+        }
+
+        // the cipher is returned into the pool only if doFinal() succeeded,
+        // after a failure its state is unknown
+        byte[] result = entry.cipher.doFinal(message);
+
+        pool.put(poolKey, entry);
+
+        return result;
+    }
+
+    /**
+     * Count of the ciphers in the pool of the calling thread
+     */
+    static int size(){
+        return POOL.get().size();
+    }
+
+    /**
+     * True if the pool of the calling thread has the cipher of the transformation, mode and key
+     */
+    static boolean contains(String transformation, int mode, Key key){
+        return POOL.get().containsKey(new PoolKey(transformation, mode, key));
+    }
+
+    /**
+     * Drop all the ciphers of the calling thread
+     */
+    static void clear(){
+        POOL.get().clear();
+    }
+
+    private static Cipher init(Cipher cipher, int mode, Key key, IvParameterSpec vector) throws GeneralSecurityException {
+        if(vector != null){
+            cipher.init(mode, key, vector);
+        } else {
+            cipher.init(mode, key);
+        }
+        return cipher;
+    }
+
+    private static class PoolKey {
+
+        private final String transformation;
+
+        private final int mode;
+
+        private final Key key;
+
+        PoolKey(String transformation, int mode, Key key) {
+            this.transformation = transformation;
+            this.mode = mode;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o){
+                return true;
+            }
+            if(!(o instanceof PoolKey)){
+                return false;
+            }
+
+            PoolKey other = (PoolKey) o;
+
+            return mode == other.mode
+                    && transformation.equals(other.transformation)
+                    && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * transformation.hashCode() + mode) + key.hashCode();
+        }
+    }
+
+    private static class PoolEntry {
+
+        private final Cipher cipher;
+
+        /**
+         * Initialization vector of the last init() call
+         */
+        private byte[] vector;
+
+        PoolEntry(Cipher cipher, byte[] vector) {
+            this.cipher = cipher;
+            this.vector = vector;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import ru.bullyboo.encoder.Base64;
+import ru.bullyboo.encoder.constants.Constants;
+
+/**
+ * Immutable settings of a symmetric cipher: the transformation, the key
+ * and the initialization vector, which are prepared once.
+ *
+ * It is created by build() of the builders or by createSpec() of the methods
+ * and can be shared by any count of threads: every thread keeps its own initialized
+ * ciphers of the spec (streams and batches create their own ones), so the key and
+ * the initialization vector are never prepared again.
+ *
+ * The methods, which write into the arrays and the buffers of the caller,
+ * don't allocate memory after the first call on the thread.
+ *
+ * The spec of a stream mode (GCM, CTR, OFB, CFB and RC4) only decrypts, its encryption
+ * methods throw UnsupportedOperationException: these modes turn the key and the
+ * initialization vector into a key stream, and the fixed vector of the spec would
+ * encrypt every message with the same key stream, so the xor of two encrypted messages
+ * would give the xor of the messages (GCM also loses authenticity). Encrypt every
+ * message of these modes with its own initialization vector by the static methods.
+ */
+public final class CipherSpec {
+
+    private final String transformation;
+
+    private final SecretKeySpec key;
+
+    /**
+     * Initialization vector, null for the methods without it
+     */
+    private final IvParameterSpec vector;
+
+    /**
+     * Mode of the cipher for decryption, ARCFOUR decrypts in ENCRYPT_MODE
+     */
+    private final int decryptMode;
+
+    /**
+     * True for GCM, CTR, OFB, CFB and RC4, which only decrypt.
+     * It is found once, so the checks of the encryption don't parse the transformation
+     */
+    private final boolean streamMode;
+
+    /**
+     * Initialized ciphers of the threads, doFinal() returns them into their initialized state
+     */
+    private final ThreadLocal<Cipher> encryptCipher = new ThreadLocal<>();
+    private final ThreadLocal<Cipher> decryptCipher = new ThreadLocal<>();
+
+    CipherSpec(String transformation, SecretKeySpec key, IvParameterSpec vector){
+        this(transformation, key, vector, Cipher.DECRYPT_MODE);
+    }
+
+    CipherSpec(String transformation, SecretKeySpec key, IvParameterSpec vector, int decryptMode){
+        this.transformation = transformation;
+        this.key = key;
+        this.vector = vector;
+        this.decryptMode = decryptMode;
+        this.streamMode = BaseMethod.isStreamMode(transformation);
+    }
+
+    public String getTransformation(){
+        return transformation;
+    }
+
+    /**
+     * Check whether the transformation uses the initialization vector
+     */
+    public boolean hasInitVector(){
+        return vector != null;
+    }
+
+    /**
+     * Encryption of the message, the result is encoded with Base64
+     */
+    public String encrypt(byte[] message) throws Exception {
+        return Base64.encodeToString(encryptBytes(message), Base64.DEFAULT);
+    }
+
+    /**
+     * Decryption of the message, encoded with Base64
+     */
+    public String decrypt(byte[] message) throws Exception {
+        return new String(decryptBytes(Base64.decode(message, Base64.DEFAULT)));
+    }
+
+    /**
+     * Encryption of the message, the message and the result are not encoded
+     */
+    public byte[] encryptBytes(byte[] message) throws Exception {
+        return doFinal(true, message);
+    }
+
+    /**
+     * Decryption of the message, the message and the result are not encoded
+     */
+    public byte[] decryptBytes(byte[] message) throws Exception {
+        return doFinal(false, message);
+    }
+
+    /**
+     * Encryption of length bytes of the input from the offset into the output from outputOffset.
+     * The output must have at least {@link #getEncryptedSize(int)} bytes after outputOffset.
+     * Returns count of the written bytes
+     */
+    public int encrypt(byte[] input, int offset, int length, byte[] output, int outputOffset) throws Exception {
+        return doFinal(true, input, offset, length, output, outputOffset);
+    }
+
+    /**
+     * Decryption of length bytes of the input from the offset into the output from outputOffset.
+     * The output must have at least {@link #getDecryptedSize(int)} bytes after outputOffset.
+     * Returns count of the written bytes
+     */
+    public int decrypt(byte[] input, int offset, int length, byte[] output, int outputOffset) throws Exception {
+        return doFinal(false, input, offset, length, output, outputOffset);
+    }
+
+    /**
+     * Encryption of the remaining bytes of the input into the output, the positions
+     * of the buffers are moved. Returns count of the written bytes
+     */
+    public int encrypt(ByteBuffer input, ByteBuffer output) throws Exception {
+        return doFinal(true, input, output);
+    }
+
+    /**
+     * Decryption of the remaining bytes of the input into the output, the positions
+     * of the buffers are moved. Returns count of the written bytes
+     */
+    public int decrypt(ByteBuffer input, ByteBuffer output) throws Exception {
+        return doFinal(false, input, output);
+    }
+
+    /**
+     * Size of the output, which is enough for encryption of the message of the length.
+     * It depends on the method and the padding, for example, it is the length rounded up
+     * to the next block for PKCS5Padding, the length for NoPadding and the length plus the tag for GCM
+     */
+    public int getEncryptedSize(int length) throws Exception {
+        return getOutputSize(true, length);
+    }
+
+    /**
+     * Size of the output, which is enough for decryption of the message of the length
+     */
+    public int getDecryptedSize(int length) throws Exception {
+        return getOutputSize(false, length);
+    }
+
+    /**
+     * Encryption of the stream by chunks, the streams are not closed
+     */
+    public void encrypt(InputStream input, OutputStream output) throws Exception {
+        checkEncryption();
+
+        BaseMethod.doFinal(getCipher(Cipher.ENCRYPT_MODE), input, output);
+    }
+
+    /**
+     * Decryption of the stream by chunks, the streams are not closed
+     */
+    public void decrypt(InputStream input, OutputStream output) throws Exception {
+        BaseMethod.doFinal(getCipher(decryptMode), input, output);
+    }
+
+    /**
+     * Encryption of many messages, the results are stored one after another in one array.
+     * The stream modes (GCM, CTR, OFB, CFB and RC4) are not supported,
+     * they would encrypt all the messages with the same key stream
+     */
+    public BatchResult encryptBatch(List<byte[]> messages, boolean parallel) throws Exception {
+        if(streamMode){
+            throw new UnsupportedOperationException(Constants.STREAM_BATCH_EXCEPTION + transformation);
+        }
+
+        return new BatchCipher() {
+            @Override
+            Cipher create() throws Exception {
+                return getCipher(Cipher.ENCRYPT_MODE);
+            }
+        }.invoke(messages, parallel);
+    }
+
+    /**
+     * Decryption of many messages, the results are stored one after another in one array
+     */
+    public BatchResult decryptBatch(List<byte[]> messages, boolean parallel) throws Exception {
+        return new BatchCipher() {
+            @Override
+            Cipher create() throws Exception {
+                return getCipher(decryptMode);
+            }
+        }.invoke(messages, parallel);
+    }
+
+    private byte[] doFinal(boolean encrypt, byte[] message) throws Exception {
+        Cipher cipher = take(encrypt);
+
+        byte[] result = cipher.doFinal(message);
+
+        release(encrypt, cipher);
+
+        return result;
+    }
+
+    private int doFinal(boolean encrypt, byte[] input, int offset, int length,
+                        byte[] output, int outputOffset) throws Exception {
+        Cipher cipher = take(encrypt);
+
+        int result = cipher.doFinal(input, offset, length, output, outputOffset);
+
+        release(encrypt, cipher);
+
+        return result;
+    }
+
+    private int doFinal(boolean encrypt, ByteBuffer input, ByteBuffer output) throws Exception {
+        Cipher cipher = take(encrypt);
+
+        int result = cipher.doFinal(input, output);
+
+        release(encrypt, cipher);
+
+        return result;
+    }
+
+    private int getOutputSize(boolean encrypt, int length) throws Exception {
+        Cipher cipher = take(encrypt);
+
+        int result = cipher.getOutputSize(length);
+
+        release(encrypt, cipher);
+
+        return result;
+    }
+
+    /**
+     * Take the cipher of the calling thread or create it. It is returned back by release(),
+     * so after a failure the cipher, whose state is unknown, is dropped
+     */
+    private Cipher take(boolean encrypt) throws Exception {
+        if(encrypt){
+            checkEncryption();
+        }
+
+        ThreadLocal<Cipher> ciphers = encrypt ? encryptCipher : decryptCipher;
+
+        Cipher cipher = ciphers.get();
+
+        if(cipher == null){
+            return getCipher(encrypt ? Cipher.ENCRYPT_MODE : decryptMode);
+        }
+
+        ciphers.set(null);
+
+        return cipher;
+    }
+
+    private void release(boolean encrypt, Cipher cipher){
+        (encrypt ? encryptCipher : decryptCipher).set(cipher);
+    }
+
+    /**
+     * Stream modes must never encrypt two messages with the same key stream
+     */
+    private void checkEncryption(){
+        if(streamMode){
+            throw new UnsupportedOperationException(Constants.STREAM_SPEC_EXCEPTION + transformation);
+        }
+    }
+
+    /**
+     * Create initialized cipher, which is used by one caller only
+     */
+    Cipher getCipher(int mode) throws Exception {
+        Cipher cipher = Cipher.getInstance(transformation);
+
+        if(vector != null){
+            cipher.init(mode, key, vector);
+        } else {
+            cipher.init(mode, key);
+        }
+
+        return cipher;
+    }
+}
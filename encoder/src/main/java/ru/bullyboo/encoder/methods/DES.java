@@ -16,6 +16,11 @@
 
 package ru.bullyboo.encoder.methods;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
@@ -29,6 +34,11 @@ import ru.bullyboo.encoder.constants.Padding;
  */
 public class DES extends BaseMethod{
 
+    /**
+     * Algorithm of the keys, the key spec needs it without the mode and the padding
+     */
+    private static final String DES = "DES";
+
     private static final String DES_CFB = "DES/CFB";
     private static final String DES_OFB = "DES/OFB";
 
@@ -140,54 +150,151 @@ public class DES extends BaseMethod{
     }
 
     /**
-     * Implementation of DES encryption
+     * Implementation of DES encryption, the result is encoded with Base64
      */
     public static String encrypt(String method, byte[] key, byte[] vector, byte[] message) throws Exception {
+        return Base64.encodeToString(encryptBytes(method, key, vector, message), Base64.DEFAULT);
+    }
+
+    /**
+     * Implementation of DES encryption, the message and the result are not encoded
+     */
+    public static byte[] encryptBytes(String method, byte[] key, byte[] vector, byte[] message) throws Exception {
 
 //        generate Key
         byte[] keyBytes = generateKey(key, KEY_LEGHT);
-        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, method);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, DES);
 
 //        generate Initialization Vector
         byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
         IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
 
-        Cipher cipher = Cipher.getInstance(method);
-
-        if(hasInitVector(method)){
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
-        } else {
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec);
-        }
-
-        byte[] cipherText = cipher.doFinal(message);
+        return CipherPool.doFinal(method, Cipher.ENCRYPT_MODE, keySpec,
+                hasInitVector(method) ? ivSpec : null, message);
+    }
 
-        return Base64.encodeToString(cipherText, Base64.DEFAULT);
+    /**
+     * Implementation of DES decryption of the message, encoded with Base64
+     */
+    public static String decrypt(String method, byte[] key, byte[] vector, byte[] message) throws Exception {
+        return new String(decryptBytes(method, key, vector, Base64.decode(message, Base64.DEFAULT)));
     }
 
     /**
-     * Implementation of DES decryption
+     * Implementation of DES decryption, the message and the result are not encoded
      */
-    public static String decrypt(String method, byte[] key, byte[] vector, byte[] message) throws Exception{
+    public static byte[] decryptBytes(String method, byte[] key, byte[] vector, byte[] message) throws Exception {
 
 //        generate Key
         byte[] keyBytes = generateKey(key, KEY_LEGHT);
-        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, AES.Method.AES.getMethod());
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, DES);
 
 //        generate Initialization Vector
         byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
         IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
 
-        Cipher cipher = Cipher.getInstance(method);
+        return CipherPool.doFinal(method, Cipher.DECRYPT_MODE, keySpec,
+                hasInitVector(method) ? ivSpec : null, message);
+    }
+
+    /**
+     * Implementation of DES encryption of the stream. The stream is encrypted
+     * by chunks, so it can be of any size, the streams are not closed
+     */
+    public static void encrypt(String method, byte[] key, byte[] vector,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.ENCRYPT_MODE, method, key, vector), input, output);
+    }
+
+    /**
+     * Implementation of DES decryption of the stream. The stream is decrypted
+     * by chunks, so it can be of any size, the streams are not closed
+     */
+    public static void decrypt(String method, byte[] key, byte[] vector,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.DECRYPT_MODE, method, key, vector), input, output);
+    }
+
+    /**
+     * Implementation of DES encryption of many messages with one initialized cipher,
+     * the results are stored one after another in one array
+     */
+    public static BatchResult encryptBatch(String method, byte[] key, byte[] vector,
+                                           List<byte[]> messages, boolean parallel) throws Exception {
+        return createSpec(method, key, vector).encryptBatch(messages, parallel);
+    }
+
+    /**
+     * Implementation of DES decryption of many messages with one initialized cipher
+     */
+    public static BatchResult decryptBatch(String method, byte[] key, byte[] vector,
+                                           List<byte[]> messages, boolean parallel) throws Exception {
+        return createSpec(method, key, vector).decryptBatch(messages, parallel);
+    }
+
+    /**
+     * Implementation of parallel DES decryption, the message is split into chunks,
+     * which are decrypted on all processors. CBC and CFB methods are supported
+     */
+    public static byte[] decryptParallel(String method, byte[] key, byte[] vector,
+                                         byte[] message) throws Exception {
+
+        return invoke(getParallelDecryption(method, key, vector), message);
+    }
 
-        if(hasInitVector(method)){
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
-        } else {
-            cipher.init(Cipher.DECRYPT_MODE, keySpec);
+    /**
+     * Implementation of parallel DES decryption of the file into the output file,
+     * every chunk of the files is mapped into memory and decrypted separately
+     */
+    public static void decryptParallel(String method, byte[] key, byte[] vector,
+                                       File input, File output) throws Exception {
+
+        getParallelDecryption(method, key, vector).invoke(input, output);
+    }
+
+    /**
+     * Check whether the method can be decrypted in parallel: CBC and CFB
+     */
+    public static boolean isParallelDecryption(String method){
+        return isChainedMode(method);
+    }
+
+    private static ParallelCipher getParallelDecryption(String method, byte[] key, byte[] vector) throws Exception {
+        if(!isChainedMode(method)){
+            throw new IllegalArgumentException(Constants.PARALLEL_METHOD_EXCEPTION + method);
         }
 
-        byte[] cipherText = cipher.doFinal(Base64.decode(message, Base64.DEFAULT));
+//        generate Key
+        byte[] keyBytes = generateKey(key, KEY_LEGHT);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, DES);
+
+//        generate Initialization Vector
+        byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
 
-        return new String(cipherText);
+        return getChainedDecryption(method, keySpec, keyBytesIv);
+    }
+
+    /**
+     * Prepare the key and the initialization vector once, the result can be used
+     * by any count of threads (see {@link CipherSpec})
+     */
+    public static CipherSpec createSpec(String method, byte[] key, byte[] vector) throws Exception {
+
+//        generate Key
+        byte[] keyBytes = generateKey(key, KEY_LEGHT);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, DES);
+
+//        generate Initialization Vector
+        byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
+        IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
+
+        return new CipherSpec(method, keySpec, hasInitVector(method) ? ivSpec : null);
+    }
+
+    /**
+     * Create initialized cipher, which is used by one caller only
+     */
+    static Cipher getCipher(int mode, String method, byte[] key, byte[] vector) throws Exception {
+        return createSpec(method, key, vector).getCipher(mode);
     }
 }
@@ -16,6 +16,10 @@
 
 package ru.bullyboo.encoder.methods;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
@@ -27,6 +31,11 @@ import ru.bullyboo.encoder.Base64;
  */
 public class DESede extends BaseMethod{
 
+    /**
+     * Algorithm of the keys, the key spec needs it without the mode and the padding
+     */
+    private static final String DESEDE = "DESede";
+
     private static final int VECTOR_LEGHT = 8;
 
     /**
@@ -66,42 +75,107 @@ public class DESede extends BaseMethod{
     }
 
     /**
-     * Implementation of DESede encryption
+     * Implementation of DESede encryption, the result is encoded with Base64
+     */
+    public static String encrypt(Method method, byte[] key, Key keySize, byte[] vector, byte[] message) throws Exception {
+        return Base64.encodeToString(encryptBytes(method, key, keySize, vector, message), Base64.DEFAULT);
+    }
+
+    /**
+     * Implementation of DESede encryption, the message and the result are not encoded
+     */
+    public static byte[] encryptBytes(Method method, byte[] key, Key keySize, byte[] vector, byte[] message) throws Exception {
+
+//        generate Key
+        byte[] keyBytes = generateKey(key, keySize.size);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, DESEDE);
+
+//        generate Initialization Vector
+        byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
+        IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
+
+        return CipherPool.doFinal(method.getMethod(), Cipher.ENCRYPT_MODE, keySpec, ivSpec, message);
+    }
+
+    /**
+     * Implementation of DESede decryption of the message, encoded with Base64
+     */
+    public static String decrypt(Method method, byte[] key, Key keySize, byte[] vector, byte[] message) throws Exception {
+        return new String(decryptBytes(method, key, keySize, vector, Base64.decode(message, Base64.DEFAULT)));
+    }
+
+    /**
+     * Implementation of DESede decryption, the message and the result are not encoded
      */
-    public static String encrypt(Method method, byte[] key, Key keySize, byte[] vector, byte[] message) throws Exception{
+    public static byte[] decryptBytes(Method method, byte[] key, Key keySize, byte[] vector, byte[] message) throws Exception {
 
 //        generate Key
         byte[] keyBytes = generateKey(key, keySize.size);
-        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, method.getMethod());
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, DESEDE);
 
 //        generate Initialization Vector
         byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
         IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
 
-        Cipher cipher = Cipher.getInstance(method.getMethod());
-        cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
-        byte[] cipherText = cipher.doFinal(message);
+        return CipherPool.doFinal(method.getMethod(), Cipher.DECRYPT_MODE, keySpec, ivSpec, message);
+    }
 
-        return Base64.encodeToString(cipherText, Base64.DEFAULT);
+    /**
+     * Implementation of DESede encryption of the stream. The stream is encrypted
+     * by chunks, so it can be of any size, the streams are not closed
+     */
+    public static void encrypt(Method method, byte[] key, Key keySize, byte[] vector,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.ENCRYPT_MODE, method, key, keySize, vector), input, output);
     }
 
     /**
-     * Implementation of DESede decryption
+     * Implementation of DESede decryption of the stream. The stream is decrypted
+     * by chunks, so it can be of any size, the streams are not closed
      */
-    public static String decrypt(Method method, byte[] key, Key keySize, byte[] vector, byte[] message) throws Exception{
+    public static void decrypt(Method method, byte[] key, Key keySize, byte[] vector,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.DECRYPT_MODE, method, key, keySize, vector), input, output);
+    }
+
+    /**
+     * Implementation of DESede encryption of many messages with one initialized cipher,
+     * the results are stored one after another in one array
+     */
+    public static BatchResult encryptBatch(Method method, byte[] key, Key keySize, byte[] vector,
+                                           List<byte[]> messages, boolean parallel) throws Exception {
+        return createSpec(method, key, keySize, vector).encryptBatch(messages, parallel);
+    }
+
+    /**
+     * Implementation of DESede decryption of many messages with one initialized cipher
+     */
+    public static BatchResult decryptBatch(Method method, byte[] key, Key keySize, byte[] vector,
+                                           List<byte[]> messages, boolean parallel) throws Exception {
+        return createSpec(method, key, keySize, vector).decryptBatch(messages, parallel);
+    }
+
+    /**
+     * Prepare the key and the initialization vector once, the result can be used
+     * by any count of threads (see {@link CipherSpec})
+     */
+    public static CipherSpec createSpec(Method method, byte[] key, Key keySize, byte[] vector) throws Exception {
 
 //        generate Key
         byte[] keyBytes = generateKey(key, keySize.size);
-        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, method.getMethod());
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, DESEDE);
 
 //        generate Initialization Vector
         byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
         IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
 
-        Cipher cipher = Cipher.getInstance(method.getMethod());
-        cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
-        byte[] cipherText = cipher.doFinal(Base64.decode(message, Base64.DEFAULT));
+        return new CipherSpec(method.getMethod(), keySpec, ivSpec);
+    }
 
-        return new String(cipherText);
+    /**
+     * Create initialized cipher, which is used by one caller only
+     */
+    static Cipher getCipher(int mode, Method method, byte[] key, Key keySize, byte[] vector) throws Exception {
+        return createSpec(method, key, keySize, vector).getCipher(mode);
     }
 }
@@ -16,14 +16,47 @@
 
 package ru.bullyboo.encoder.methods;
 
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
+import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.threads.EncoderExecutor;
+import ru.bullyboo.encoder.threads.RangeTask;
+import ru.bullyboo.encoder.utils.HexUtils;
+
 /**
  * HMAC Encrypt/Decrypt class
  */
 public class HMAC {
 
+    /**
+     * Maximum count of Mac objects of one thread
+     */
+    static final int POOL_SIZE = 16;
+
+    /**
+     * Initialized Mac objects of the calling thread by the method and the key.
+     * Mac.getInstance() looks up the provider and init() hashes the key, doFinal()
+     * returns the Mac into its initialized state, so it is used for the next message
+     */
+    private static final ThreadLocal<Map<MacKey, Mac>> POOL = new ThreadLocal<Map<MacKey, Mac>>() {
+        @Override
+        protected Map<MacKey, Mac> initialValue() {
+            return new LinkedHashMap<MacKey, Mac>(POOL_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<MacKey, Mac> eldest) {
+                    return size() > POOL_SIZE;
+                }
+            };
+        }
+    };
+
     /**
      * All supported methods
      */
@@ -50,26 +83,280 @@ public class HMAC {
     }
 
     /**
-     * Implementation of HMAC encryption
+     * Implementation of HMAC encryption, the result is encoded as hex string
      */
     public static String encrypt(HMAC.Method method, byte[] key, byte[] message) throws Exception{
+        return HexUtils.toHex(encryptBytes(method, key, message));
+    }
+
+    /**
+     * Implementation of HMAC encryption, the result is not encoded
+     */
+    public static byte[] encryptBytes(HMAC.Method method, byte[] key, byte[] message) throws Exception{
+        return encryptBytes(method, key, message, 0, message.length);
+    }
 
-        SecretKeySpec keySpec = new SecretKeySpec(key, method.getMethod());
+    /**
+     * HMAC of length bytes of the message from the offset, the result is not encoded
+     */
+    public static byte[] encryptBytes(HMAC.Method method, byte[] key, byte[] message,
+                                      int offset, int length) throws Exception{
 
-        Mac cipher = Mac.getInstance(method.getMethod());
-        cipher.init(keySpec);
-        byte[] cipherText = cipher.doFinal(message);
+        MacKey macKey = new MacKey(method, key);
+        Mac mac = take(macKey);
+
+        try {
+            mac.update(message, offset, length);
+
+            return mac.doFinal();
+        } catch (RuntimeException e) {
+            drop(macKey);
+            throw e;
+        }
+    }
+
+    /**
+     * Check the HMAC of the message, the bytes of the tag are compared in constant time
+     */
+    public static boolean verify(HMAC.Method method, byte[] key, byte[] message, byte[] tag) throws Exception{
+        MacKey macKey = new MacKey(method, key);
+        Mac mac = take(macKey);
+
+        try {
+            return verify(mac, message, tag, new byte[mac.getMacLength()]);
+        } catch (RuntimeException | GeneralSecurityException e) {
+            drop(macKey);
+            throw e;
+        }
+    }
+
+    /**
+     * Check the HMACs of many messages with one key, tags.get(i) is the tag of messages.get(i).
+     * With parallel the messages are split into groups of about 1 MB, which are checked
+     * on the shared ForkJoinPool, every group by its own Mac
+     */
+    public static boolean[] verifyBatch(HMAC.Method method, byte[] key, List<byte[]> messages,
+                                        List<byte[]> tags, boolean parallel) throws Exception{
+
+        if(messages.size() != tags.size()){
+            throw new IllegalArgumentException(Constants.HMAC_TAGS_EXCEPTION);
+        }
 
-        StringBuffer hash = new StringBuffer();
-        for (int i = 0; i < cipherText.length; i++) {
-            String hex = Integer.toHexString(0xFF & cipherText[i]);
-            if (hex.length() == 1) {
-                hash.append('0');
+        VerifyBatch batch = new VerifyBatch(method, key,
+                messages.toArray(new byte[messages.size()][]), tags.toArray(new byte[tags.size()][]));
+
+        if(!parallel || batch.getLength(0, batch.messages.length) <= BaseMethod.PARALLEL_CHUNK_SIZE){
+            batch.verify(0, batch.messages.length);
+        } else {
+            new VerifyTask(batch, 0, batch.messages.length).invokeOn(EncoderExecutor.getForkJoinPool());
+        }
+
+        return batch.result;
+    }
+
+    /**
+     * Compute the HMAC of the message into the buffer and compare it with the tag
+     */
+    private static boolean verify(Mac mac, byte[] message, byte[] tag, byte[] buffer) throws GeneralSecurityException {
+        mac.update(message);
+        mac.doFinal(buffer, 0);
+
+        return isEqual(buffer, tag);
+    }
+
+    /**
+     * Comparison, whose time doesn't depend on the position of the first different byte,
+     * so the tag can't be guessed byte by byte. The length of the tag is not secret
+     */
+    private static boolean isEqual(byte[] expected, byte[] tag){
+        if(tag == null || expected.length != tag.length){
+            return false;
+        }
+
+        int result = 0;
+
+        for(int i = 0; i < expected.length; i++){
+            result |= expected[i] ^ tag[i];
+        }
+
+        return result == 0;
+    }
+
+    /**
+     * Take the Mac of the calling thread from the pool or create it. It stays in the pool while it is used,
+     * doFinal() returns it into its initialized state, after a failure it is dropped by drop()
+     */
+    private static Mac take(MacKey macKey) throws GeneralSecurityException {
+        Map<MacKey, Mac> pool = POOL.get();
+
+        Mac mac = pool.get(macKey);
+
+        if(mac == null){
+            mac = getMac(macKey.method, macKey.key);
+            pool.put(new MacKey(macKey.method, macKey.key.clone()), mac);
+        }
+        return mac;
+    }
+
+    private static void drop(MacKey macKey){
+        POOL.get().remove(macKey);
+    }
+
+    /**
+     * Take the initialized Mac of the method and the key out of the pool of the calling thread
+     * or create it, for the incremental HMAC. The Mac is owned by the caller till release(),
+     * so other HMACs of the thread with the same key don't mix into its message
+     */
+    public static Mac take(HMAC.Method method, byte[] key) throws GeneralSecurityException {
+        Mac mac = POOL.get().remove(new MacKey(method, key));
+
+        return mac != null ? mac : getMac(method, key);
+    }
+
+    /**
+     * Return the Mac of take() into the pool of the calling thread, the method and the key
+     * must be the same as in take(). The Mac is not used by the caller after this call
+     */
+    public static void release(HMAC.Method method, byte[] key, Mac mac){
+        mac.reset();
+
+        POOL.get().put(new MacKey(method, key.clone()), mac);
+    }
+
+    /**
+     * Create initialized Mac for the incremental HMAC: the message is passed by
+     * update() calls of any size, doFinal() returns the result and resets the Mac.
+     * The Mac is not thread-safe
+     */
+    public static Mac getMac(HMAC.Method method, byte[] key) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(method.getMethod());
+        mac.init(new SecretKeySpec(key, method.getMethod()));
+
+        return mac;
+    }
+
+    private static class MacKey {
+
+        private final Method method;
+
+        private final byte[] key;
+
+        MacKey(Method method, byte[] key) {
+            this.method = method;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o){
+                return true;
+            }
+            if(!(o instanceof MacKey)){
+                return false;
+            }
+
+            MacKey other = (MacKey) o;
+
+            return method == other.method && Arrays.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * method.hashCode() + Arrays.hashCode(key);
+        }
+    }
+
+    /**
+     * Messages and tags of verifyBatch() and the results of the check
+     */
+    private static class VerifyBatch {
+
+        private final Method method;
+
+        private final byte[] key;
+
+        private final byte[][] messages;
+
+        private final byte[][] tags;
+
+        private final boolean[] result;
+
+        /**
+         * offsets[i] is the total length of the messages before messages[i],
+         * so the length of any group is known without a loop
+         */
+        private final long[] offsets;
+
+        VerifyBatch(Method method, byte[] key, byte[][] messages, byte[][] tags) {
+            this.method = method;
+            this.key = key;
+            this.messages = messages;
+            this.tags = tags;
+            this.result = new boolean[messages.length];
+            this.offsets = new long[messages.length + 1];
+
+            for(int i = 0; i < messages.length; i++){
+                offsets[i + 1] = offsets[i] + messages[i].length;
             }
-            hash.append(hex);
         }
 
-        return hash.toString();
+        /**
+         * Check the messages from, ..., to - 1 with one Mac of the calling thread
+         */
+        void verify(int from, int to) throws GeneralSecurityException {
+            MacKey macKey = new MacKey(method, key);
+            Mac mac = take(macKey);
+
+            byte[] buffer = new byte[mac.getMacLength()];
+
+            try {
+                for(int i = from; i < to; i++){
+                    result[i] = HMAC.verify(mac, messages[i], tags[i], buffer);
+                }
+            } catch (RuntimeException | GeneralSecurityException e) {
+                drop(macKey);
+                throw e;
+            }
+        }
+
+        long getLength(int from, int to){
+            return offsets[to] - offsets[from];
+        }
     }
 
+    /**
+     * Task, which checks the messages from, ..., to - 1
+     */
+    private static class VerifyTask extends RangeTask<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final VerifyBatch batch;
+
+        VerifyTask(VerifyBatch batch, long from, long to) {
+            super(from, to);
+            this.batch = batch;
+        }
+
+        @Override
+        protected boolean isLeaf() {
+            return to - from == 1 || batch.getLength((int) from, (int) to) <= BaseMethod.PARALLEL_CHUNK_SIZE;
+        }
+
+        @Override
+        protected Void computeLeaf() throws Exception {
+            batch.verify((int) from, (int) to);
+            return null;
+        }
+
+        @Override
+        protected RangeTask<Void> create(long from, long to) {
+            return new VerifyTask(batch, from, to);
+        }
+
+        @Override
+        protected Void merge(Void left, Void right) {
+            return null;
+        }
+    }
 }
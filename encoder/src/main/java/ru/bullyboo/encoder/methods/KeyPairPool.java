@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ru.bullyboo.encoder.constants.Constants;
+
+/**
+ * Pool of pre-generated RSA key pairs, one queue per key size.
+ *
+ * Generation of a key pair takes up to seconds for large keys. When the depth is set,
+ * RSA.generateKey() takes a ready key pair from the queue of its size and the queue is
+ * refilled up to the depth by the background daemon threads of the pool, at most 4 of them.
+ * Every key size has at most one worker at a time, so a drained queue of large keys takes one thread
+ * and doesn't hold up the refill of the other sizes. It is not the default
+ * executor of the library: a long generation must not hold up the asynchronous encryption,
+ * and the refill must never run on the thread, which calls RSA.generateKey().
+ * If the queue is empty, the key pair is generated by the calling thread as before.
+ * Every key pair is given out only once. After a failed generation the key size is not refilled,
+ * the calling threads generate its key pairs and get the failure, until one of them succeeds.
+ *
+ * The pool is disabled by default (depth 0), because it spends the processor time
+ * on the keys, which may be never used.
+ */
+public final class KeyPairPool {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * Maximum count of the threads of the refill
+     */
+    private static final int MAX_THREADS = 4;
+
+    private static volatile int depth;
+
+    private static final ConcurrentMap<Integer, Pool> POOLS = new ConcurrentHashMap<>();
+
+    private KeyPairPool() {
+
+    }
+
+    /**
+     * Set count of ready key pairs of every key size, 0 disables the pool
+     * and drops the ready key pairs
+     */
+    public static void setDepth(int depth){
+        if(depth < 0){
+            throw new IllegalArgumentException(Constants.KEY_POOL_DEPTH_EXCEPTION);
+        }
+
+        KeyPairPool.depth = depth;
+
+        if(depth == 0){
+            for(Pool pool : POOLS.values()){
+                pool.clear();
+            }
+        }
+    }
+
+    public static int getDepth(){
+        return depth;
+    }
+
+    /**
+     * Start generation of the key pairs of the key size in the background,
+     * so the first calls of RSA.generateKey() don't wait for them
+     */
+    public static void prefill(RSA.KeySize keySize){
+        if(depth > 0){
+            getPool(keySize.getSize()).refill();
+        }
+    }
+
+    /**
+     * Count of ready key pairs of the key size
+     */
+    public static int size(RSA.KeySize keySize){
+        Pool pool = POOLS.get(keySize.getSize());
+        return pool != null ? pool.keys.size() : 0;
+    }
+
+    /**
+     * Count of ready key pairs of the key size and key pairs, which are being generated
+     */
+    static int reserved(RSA.KeySize keySize){
+        Pool pool = POOLS.get(keySize.getSize());
+        return pool != null ? pool.count.get() : 0;
+    }
+
+    /**
+     * Take a ready key pair of the size or generate it, if there is none
+     */
+    static KeyPair take(int size) throws NoSuchAlgorithmException {
+        if(depth == 0){
+            return generate(size);
+        }
+
+        Pool pool = getPool(size);
+
+        KeyPair key = pool.poll();
+
+        if(key == null && pool.failed){
+            // the refill of this key size stopped after a failure, the caller gets its own failure
+            // and the refill is started again after a success
+            key = generate(size);
+            pool.failed = false;
+        }
+
+        pool.refill();
+
+        return key != null ? key : generate(size);
+    }
+
+    static KeyPair generate(int size) throws NoSuchAlgorithmException {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+        kpg.initialize(size);
+
+        return kpg.generateKeyPair();
+    }
+
+    private static Pool getPool(int size){
+        Pool pool = POOLS.get(size);
+
+        if(pool == null){
+            Pool created = new Pool(size);
+
+            pool = POOLS.putIfAbsent(size, created);
+
+            if(pool == null){
+                pool = created;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Ready key pairs of one key size
+     */
+    private static class Pool {
+
+        private final int size;
+
+        private final ConcurrentLinkedQueue<KeyPair> keys = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Count of ready key pairs and key pairs, which are being generated
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        /**
+         * True while the worker of this key size is submitted or running
+         */
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        /**
+         * True after a failed generation of the refill, so it isn't retried by every take()
+         */
+        private volatile boolean failed;
+
+        private final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                work();
+            }
+        };
+
+        Pool(int size){
+            this.size = size;
+        }
+
+        KeyPair poll(){
+            KeyPair key = keys.poll();
+
+            if(key != null){
+                count.decrementAndGet();
+            }
+            return key;
+        }
+
+        void clear(){
+            while (poll() != null){
+                // drop the ready key pairs
+            }
+        }
+
+        /**
+         * Start generation of the missing key pairs, if the worker of this key size
+         * isn't running yet and the last generation didn't fail
+         */
+        void refill(){
+            if(!failed && count.get() < depth && running.compareAndSet(false, true)){
+                Refill.EXECUTOR.execute(worker);
+            }
+        }
+
+        /**
+         * Generate the key pairs one after another, until the queue is full
+         * or the generation fails
+         */
+        private void work(){
+            boolean generated = true;
+
+            try {
+                while (generated && reserve()){
+                    generated = generateOne();
+                }
+            } finally {
+                running.set(false);
+            }
+
+            // take() could see the worker running just before it stopped
+            if(generated){
+                refill();
+            }
+        }
+
+        /**
+         * Reserve the place of one key pair, false if the queue is full
+         */
+        private boolean reserve(){
+            while (true){
+                int current = count.get();
+
+                if(current >= depth){
+                    return false;
+                }
+
+                if(count.compareAndSet(current, current + 1)){
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Generate the key pair of the reserved place, false if the generation failed
+         */
+        private boolean generateOne(){
+            boolean offered = false;
+
+            try {
+                KeyPair key = generate(size);
+
+                // the pool could be disabled during the generation
+                if(depth > 0){
+                    offered = keys.offer(key);
+                }
+                return true;
+            } catch (NoSuchAlgorithmException | RuntimeException e) {
+                // the provider rejects the key size, the thread of the refill keeps working,
+                // the next take() generates the key pair itself and gets the failure
+                failed = true;
+                return false;
+            } finally {
+                // the place, which was reserved by reserve(), is freed after any failure
+                if(!offered){
+                    count.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Holder of the executor of the refill, it is created with the first refill.
+     * Every key size has at most one worker, so up to THREADS key sizes are refilled in parallel,
+     * the others wait for a free thread. The threads are stopped after KEEP_ALIVE_SECONDS without work
+     */
+    private static class Refill {
+
+        /**
+         * One thread per processor, at least two, so a long generation of one key size
+         * doesn't hold up the others, and at most MAX_THREADS
+         */
+        static final int THREADS = Math.min(MAX_THREADS,
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+        static final Executor EXECUTOR = create();
+
+        private static Executor create(){
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+
+                        private final AtomicInteger count = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "encoder-keys-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+
+            executor.allowCoreThreadTimeOut(true);
+
+            return executor;
+        }
+    }
+}
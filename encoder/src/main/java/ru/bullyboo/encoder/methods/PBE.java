@@ -16,11 +16,17 @@
 
 package ru.bullyboo.encoder.methods;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import ru.bullyboo.encoder.Base64;
+import ru.bullyboo.encoder.constants.Constants;
 
 /**
  * PBE Encrypt/Decrypt class
@@ -29,6 +35,13 @@ public class PBE extends BaseMethod{
 
     private static final int VECTOR_LEGHT = 8;
 
+    /**
+     * Default maximum count of cached settings
+     */
+    public static final int DEFAULT_CACHE_SIZE = 16;
+
+    private static final PBESpecCache CACHE = new PBESpecCache(DEFAULT_CACHE_SIZE);
+
     /**
      * All supported methods
      */
@@ -106,35 +119,135 @@ public class PBE extends BaseMethod{
     }
 
     /**
-     * Implementation of PBE encryption
+     * Implementation of PBE encryption, the result is encoded with Base64
+     */
+    public static String encrypt(Method method, byte[] key, KeySize keySize, byte[] vector, byte[] message) throws Exception {
+        return Base64.encodeToString(encryptBytes(method, key, keySize, vector, message), Base64.DEFAULT);
+    }
+
+    /**
+     * Implementation of PBE encryption, the message and the result are not encoded
      */
-    public static String encrypt(Method method, byte[] key, KeySize keySize, byte[] vector, byte[] message) throws Exception{
+    public static byte[] encryptBytes(Method method, byte[] key, KeySize keySize, byte[] vector, byte[] message) throws Exception {
+        CipherSpec spec = CACHE.get(method, key, keySize, vector);
+
+        if(spec != null){
+            return spec.encryptBytes(message);
+        }
 
 //        generate Key
         byte[] keyBytes = generateKey(key, keySize.getSize());
-        SecretKeySpec keySpec = new SecretKeySpec(keyBytes , method.getMethod());
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, method.getMethod());
 
 //        generate Initialization Vector
         byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
         IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
 
-        Cipher cipher = Cipher.getInstance(method.getMethod());
+        return CipherPool.doFinal(method.getMethod(), Cipher.ENCRYPT_MODE, keySpec,
+                hasInitVector(method.getMethod()) ? ivSpec : null, message);
+    }
 
-        if(hasInitVector(method.getMethod())){
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
-        } else {
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec);
+    /**
+     * Implementation of PBE decryption of the message, encoded with Base64
+     */
+    public static String decrypt(Method method, byte[] key, KeySize keySize, byte[] vector, byte[] message) throws Exception {
+        return new String(decryptBytes(method, key, keySize, vector, Base64.decode(message, Base64.DEFAULT)));
+    }
+
+    /**
+     * Implementation of PBE decryption, the message and the result are not encoded
+     */
+    public static byte[] decryptBytes(Method method, byte[] key, KeySize keySize, byte[] vector, byte[] message) throws Exception {
+        CipherSpec spec = CACHE.get(method, key, keySize, vector);
+
+        if(spec != null){
+            return spec.decryptBytes(message);
         }
 
-        byte[] cipherText = cipher.doFinal(message);
+//        generate Key
+        byte[] keyBytes = generateKey(key, keySize.getSize());
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, method.getMethod());
+
+//        generate Initialization Vector
+        byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
+        IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
 
-        return Base64.encodeToString(cipherText, Base64.DEFAULT);
+        return CipherPool.doFinal(method.getMethod(), Cipher.DECRYPT_MODE, keySpec,
+                hasInitVector(method.getMethod()) ? ivSpec : null, message);
     }
 
     /**
-     * Implementation of PBE decryption
+     * Implementation of PBE encryption of the stream. The stream is encrypted
+     * by chunks, so it can be of any size, the streams are not closed
      */
-    public static String decrypt(Method method, byte[] key, KeySize keySize, byte[] vector, byte[] message) throws Exception {
+    public static void encrypt(Method method, byte[] key, KeySize keySize, byte[] vector,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.ENCRYPT_MODE, method, key, keySize, vector), input, output);
+    }
+
+    /**
+     * Implementation of PBE decryption of the stream. The stream is decrypted
+     * by chunks, so it can be of any size, the streams are not closed
+     */
+    public static void decrypt(Method method, byte[] key, KeySize keySize, byte[] vector,
+                               InputStream input, OutputStream output) throws Exception {
+        doFinal(getCipher(Cipher.DECRYPT_MODE, method, key, keySize, vector), input, output);
+    }
+
+    /**
+     * Implementation of PBE encryption of many messages with one initialized cipher,
+     * the results are stored one after another in one array
+     */
+    public static BatchResult encryptBatch(Method method, byte[] key, KeySize keySize, byte[] vector,
+                                           List<byte[]> messages, boolean parallel) throws Exception {
+        return getSpec(method, key, keySize, vector).encryptBatch(messages, parallel);
+    }
+
+    /**
+     * Implementation of PBE decryption of many messages with one initialized cipher
+     */
+    public static BatchResult decryptBatch(Method method, byte[] key, KeySize keySize, byte[] vector,
+                                           List<byte[]> messages, boolean parallel) throws Exception {
+        return getSpec(method, key, keySize, vector).decryptBatch(messages, parallel);
+    }
+
+    /**
+     * Set maximum count of the cached settings (the method, the key, the key size and the vector),
+     * 0 disables the cache. The operations with the cached settings don't prepare the key
+     * and don't initialize the ciphers again. The cached settings keep the hash of the password
+     * and the key in memory, until they are dropped by the timeout, clearCache() or the size 0.
+     * The RC4 methods are not cached
+     */
+    public static void setCacheSize(int size){
+        if(size < 0){
+            throw new IllegalArgumentException(Constants.PBE_CACHE_SIZE_EXCEPTION);
+        }
+        CACHE.setMaxSize(size);
+    }
+
+    /**
+     * Set lifetime of the cached settings, so the keys are not kept in memory
+     * longer than it. 0 doesn't limit the lifetime (by default)
+     */
+    public static void setCacheTimeout(long timeout, TimeUnit unit){
+        if(timeout < 0){
+            throw new IllegalArgumentException(Constants.PBE_CACHE_TIMEOUT_EXCEPTION);
+        }
+        CACHE.setTimeout(unit.toNanos(timeout));
+    }
+
+    /**
+     * Drop all the cached settings
+     */
+    public static void clearCache(){
+        CACHE.clear();
+    }
+
+    /**
+     * Prepare the key and the initialization vector once, the result can be used
+     * by any count of threads (see {@link CipherSpec})
+     */
+    public static CipherSpec createSpec(Method method, byte[] key, KeySize keySize, byte[] vector) throws Exception {
 
 //        generate Key
         byte[] keyBytes = generateKey(key, keySize.getSize());
@@ -144,16 +257,22 @@ public class PBE extends BaseMethod{
         byte[] keyBytesIv = generateVector(vector, VECTOR_LEGHT);
         IvParameterSpec ivSpec = new IvParameterSpec(keyBytesIv);
 
-        Cipher cipher = Cipher.getInstance(method.getMethod());
+        return new CipherSpec(method.getMethod(), keySpec, hasInitVector(method.getMethod()) ? ivSpec : null);
+    }
 
-        if (hasInitVector(method.getMethod())) {
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
-        } else {
-            cipher.init(Cipher.DECRYPT_MODE, keySpec);
-        }
+    /**
+     * Create initialized cipher, which is used by one caller only
+     */
+    static Cipher getCipher(int mode, Method method, byte[] key, KeySize keySize, byte[] vector) throws Exception {
+        return getSpec(method, key, keySize, vector).getCipher(mode);
+    }
 
-        byte[] cipherText = cipher.doFinal(Base64.decode(message, Base64.DEFAULT));
+    /**
+     * Spec from the cache or the new one, if the cache is disabled
+     */
+    private static CipherSpec getSpec(Method method, byte[] key, KeySize keySize, byte[] vector) throws Exception {
+        CipherSpec spec = CACHE.get(method, key, keySize, vector);
 
-        return new String(cipherText);
+        return spec != null ? spec : createSpec(method, key, keySize, vector);
     }
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache of prepared PBE settings by the method, the password,
+ * the key size and the initialization vector.
+ *
+ * Every entry is a {@link CipherSpec}, whose threads keep their initialized ciphers,
+ * so repeated operations with the same credentials skip preparation of the key and
+ * initialization of the cipher. The lookup doesn't lock and doesn't copy the settings,
+ * only a miss does. The least recently used entry is dropped when the cache is full,
+ * with the timeout the entries are dropped after it since they were created.
+ *
+ * The key of the cache holds the SHA-256 hash of the password, not the password itself,
+ * but the spec holds the prepared key. Only the timeout, clear() and setMaxSize(0)
+ * drop it, after that it is left to the garbage collector.
+ *
+ * The stream modes (RC4) are never cached: their spec only decrypts,
+ * so they are encrypted and decrypted by new ciphers.
+ */
+final class PBESpecCache {
+
+    private volatile int maxSize;
+
+    /**
+     * Lifetime of the entries in nanoseconds, 0 if it is not limited
+     */
+    private volatile long timeout;
+
+    private final ConcurrentMap<CacheKey, CacheEntry> specs = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    PBESpecCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Spec of the settings, it is prepared by createSpec() if it is not in the cache.
+     * Returns null if the cache is disabled or the method is a stream mode
+     */
+    CipherSpec get(PBE.Method method, byte[] key, PBE.KeySize keySize, byte[] vector) throws Exception {
+        if(maxSize == 0 || BaseMethod.isStreamMode(method.getMethod())){
+            return null;
+        }
+
+        long now = System.nanoTime();
+
+        // the vector of the caller is copied only when the entry is added
+        byte[] keyHash = SHA256.get().digest(key);
+
+        CacheKey cacheKey = new CacheKey(method, keyHash, keySize.getSize(), vector);
+
+        CacheEntry entry = specs.get(cacheKey);
+
+        if(entry != null){
+            if(!isExpired(entry, now)){
+                entry.used = now;
+                return entry.spec;
+            }
+            specs.remove(cacheKey, entry);
+        }
+
+        CipherSpec spec = PBE.createSpec(method, key, keySize, vector);
+
+        specs.put(new CacheKey(method, keyHash, keySize.getSize(), vector.clone()),
+                new CacheEntry(spec, now));
+
+        trim(maxSize);
+
+        return spec;
+    }
+
+    int getMaxSize(){
+        return maxSize;
+    }
+
+    /**
+     * Set maximum count of the entries, 0 disables the cache
+     */
+    void setMaxSize(int maxSize){
+        this.maxSize = maxSize;
+
+        trim(maxSize);
+    }
+
+    /**
+     * Set lifetime of the entries in nanoseconds, 0 doesn't limit it
+     */
+    void setTimeout(long timeout){
+        this.timeout = timeout;
+
+        long now = System.nanoTime();
+
+        Iterator<CacheEntry> iterator = specs.values().iterator();
+
+        while (iterator.hasNext()){
+            if(isExpired(iterator.next(), now)){
+                iterator.remove();
+            }
+        }
+    }
+
+    void clear(){
+        specs.clear();
+    }
+
+    /**
+     * Drop the least recently used entries, until there are at most maxSize of them.
+     * The cache is small, so the oldest entry is found by a scan
+     */
+    private synchronized void trim(int maxSize){
+        while (specs.size() > maxSize){
+            Map.Entry<CacheKey, CacheEntry> eldest = null;
+
+            for(Map.Entry<CacheKey, CacheEntry> entry : specs.entrySet()){
+                if(eldest == null || entry.getValue().used - eldest.getValue().used < 0){
+                    eldest = entry;
+                }
+            }
+
+            if(eldest == null){
+                return;
+            }
+
+            specs.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private boolean isExpired(CacheEntry entry, long now){
+        long timeout = this.timeout;
+
+        return timeout > 0 && now - entry.created >= timeout;
+    }
+
+    private static class CacheKey {
+
+        private final PBE.Method method;
+
+        /**
+         * SHA-256 hash of the password
+         */
+        private final byte[] keyHash;
+
+        private final int keySize;
+
+        private final byte[] vector;
+
+        private final int hash;
+
+        CacheKey(PBE.Method method, byte[] keyHash, int keySize, byte[] vector) {
+            this.method = method;
+            this.keyHash = keyHash;
+            this.keySize = keySize;
+            this.vector = vector;
+
+            int result = method.hashCode();
+            result = 31 * result + Arrays.hashCode(keyHash);
+            result = 31 * result + keySize;
+            this.hash = 31 * result + Arrays.hashCode(vector);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o){
+                return true;
+            }
+            if(!(o instanceof CacheKey)){
+                return false;
+            }
+
+            CacheKey other = (CacheKey) o;
+
+            return method == other.method
+                    && keySize == other.keySize
+                    && Arrays.equals(keyHash, other.keyHash)
+                    && Arrays.equals(vector, other.vector);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class CacheEntry {
+
+        private final CipherSpec spec;
+
+        /**
+         * Time of creation by System.nanoTime()
+         */
+        private final long created;
+
+        /**
+         * Time of the last use by System.nanoTime()
+         */
+        private volatile long used;
+
+        CacheEntry(CipherSpec spec, long created) {
+            this.spec = spec;
+            this.created = created;
+            this.used = created;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import ru.bullyboo.encoder.threads.EncoderExecutor;
+import ru.bullyboo.encoder.threads.RangeTask;
+
+/**
+ * Encryption or decryption of a message, which is split into chunks
+ * of {@link BaseMethod#PARALLEL_CHUNK_SIZE} bytes, the chunks are processed in parallel on the
+ * shared ForkJoinPool (see {@link EncoderExecutor#getForkJoinPool()}).
+ *
+ * The chunks start at multiples of the chunk size, which is a multiple of
+ * the block size of every cipher, so every chunk starts at a block.
+ * The result of every chunk, except the last one, must have the same
+ * length as the chunk, the last one may be shorter (removed padding).
+ */
+abstract class ParallelCipher {
+
+    /**
+     * Count of bytes before every chunk, which are available to process()
+     */
+    private final int overlap;
+
+    ParallelCipher(){
+        this(0);
+    }
+
+    ParallelCipher(int overlap){
+        this.overlap = overlap;
+    }
+
+    /**
+     * Process one chunk of the message
+     *
+     * @param index index of the chunk
+     * @param last true for the last chunk of the message
+     * @param input bytes of the chunk from its position to its limit, if the index
+     *              is not 0, overlap bytes before the position are available too
+     * @param output buffer for the result, its position is the start of the result of the chunk
+     * @return length of the result
+     */
+    abstract int process(long index, boolean last, ByteBuffer input, ByteBuffer output) throws Exception;
+
+    /**
+     * Process the message, the result is written into the output array,
+     * which has the same length as the message.
+     * Returns length of the result
+     */
+    int invoke(final byte[] message, final byte[] output) throws Exception {
+        return (int) invoke(message.length, new Chunks() {
+            @Override
+            int process(long index, boolean last, long offset, int length) throws Exception {
+                return ParallelCipher.this.process(index, last,
+                        ByteBuffer.wrap(message, (int) offset, length),
+                        ByteBuffer.wrap(output, (int) offset, output.length - (int) offset));
+            }
+        });
+    }
+
+    /**
+     * Process the input file into the output file, the output file
+     * has the length of the result. Every chunk of the files is mapped
+     * into memory separately
+     */
+    void invoke(File input, File output) throws Exception {
+        try (FileInputStream inputStream = new FileInputStream(input);
+             RandomAccessFile outputFile = new RandomAccessFile(output, "rw")) {
+
+            final FileChannel inputChannel = inputStream.getChannel();
+            final FileChannel outputChannel = outputFile.getChannel();
+
+            final long size = inputChannel.size();
+
+            outputFile.setLength(size);
+
+            long length = invoke(size, new Chunks() {
+                @Override
+                int process(long index, boolean last, long offset, int length) throws Exception {
+                    int before = index == 0 ? 0 : overlap;
+
+                    ByteBuffer chunk = inputChannel.map(FileChannel.MapMode.READ_ONLY,
+                            offset - before, length + before);
+                    chunk.position(before);
+
+                    return ParallelCipher.this.process(index, last, chunk,
+                            outputChannel.map(FileChannel.MapMode.READ_WRITE, offset, length));
+                }
+            });
+
+            outputFile.setLength(length);
+        }
+    }
+
+    private long invoke(long size, Chunks chunks) throws Exception {
+        long count = Math.max(1, (size + BaseMethod.PARALLEL_CHUNK_SIZE - 1) / BaseMethod.PARALLEL_CHUNK_SIZE);
+
+        return new ChunkTask(chunks, size, 0, count).invokeOn(EncoderExecutor.getForkJoinPool());
+    }
+
+    /**
+     * Source of the chunks of the message
+     */
+    private static abstract class Chunks {
+        abstract int process(long index, boolean last, long offset, int length) throws Exception;
+    }
+
+    /**
+     * Task, which processes the chunks from, ..., to - 1 and returns length of their result
+     */
+    private static class ChunkTask extends RangeTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Chunks chunks;
+
+        private final long size;
+
+        ChunkTask(Chunks chunks, long size, long from, long to){
+            super(from, to);
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        protected boolean isLeaf() {
+            return to - from == 1;
+        }
+
+        @Override
+        protected Long computeLeaf() throws Exception {
+            long offset = from * BaseMethod.PARALLEL_CHUNK_SIZE;
+            int length = (int) Math.min(BaseMethod.PARALLEL_CHUNK_SIZE, size - offset);
+
+            return (long) chunks.process(from, offset + length == size, offset, length);
+        }
+
+        @Override
+        protected RangeTask<Long> create(long from, long to) {
+            return new ChunkTask(chunks, size, from, to);
+        }
+
+        @Override
+        protected Long merge(Long left, Long right) {
+            return left + right;
+        }
+    }
+}
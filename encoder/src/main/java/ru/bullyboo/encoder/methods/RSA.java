@@ -16,13 +16,20 @@
 
 package ru.bullyboo.encoder.methods;
 
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.MGF1ParameterSpec;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import javax.crypto.spec.SecretKeySpec;
 
 import ru.bullyboo.encoder.Base64;
 import ru.bullyboo.encoder.constants.Constants;
@@ -35,6 +42,25 @@ public class RSA{
     private static final int RSA_MINIMUM_BITS = 512;
     private static final int RSA_MAXIMUM_BITS = 65536;
 
+    /**
+     * Settings of the envelope format
+     */
+    private static final byte ENVELOPE_VERSION = 1;
+    private static final String ENVELOPE_WRAP_METHOD = "RSA/ECB/OAEPPadding";
+    private static final String ENVELOPE_DATA_METHOD = "AES/GCM/NoPadding";
+    private static final int ENVELOPE_KEY_LENGTH = 32;
+    private static final int ENVELOPE_NONCE_LENGTH = 12;
+    private static final int ENVELOPE_TAG_LENGTH = 16;
+
+    /**
+     * OAEP with SHA-256 for the hash and for MGF1, it is set explicitly, because
+     * the providers use different MGF1 hashes for "OAEPWithSHA-256AndMGF1Padding"
+     */
+    private static final OAEPParameterSpec ENVELOPE_OAEP = new OAEPParameterSpec("SHA-256", "MGF1",
+            MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     /**
      * All RSA methods
      */
@@ -54,7 +80,7 @@ public class RSA{
         RSA_ECB_OAEP_with_SHA_224_and_MGF1_PADDING("RSA/ECB/OAEPWithSHA-224AndMGF1Padding"),
         RSA_ECB_OAEP_with_SHA_256_and_MGF1_PADDING("RSA/ECB/OAEPWithSHA-256AndMGF1Padding"),
         RSA_ECB_OAEP_with_SHA_384_and_MGF1_PADDING("RSA/ECB/OAEPWithSHA-384AndMGF1Padding"),
-        RSA_ECB_OAEP_with_SHA_512_and_MGF1_PADDING("RSA/ECB/OAEPWithSHA-512AndMGF1Padding ");
+        RSA_ECB_OAEP_with_SHA_512_and_MGF1_PADDING("RSA/ECB/OAEPWithSHA-512AndMGF1Padding");
 
         private final String method;
 
@@ -92,6 +118,10 @@ public class RSA{
                 throw new IllegalStateException(Constants.RSA_KEY_EXCEPTION);
             }
         }
+
+        int getSize() {
+            return size;
+        }
     }
 
     /**
@@ -123,18 +153,41 @@ public class RSA{
     }
 
     /**
-     * Implementation of RSA encryption
+     * Implementation of RSA encryption, the result is encoded with Base64
      */
     public static String encrypt(Method method, KeyPair key,
                                  byte[] message, KeyCallback keyCallBack) throws Exception {
 
-        sentKeys(keyCallBack, key);
+        return Base64.encodeToString(encryptBytes(method, key, message, keyCallBack), Base64.DEFAULT);
+    }
+
+    /**
+     * This method generates KeyPair and then sends it to encryptBytes method
+     */
+    public static byte[] encryptBytes(Method method, KeySize keySize, byte[] message,
+                                      KeyCallback keyCallBack) throws Exception {
+
+        return encryptBytes(method, generateKey(keySize), message, keyCallBack);
+    }
 
-        Cipher cipher = Cipher.getInstance(method.getMethod());
-        cipher.init(Cipher.ENCRYPT_MODE, key.getPublic());
-        byte[] cipherText = cipher.doFinal(message);
+    /**
+     * This method creates KeyPair object from public key and then, sends it to encryptBytes method
+     */
+    public static byte[] encryptBytes(Method method, PublicKey publicKey,
+                                      byte[] message, KeyCallback keyCallBack) throws Exception {
 
-        return Base64.encodeToString(cipherText, Base64.DEFAULT);
+        return encryptBytes(method, new KeyPair(publicKey, null), message, keyCallBack);
+    }
+
+    /**
+     * Implementation of RSA encryption, the message and the result are not encoded
+     */
+    public static byte[] encryptBytes(Method method, KeyPair key,
+                                      byte[] message, KeyCallback keyCallBack) throws Exception {
+
+        sentKeys(keyCallBack, key);
+
+        return CipherPool.doFinal(method.getMethod(), Cipher.ENCRYPT_MODE, key.getPublic(), null, message);
     }
 
     /**
@@ -145,25 +198,138 @@ public class RSA{
     }
 
     /**
-     * Implementation of RSA decryption
+     * Implementation of RSA decryption of the message, encoded with Base64
      */
     public static String decrypt(Method method, PrivateKey privateKey, byte[] message) throws Exception{
+        return new String(decryptBytes(method, privateKey, Base64.decode(message, Base64.DEFAULT)));
+    }
 
-        Cipher cipher = Cipher.getInstance(method.getMethod());
-        cipher.init(Cipher.DECRYPT_MODE, privateKey);
-        byte[] cipherText = cipher.doFinal(Base64.decode(message, Base64.DEFAULT));
+    /**
+     * This method gets the private key from KeyPair and sends it to decryptBytes method
+     */
+    public static byte[] decryptBytes(Method method, KeyPair key, byte[] message) throws Exception {
+        return decryptBytes(method, key.getPrivate(), message);
+    }
 
-        return new String(cipherText);
+    /**
+     * Implementation of RSA decryption, the message and the result are not encoded
+     */
+    public static byte[] decryptBytes(Method method, PrivateKey privateKey, byte[] message) throws Exception{
+        return CipherPool.doFinal(method.getMethod(), Cipher.DECRYPT_MODE, privateKey, null, message);
     }
 
     /**
-     * Generation KeyPair with a certain key size
+     * This method generates KeyPair and then sends it to encryptEnvelope method
      */
-    public static KeyPair generateKey(KeySize keySize) throws NoSuchAlgorithmException {
-        KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
-        kpg.initialize(keySize.size);
+    public static byte[] encryptEnvelope(KeySize keySize, byte[] message,
+                                         KeyCallback keyCallBack) throws Exception {
+
+        return encryptEnvelope(generateKey(keySize), message, keyCallBack);
+    }
+
+    /**
+     * This method creates KeyPair object from public key and then, sends it to encryptEnvelope method
+     */
+    public static byte[] encryptEnvelope(PublicKey publicKey, byte[] message,
+                                         KeyCallback keyCallBack) throws Exception {
+
+        return encryptEnvelope(new KeyPair(publicKey, null), message, keyCallBack);
+    }
 
-        return kpg.generateKeyPair();
+    /**
+     * Implementation of hybrid encryption of messages of any size. The message is encrypted
+     * with AES/GCM by a random 256-bit data key, and only the data key is encrypted with RSA-OAEP
+     * (SHA-256), so the cost of RSA doesn't depend on the length of the message.
+     *
+     * Format: version (1 byte) || length of the wrapped key (2 bytes) || wrapped key ||
+     * nonce (12 bytes) || cipher text || tag (16 bytes). All the bytes before the nonce
+     * are authenticated as additional data of GCM
+     */
+    public static byte[] encryptEnvelope(KeyPair key, byte[] message,
+                                         KeyCallback keyCallBack) throws Exception {
+
+        sentKeys(keyCallBack, key);
+
+        byte[] dataKey = new byte[ENVELOPE_KEY_LENGTH];
+        byte[] nonce = new byte[ENVELOPE_NONCE_LENGTH];
+
+        RANDOM.nextBytes(dataKey);
+        RANDOM.nextBytes(nonce);
+
+        Cipher wrapCipher = Cipher.getInstance(ENVELOPE_WRAP_METHOD);
+        wrapCipher.init(Cipher.ENCRYPT_MODE, key.getPublic(), ENVELOPE_OAEP);
+
+        byte[] wrappedKey = wrapCipher.doFinal(dataKey);
+
+        Cipher dataCipher = Cipher.getInstance(ENVELOPE_DATA_METHOD);
+        dataCipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(dataKey, "AES"),
+                new GCMParameterSpec(ENVELOPE_TAG_LENGTH * 8, nonce));
+
+        int headerLength = 1 + 2 + wrappedKey.length;
+
+        byte[] envelope = new byte[headerLength + ENVELOPE_NONCE_LENGTH
+                + dataCipher.getOutputSize(message.length)];
+
+        ByteBuffer.wrap(envelope)
+                .put(ENVELOPE_VERSION)
+                .putShort((short) wrappedKey.length)
+                .put(wrappedKey)
+                .put(nonce);
+
+        dataCipher.updateAAD(envelope, 0, headerLength);
+
+        // the output size of GCM encryption is exact: the message and the tag
+        dataCipher.doFinal(message, 0, message.length, envelope, headerLength + ENVELOPE_NONCE_LENGTH);
+
+        return envelope;
+    }
+
+    /**
+     * This method gets the private key from KeyPair and sends it to decryptEnvelope method
+     */
+    public static byte[] decryptEnvelope(KeyPair key, byte[] envelope) throws Exception {
+        return decryptEnvelope(key.getPrivate(), envelope);
+    }
+
+    /**
+     * Implementation of hybrid decryption of the envelope of encryptEnvelope()
+     */
+    public static byte[] decryptEnvelope(PrivateKey privateKey, byte[] envelope) throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(envelope);
+
+        if(envelope.length < 3 || buffer.get() != ENVELOPE_VERSION){
+            throw new GeneralSecurityException(Constants.RSA_ENVELOPE_EXCEPTION);
+        }
+
+        int wrappedLength = buffer.getShort() & 0xFFFF;
+        int headerLength = 1 + 2 + wrappedLength;
+
+        if(envelope.length < headerLength + ENVELOPE_NONCE_LENGTH + ENVELOPE_TAG_LENGTH){
+            throw new GeneralSecurityException(Constants.RSA_ENVELOPE_EXCEPTION);
+        }
+
+        Cipher wrapCipher = Cipher.getInstance(ENVELOPE_WRAP_METHOD);
+        wrapCipher.init(Cipher.DECRYPT_MODE, privateKey, ENVELOPE_OAEP);
+
+        byte[] dataKey = wrapCipher.doFinal(envelope, 3, wrappedLength);
+
+        Cipher dataCipher = Cipher.getInstance(ENVELOPE_DATA_METHOD);
+        dataCipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(dataKey, "AES"),
+                new GCMParameterSpec(ENVELOPE_TAG_LENGTH * 8, envelope, headerLength, ENVELOPE_NONCE_LENGTH));
+
+        dataCipher.updateAAD(envelope, 0, headerLength);
+
+        int offset = headerLength + ENVELOPE_NONCE_LENGTH;
+
+        return dataCipher.doFinal(envelope, offset, envelope.length - offset);
+    }
+
+    /**
+     * Generation KeyPair with a certain key size, the ready key pair is taken
+     * from KeyPairPool, if its depth is set
+     */
+    public static KeyPair generateKey(KeySize keySize) throws NoSuchAlgorithmException {
+        return KeyPairPool.take(keySize.size);
     }
 
     private static void sentKeys(KeyCallback keyCallBack, KeyPair key) {
@@ -0,0 +1,545 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import ru.bullyboo.encoder.constants.Constants;
+import ru.bullyboo.encoder.threads.EncoderExecutor;
+import ru.bullyboo.encoder.threads.RangeTask;
+
+/**
+ * Segmented AES/GCM format, which allows to encrypt, authenticate and decrypt
+ * messages of any size with bounded memory.
+ *
+ * The message is split into segments of segmentSize bytes, the last segment
+ * may be shorter, the empty message has one empty segment. Every segment is
+ * encrypted with GCM separately, so its plain text is released as soon as
+ * the tag of the segment is checked, and the segments can be processed in parallel.
+ *
+ * Format: header || segment 0 || ... || segment n-1, where the header is
+ * version (1 byte) || segment size (4 bytes) || salt (16 bytes) || nonce prefix (7 bytes)
+ * and every segment is its cipher text followed by its 16 bytes tag.
+ *
+ * The key of the segments is HmacSHA256(key, salt), so a new key is used
+ * for every message. The nonce of a segment is
+ * nonce prefix || index of the segment (4 bytes) || 1 for the last segment, 0 for others,
+ * so the segments can't be reordered, removed or appended. The header is
+ * authenticated as additional data of every segment.
+ */
+final class SegmentedCipher {
+
+    /**
+     * Default size of one segment, 64 KB
+     */
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * Maximum size of one segment, it limits memory of the decryption
+     * of the headers, which are not trusted
+     */
+    static final int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final byte VERSION = 1;
+
+    private static final int SALT_LENGTH = 16;
+    private static final int PREFIX_LENGTH = 7;
+
+    static final int HEADER_LENGTH = 1 + 4 + SALT_LENGTH + PREFIX_LENGTH;
+
+    static final int TAG_LENGTH = 16;
+
+    private static final long MAX_SEGMENT_COUNT = 1L << 32;
+
+    private static final String METHOD = "AES/GCM/NoPadding";
+    private static final String KEY_DERIVATION = "HmacSHA256";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final byte[] header;
+
+    private final int segmentSize;
+
+    private final byte[] prefix;
+
+    private final SecretKeySpec keySpec;
+
+    private SegmentedCipher(byte[] key, byte[] header) throws GeneralSecurityException {
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+
+        if(buffer.get() != VERSION){
+            throw new GeneralSecurityException(Constants.SEGMENTED_HEADER_EXCEPTION);
+        }
+
+        this.header = header;
+        this.segmentSize = buffer.getInt();
+
+        if(segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE){
+            throw new GeneralSecurityException(Constants.SEGMENTED_HEADER_EXCEPTION);
+        }
+
+        byte[] salt = new byte[SALT_LENGTH];
+        buffer.get(salt);
+
+        this.prefix = new byte[PREFIX_LENGTH];
+        buffer.get(prefix);
+
+        Mac mac = Mac.getInstance(KEY_DERIVATION);
+        mac.init(new SecretKeySpec(key, KEY_DERIVATION));
+
+        this.keySpec = new SecretKeySpec(Arrays.copyOf(mac.doFinal(salt), key.length), "AES");
+    }
+
+    /**
+     * Create cipher for encryption of a new message with random salt and nonce prefix
+     */
+    static SegmentedCipher create(byte[] key, int segmentSize) throws GeneralSecurityException {
+        if(segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE){
+            throw new IllegalArgumentException(Constants.SEGMENT_SIZE_EXCEPTION);
+        }
+
+        byte[] random = new byte[SALT_LENGTH + PREFIX_LENGTH];
+        RANDOM.nextBytes(random);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.put(VERSION);
+        header.putInt(segmentSize);
+        header.put(random);
+
+        return new SegmentedCipher(key, header.array());
+    }
+
+    /**
+     * Create cipher for decryption of the message with the header
+     */
+    static SegmentedCipher read(byte[] key, byte[] header) throws GeneralSecurityException {
+        if(header.length != HEADER_LENGTH){
+            throw new GeneralSecurityException(Constants.SEGMENTED_HEADER_EXCEPTION);
+        }
+        return new SegmentedCipher(key, header);
+    }
+
+    /**
+     * Create cipher for decryption of the file, the header is read from the start of the channel
+     */
+    static SegmentedCipher read(byte[] key, FileChannel channel) throws IOException, GeneralSecurityException {
+        if(channel.size() < HEADER_LENGTH){
+            throw new GeneralSecurityException(Constants.SEGMENTED_LENGTH_EXCEPTION);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+
+        while (header.hasRemaining()){
+            channel.read(header, header.position());
+        }
+
+        return read(key, header.array());
+    }
+
+    int getSegmentSize(){
+        return segmentSize;
+    }
+
+    /**
+     * Create cipher, which is passed to {@link #decrypt(Cipher, long, boolean, ByteBuffer, ByteBuffer)}
+     */
+    static Cipher getCipher() throws GeneralSecurityException {
+        return Cipher.getInstance(METHOD);
+    }
+
+    /**
+     * Decrypt one segment with its tag from the input buffer into the output buffer
+     */
+    void decrypt(Cipher cipher, long index, boolean last, ByteBuffer input, ByteBuffer output)
+            throws GeneralSecurityException {
+        init(cipher, Cipher.DECRYPT_MODE, index, last);
+        cipher.doFinal(input, output);
+    }
+
+    /**
+     * Length of the encrypted message with the header
+     */
+    long getEncryptedLength(long length){
+        return HEADER_LENGTH + length + getSegmentCount(length, segmentSize) * TAG_LENGTH;
+    }
+
+    /**
+     * Length of the decrypted message, the length of the encrypted message includes the header
+     */
+    long getDecryptedLength(long length) throws GeneralSecurityException {
+        long body = length - HEADER_LENGTH;
+        long count = getSegmentCount(body, segmentSize + TAG_LENGTH);
+
+        // the last segment must contain at least its tag
+        if(body - (count - 1) * (segmentSize + TAG_LENGTH) < TAG_LENGTH){
+            throw new GeneralSecurityException(Constants.SEGMENTED_LENGTH_EXCEPTION);
+        }
+
+        return body - count * TAG_LENGTH;
+    }
+
+    /**
+     * Encrypt the stream segment by segment, the streams are not closed
+     */
+    void encrypt(InputStream input, OutputStream output) throws IOException, GeneralSecurityException {
+        output.write(header);
+
+        process(Cipher.ENCRYPT_MODE, segmentSize, input, output);
+    }
+
+    /**
+     * Decrypt the stream segment by segment, the plain text of every segment
+     * is written, after its tag is checked. The streams are not closed
+     */
+    static void decrypt(byte[] key, InputStream input, OutputStream output) throws IOException, GeneralSecurityException {
+        byte[] header = new byte[HEADER_LENGTH];
+
+        if(readFully(input, header, 0, HEADER_LENGTH) != HEADER_LENGTH){
+            throw new GeneralSecurityException(Constants.SEGMENTED_LENGTH_EXCEPTION);
+        }
+
+        SegmentedCipher cipher = read(key, header);
+
+        cipher.process(Cipher.DECRYPT_MODE, cipher.segmentSize + TAG_LENGTH, input, output);
+    }
+
+    /**
+     * Encrypt the message, the segments are processed in parallel, if parallel is true
+     */
+    byte[] encrypt(byte[] message, boolean parallel) throws Exception {
+        long length = getEncryptedLength(message.length);
+
+        if(length > Integer.MAX_VALUE){
+            throw new IllegalArgumentException(Constants.SEGMENTED_LENGTH_EXCEPTION);
+        }
+
+        byte[] result = new byte[(int) length];
+        System.arraycopy(header, 0, result, 0, HEADER_LENGTH);
+
+        invoke(Cipher.ENCRYPT_MODE, new ArraySegments(message, result), message.length, parallel);
+
+        return result;
+    }
+
+    /**
+     * Decrypt the message, the segments are processed in parallel, if parallel is true
+     */
+    static byte[] decrypt(byte[] key, byte[] message, boolean parallel) throws Exception {
+        if(message.length < HEADER_LENGTH){
+            throw new GeneralSecurityException(Constants.SEGMENTED_LENGTH_EXCEPTION);
+        }
+
+        SegmentedCipher cipher = read(key, Arrays.copyOf(message, HEADER_LENGTH));
+
+        byte[] result = new byte[(int) cipher.getDecryptedLength(message.length)];
+
+        cipher.invoke(Cipher.DECRYPT_MODE, new ArraySegments(message, result), message.length, parallel);
+
+        return result;
+    }
+
+    /**
+     * Encrypt the input file into the output file, the segments are processed
+     * in parallel, every range of the segments of a task is mapped into memory
+     */
+    void encrypt(File input, File output) throws Exception {
+        try (FileInputStream inputStream = new FileInputStream(input);
+             RandomAccessFile outputFile = new RandomAccessFile(output, "rw")) {
+
+            FileChannel inputChannel = inputStream.getChannel();
+            FileChannel outputChannel = outputFile.getChannel();
+
+            long size = inputChannel.size();
+
+            outputFile.setLength(getEncryptedLength(size));
+            outputFile.write(header);
+
+            invoke(Cipher.ENCRYPT_MODE, new FileSegments(inputChannel, outputChannel), size, true);
+        }
+    }
+
+    /**
+     * Decrypt the input file into the output file, the segments are processed in parallel
+     */
+    static void decrypt(byte[] key, File input, File output) throws Exception {
+        try (FileInputStream inputStream = new FileInputStream(input);
+             RandomAccessFile outputFile = new RandomAccessFile(output, "rw")) {
+
+            FileChannel inputChannel = inputStream.getChannel();
+            FileChannel outputChannel = outputFile.getChannel();
+
+            long size = inputChannel.size();
+
+            SegmentedCipher cipher = read(key, inputChannel);
+
+            outputFile.setLength(cipher.getDecryptedLength(size));
+
+            cipher.invoke(Cipher.DECRYPT_MODE, new FileSegments(inputChannel, outputChannel), size, true);
+        }
+    }
+
+    /**
+     * Pass the stream through the cipher, reading one byte ahead to find the last segment
+     *
+     * @param size size of the segments of the input stream
+     */
+    private void process(int mode, int size, InputStream input, OutputStream output)
+            throws IOException, GeneralSecurityException {
+
+        Cipher cipher = getCipher();
+
+        byte[] segment = new byte[size + 1];
+        byte[] result = new byte[segmentSize + TAG_LENGTH];
+
+        int length = readFully(input, segment, 0, segment.length);
+        long index = 0;
+
+        while (length == segment.length){
+            output.write(result, 0, doFinal(cipher, mode, index++, false, segment, size, result));
+
+            segment[0] = segment[size];
+            length = 1 + readFully(input, segment, 1, size);
+        }
+
+        output.write(result, 0, doFinal(cipher, mode, index, true, segment, length, result));
+        output.flush();
+    }
+
+    private int doFinal(Cipher cipher, int mode, long index, boolean last,
+                        byte[] input, int length, byte[] output) throws GeneralSecurityException {
+        init(cipher, mode, index, last);
+        return cipher.doFinal(input, 0, length, output, 0);
+    }
+
+    private void init(Cipher cipher, int mode, long index, boolean last) throws GeneralSecurityException {
+        if(index >= MAX_SEGMENT_COUNT){
+            throw new GeneralSecurityException(Constants.SEGMENTED_LENGTH_EXCEPTION);
+        }
+
+        ByteBuffer nonce = ByteBuffer.allocate(PREFIX_LENGTH + 5);
+        nonce.put(prefix);
+        nonce.putInt((int) index);
+        nonce.put((byte) (last ? 1 : 0));
+
+        cipher.init(mode, keySpec, new GCMParameterSpec(TAG_LENGTH * 8, nonce.array()));
+        cipher.updateAAD(header);
+    }
+
+    /**
+     * Process all the segments of the message with the length (including the header for decryption)
+     */
+    private void invoke(int mode, Segments segments, long length, boolean parallel) throws Exception {
+        Layout layout = new Layout(mode, length, segments);
+
+        if(!parallel){
+            layout.process(0, layout.count);
+            return;
+        }
+
+        new SegmentTask(layout, 0, layout.count).invokeOn(EncoderExecutor.getForkJoinPool());
+    }
+
+    private static long getSegmentCount(long length, int size){
+        return Math.max(1, (length + size - 1) / size);
+    }
+
+    private static int readFully(InputStream input, byte[] buffer, int offset, int length) throws IOException {
+        int total = 0;
+
+        while (total < length){
+            int read = input.read(buffer, offset + total, length - total);
+
+            if(read == -1){
+                break;
+            }
+
+            total += read;
+        }
+
+        return total;
+    }
+
+    /**
+     * Source of the segments of the message and destination of the result
+     */
+    private static abstract class Segments {
+
+        abstract ByteBuffer input(long position, int length) throws IOException;
+
+        abstract ByteBuffer output(long position, int length) throws IOException;
+    }
+
+    private static class ArraySegments extends Segments {
+
+        private final byte[] input;
+
+        private final byte[] output;
+
+        ArraySegments(byte[] input, byte[] output){
+            this.input = input;
+            this.output = output;
+        }
+
+        @Override
+        ByteBuffer input(long position, int length) {
+            return ByteBuffer.wrap(input, (int) position, length);
+        }
+
+        @Override
+        ByteBuffer output(long position, int length) {
+            return ByteBuffer.wrap(output, (int) position, length);
+        }
+    }
+
+    private static class FileSegments extends Segments {
+
+        private final FileChannel input;
+
+        private final FileChannel output;
+
+        FileSegments(FileChannel input, FileChannel output){
+            this.input = input;
+            this.output = output;
+        }
+
+        @Override
+        ByteBuffer input(long position, int length) throws IOException {
+            return input.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        @Override
+        ByteBuffer output(long position, int length) throws IOException {
+            return output.map(FileChannel.MapMode.READ_WRITE, position, length);
+        }
+    }
+
+    /**
+     * Positions of the segments in the input and in the output
+     */
+    private class Layout {
+
+        private final int mode;
+
+        private final Segments segments;
+
+        private final long length;
+
+        private final long count;
+
+        private final long inputStart;
+        private final int inputSize;
+
+        private final long outputStart;
+        private final int outputSize;
+
+        /**
+         * Count of the segments, which are processed by one task
+         */
+        private final long batch;
+
+        Layout(int mode, long length, Segments segments){
+            boolean encrypt = mode == Cipher.ENCRYPT_MODE;
+
+            this.mode = mode;
+            this.segments = segments;
+            this.length = length;
+
+            this.inputStart = encrypt ? 0 : HEADER_LENGTH;
+            this.inputSize = encrypt ? segmentSize : segmentSize + TAG_LENGTH;
+
+            this.outputStart = encrypt ? HEADER_LENGTH : 0;
+            this.outputSize = encrypt ? segmentSize + TAG_LENGTH : segmentSize;
+
+            this.count = getSegmentCount(length - inputStart, inputSize);
+            this.batch = Math.max(1, BaseMethod.PARALLEL_CHUNK_SIZE / segmentSize);
+        }
+
+        /**
+         * Process the segments from, ..., to - 1 with one cipher
+         */
+        void process(long from, long to) throws Exception {
+            long start = inputStart + from * inputSize;
+            long end = Math.min(inputStart + to * inputSize, length);
+
+            int difference = outputSize - inputSize;
+
+            ByteBuffer input = segments.input(start, (int) (end - start));
+            ByteBuffer output = segments.output(outputStart + from * outputSize,
+                    (int) (end - start + (to - from) * difference));
+
+            Cipher cipher = getCipher();
+
+            for(long index = from; index < to; index++){
+                input.limit(input.position() + (int) Math.min(inputSize, end - start - (index - from) * inputSize));
+
+                init(cipher, mode, index, index == count - 1);
+                cipher.doFinal(input, output);
+            }
+        }
+    }
+
+    /**
+     * Task, which processes the segments from, ..., to - 1
+     */
+    private class SegmentTask extends RangeTask<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Layout layout;
+
+        SegmentTask(Layout layout, long from, long to){
+            super(from, to);
+            this.layout = layout;
+        }
+
+        @Override
+        protected boolean isLeaf() {
+            return to - from <= layout.batch;
+        }
+
+        @Override
+        protected Void computeLeaf() throws Exception {
+            layout.process(from, to);
+            return null;
+        }
+
+        @Override
+        protected RangeTask<Void> create(long from, long to) {
+            return new SegmentTask(layout, from, to);
+        }
+
+        @Override
+        protected Void merge(Void left, Void right) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+import ru.bullyboo.encoder.constants.Constants;
+
+/**
+ * Read-only channel of the plain text of the file in the segmented AES/GCM format
+ * (see {@link AES#encryptSegmented(byte[], AES.Key, int, byte[])}).
+ *
+ * All the segments, except the last one, have the same size, so the segment of any
+ * position of the plain text is found without reading the file from the start,
+ * and only the segments, which cover the read bytes, are read and decrypted.
+ * The tag of every segment is checked before its bytes are returned, the last
+ * decrypted segment is kept, so sequential reads decrypt every segment once.
+ *
+ * Reading of the channel fails with IOException, whose cause is the
+ * GeneralSecurityException, if a segment was modified.
+ *
+ * SeekableByteChannel is available on Android since API 24.
+ */
+public class SegmentedFileChannel implements SeekableByteChannel {
+
+    private final FileChannel channel;
+
+    private final SegmentedCipher cipher;
+
+    private final Cipher segmentCipher;
+
+    /**
+     * Size of the plain text
+     */
+    private final long size;
+
+    private final long count;
+
+    private final ByteBuffer encrypted;
+
+    private final ByteBuffer segment;
+
+    /**
+     * Index of the segment in the buffer, -1 if it is empty
+     */
+    private long segmentIndex = -1;
+
+    private long position;
+
+    SegmentedFileChannel(File file, byte[] key) throws IOException, GeneralSecurityException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+        try {
+            this.channel = randomAccessFile.getChannel();
+            this.cipher = SegmentedCipher.read(key, channel);
+            this.size = cipher.getDecryptedLength(channel.size());
+        } catch (IOException | GeneralSecurityException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+
+        int segmentSize = cipher.getSegmentSize();
+
+        this.count = Math.max(1, (size + segmentSize - 1) / segmentSize);
+        this.segmentCipher = SegmentedCipher.getCipher();
+
+        this.encrypted = ByteBuffer.allocate(segmentSize + SegmentedCipher.TAG_LENGTH);
+        this.segment = ByteBuffer.allocate(segmentSize);
+    }
+
+    /**
+     * Read the bytes of the plain text from the offset, only the segments,
+     * which cover the range, are decrypted. The position of the channel is not changed.
+     * The result is shorter than the length, if the range ends after the end of the plain text
+     */
+    public synchronized byte[] readRange(long offset, int length) throws IOException {
+        if(offset < 0 || length < 0){
+            throw new IllegalArgumentException(Constants.RANGE_EXCEPTION);
+        }
+
+        ByteBuffer result = ByteBuffer.allocate((int) Math.max(0, Math.min(length, size - offset)));
+
+        while (result.hasRemaining()){
+            offset += read(result, offset);
+        }
+
+        return result.array();
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        if(position >= size){
+            checkOpen();
+            return -1;
+        }
+
+        int read = 0;
+
+        while (dst.hasRemaining() && position < size){
+            int length = read(dst, position);
+
+            position += length;
+            read += length;
+        }
+
+        return read;
+    }
+
+    /**
+     * Copy the bytes of one segment from the position of the plain text into the buffer
+     */
+    private int read(ByteBuffer dst, long position) throws IOException {
+        checkOpen();
+
+        int segmentSize = cipher.getSegmentSize();
+
+        load(position / segmentSize);
+
+        ByteBuffer source = segment.duplicate();
+        source.position((int) (position % segmentSize));
+
+        if(source.remaining() > dst.remaining()){
+            source.limit(source.position() + dst.remaining());
+        }
+
+        int length = source.remaining();
+
+        dst.put(source);
+
+        return length;
+    }
+
+    /**
+     * Read and decrypt the segment into the buffer, if it is not there
+     */
+    private void load(long index) throws IOException {
+        if(index == segmentIndex){
+            return;
+        }
+
+        segmentIndex = -1;
+
+        long offset = SegmentedCipher.HEADER_LENGTH + index * encrypted.capacity();
+
+        encrypted.clear();
+        encrypted.limit((int) Math.min(encrypted.capacity(), channel.size() - offset));
+
+        while (encrypted.hasRemaining()){
+            if(channel.read(encrypted, offset + encrypted.position()) == -1){
+                throw new IOException(Constants.SEGMENTED_LENGTH_EXCEPTION);
+            }
+        }
+
+        encrypted.flip();
+        segment.clear();
+
+        try {
+            cipher.decrypt(segmentCipher, index, index == count - 1, encrypted, segment);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+
+        segment.flip();
+        segmentIndex = index;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        checkOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized SegmentedFileChannel position(long newPosition) throws IOException {
+        if(newPosition < 0){
+            throw new IllegalArgumentException(Constants.RANGE_EXCEPTION);
+        }
+
+        checkOpen();
+
+        this.position = newPosition;
+        return this;
+    }
+
+    /**
+     * Size of the plain text
+     */
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if(!channel.isOpen()){
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.threads;
+
+/**
+ * Task of asynchronous encoding, which is executed by an Executor
+ * (see {@link EncoderExecutor}), instead of a thread of its own
+ */
+public abstract class BaseTask<T> implements Runnable {
+
+    private final EncodeAction<T> encodeAction;
+
+    private final TaskCallback<T> taskCallback;
+
+    public interface EncodeAction<T>{
+        T action() throws Exception;
+    }
+
+    public interface TaskCallback<T>{
+        void onFinish(T parameter);
+
+        void onFailed(Throwable e);
+    }
+
+    public BaseTask(EncodeAction<T> encodeAction, TaskCallback<T> taskCallback) {
+        this.encodeAction = encodeAction;
+        this.taskCallback = taskCallback;
+    }
+
+    @Override
+    public void run(){
+        T result;
+
+        try {
+            result = encodeAction.action();
+        } catch (Throwable e) {
+            taskCallback.onFailed(e);
+            return;
+        }
+
+        taskCallback.onFinish(result);
+    }
+}
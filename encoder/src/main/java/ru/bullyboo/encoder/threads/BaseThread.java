@@ -1,6 +1,9 @@
 package ru.bullyboo.encoder.threads;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -8,15 +11,17 @@ import java.util.concurrent.TimeoutException;
 
 /**
  * Created by BullyBoo on 30.03.2017.
+ *
+ * @deprecated the library runs asynchronous operations as {@link BaseTask}
+ * on {@link EncoderExecutor}. This class still starts a thread of its own, whose run()
+ * executes the action through a FutureTask, so start(), join() and isAlive() behave
+ * as before and get() returns the result. Exactly one of the callbacks is called,
+ * an exception of the callback is not passed to onFailed()
  */
-
+@Deprecated
 public abstract class BaseThread<T> extends Thread implements RunnableFuture<T> {
 
-    private EncodeAction encodeAction;
-
-    private ThreadCallback threadCallback;
-
-    private volatile T result;
+    private final FutureTask<T> task;
 
     public interface EncodeAction<T>{
         T action();
@@ -28,58 +33,59 @@ public abstract class BaseThread<T> extends Thread implements RunnableFuture<T>
         void onFailed(Throwable e);
     }
 
-    public BaseThread(EncodeAction<T> encodeAction, ThreadCallback<T> threadCallback) {
-        super();
-        this.encodeAction = encodeAction;
-        this.threadCallback = threadCallback;
+    public BaseThread(final EncodeAction<T> encodeAction, final ThreadCallback<T> threadCallback) {
+        this.task = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return encodeAction.action();
+            }
+        }) {
+            @Override
+            protected void done() {
+                T result;
+
+                try {
+                    result = get();
+                } catch (ExecutionException e) {
+                    threadCallback.onFailed(e.getCause());
+                    return;
+                } catch (CancellationException | InterruptedException e) {
+                    threadCallback.onFailed(e);
+                    return;
+                }
+
+                threadCallback.onFinish(result);
+            }
+        };
     }
 
     @Override
     public void run(){
-        super.run();
-        result = (T) encodeAction.action();
-
-        interrupt();
-    }
-
-    @Override
-    public void interrupt() {
-        super.interrupt();
-        try {
-            threadCallback.onFinish(get());
-        } catch (Exception e) {
-            threadCallback.onFailed(e);
-        }
+        task.run();
     }
 
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
-        if(mayInterruptIfRunning){
-            interrupt();
-        }
-        return mayInterruptIfRunning;
+        return task.cancel(mayInterruptIfRunning);
     }
 
     @Override
     public boolean isCancelled() {
-        return interrupted();
+        return task.isCancelled();
     }
 
     @Override
     public boolean isDone() {
-        if(result != null){
-            return true;
-        }
-        return false;
+        return task.isDone();
     }
 
     @Override
     public T get() throws InterruptedException, ExecutionException {
-        return result;
+        return task.get();
     }
 
     @Override
     public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        return result;
+        return task.get(timeout, unit);
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.threads;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holder of the Executor, which runs all asynchronous operations of the library.
+ *
+ * By default it is a pool with one thread per processor and a bounded queue.
+ * When the queue is full, the task is executed by the thread, which submits it,
+ * so callers are slowed down instead of creating more threads or losing tasks.
+ * Idle threads are stopped after KEEP_ALIVE_SECONDS.
+ */
+public class EncoderExecutor {
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static volatile Executor executor;
+
+    private static ForkJoinPool forkJoinPool;
+
+    private EncoderExecutor() {
+
+    }
+
+    /**
+     * Executor for the asynchronous operations, if the builder has no executor of its own
+     */
+    public static Executor getDefault(){
+        Executor result = executor;
+
+        if(result == null){
+            synchronized (EncoderExecutor.class){
+                result = executor;
+
+                if(result == null){
+                    result = createDefault();
+                    executor = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replace the default executor, for example with the executor of the application.
+     * Null restores the default pool
+     */
+    public static void setDefault(Executor executor){
+        EncoderExecutor.executor = executor;
+    }
+
+    /**
+     * Pool for splitting of large messages into parts, which are processed in parallel
+     * (tree hashes, parallel cipher modes). It has one thread per processor
+     */
+    public static synchronized ForkJoinPool getForkJoinPool(){
+        if(forkJoinPool == null){
+            forkJoinPool = new ForkJoinPool();
+        }
+        return forkJoinPool;
+    }
+
+    private static Executor createDefault(){
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY),
+                new EncoderThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        pool.allowCoreThreadTimeOut(true);
+
+        return pool;
+    }
+
+    /**
+     * Factory of daemon threads, which don't prevent the application from exiting
+     */
+    private static class EncoderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "encoder-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Result of an asynchronous operation, which can be waited for with get()
+ * or observed with callbacks, without blocking a thread per waiter.
+ *
+ * It is a FutureTask, so get() blocks until the operation is completed,
+ * isDone() is true after success, failure or cancelling, and cancel()
+ * prevents the operation from starting, if it is still in the queue.
+ *
+ * The callbacks are called once, on the thread, which completes the future,
+ * or on the calling thread, if the future is already completed.
+ * The futures of then(), thenAsync(), completed() and failed() are completed
+ * only by the futures they depend on, their run() does nothing. When the previous
+ * future is cancelled, the dependent future is cancelled too.
+ * Operations can be chained with {@link #then(Continuation)} and
+ * {@link #thenAsync(AsyncContinuation)}, like CompletableFuture, which
+ * is not available on Java 7 and Android.
+ */
+public class EncoderFuture<T> extends FutureTask<T> {
+
+    /**
+     * Operation, which is applied to the result of the previous one
+     */
+    public interface Continuation<T, R>{
+        R apply(T result) throws Exception;
+    }
+
+    /**
+     * Operation, which starts another asynchronous operation with the result of the previous one
+     */
+    public interface AsyncContinuation<T, R>{
+        EncoderFuture<R> apply(T result) throws Exception;
+    }
+
+    /**
+     * Callbacks, which are waiting for the result, null after completion
+     */
+    private List<BaseTask.TaskCallback<T>> callbacks = new ArrayList<>();
+
+    /**
+     * True for the future, which is completed by another future, not by run()
+     */
+    private final boolean dependent;
+
+    public EncoderFuture(final BaseTask.EncodeAction<T> encodeAction) {
+        super(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return encodeAction.action();
+            }
+        });
+        this.dependent = false;
+    }
+
+    /**
+     * Future, which is never run, but is completed by another future
+     */
+    private EncoderFuture() {
+        super(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                throw new IllegalStateException("Dependent future can't be run");
+            }
+        });
+        this.dependent = true;
+    }
+
+    /**
+     * Create future, which is already completed with the result
+     */
+    public static <T> EncoderFuture<T> completed(T result){
+        EncoderFuture<T> future = new EncoderFuture<>();
+        future.set(result);
+        return future;
+    }
+
+    /**
+     * Create future, which is already completed with the error
+     */
+    public static <T> EncoderFuture<T> failed(Throwable e){
+        EncoderFuture<T> future = new EncoderFuture<>();
+        future.setException(e);
+        return future;
+    }
+
+    /**
+     * Add the callback, which gets the result or the error of the operation.
+     * Cancelling is reported as CancellationException
+     */
+    public EncoderFuture<T> addCallback(BaseTask.TaskCallback<T> callback){
+        synchronized (this){
+            if(callbacks != null){
+                callbacks.add(callback);
+                return this;
+            }
+        }
+
+        notifyCallback(callback);
+
+        return this;
+    }
+
+    /**
+     * Future of the result of the continuation, which is applied to the result
+     * of this future on the thread, which completes it.
+     * Errors of this future are passed to the returned future
+     */
+    public <R> EncoderFuture<R> then(final Continuation<? super T, ? extends R> continuation){
+        final EncoderFuture<R> future = new EncoderFuture<>();
+
+        addCallback(new BaseTask.TaskCallback<T>() {
+            @Override
+            public void onFinish(T parameter) {
+                try {
+                    future.set(continuation.apply(parameter));
+                } catch (Throwable e) {
+                    future.setException(e);
+                }
+            }
+
+            @Override
+            public void onFailed(Throwable e) {
+                fail(future, e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Future of the result of the asynchronous operation, which is started
+     * by the continuation after this future is completed
+     */
+    public <R> EncoderFuture<R> thenAsync(final AsyncContinuation<? super T, R> continuation){
+        final EncoderFuture<R> future = new EncoderFuture<>();
+
+        addCallback(new BaseTask.TaskCallback<T>() {
+            @Override
+            public void onFinish(T parameter) {
+                EncoderFuture<R> next;
+
+                try {
+                    next = continuation.apply(parameter);
+                } catch (Throwable e) {
+                    future.setException(e);
+                    return;
+                }
+
+                next.addCallback(new BaseTask.TaskCallback<R>() {
+                    @Override
+                    public void onFinish(R parameter) {
+                        future.set(parameter);
+                    }
+
+                    @Override
+                    public void onFailed(Throwable e) {
+                        fail(future, e);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailed(Throwable e) {
+                fail(future, e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Run the operation, if the future has one. The dependent futures ignore it,
+     * so they can't be completed before the future they depend on
+     */
+    @Override
+    public void run() {
+        if(!dependent){
+            super.run();
+        }
+    }
+
+    @Override
+    protected void done() {
+        List<BaseTask.TaskCallback<T>> waiting;
+
+        synchronized (this){
+            waiting = callbacks;
+            callbacks = null;
+        }
+
+        for(BaseTask.TaskCallback<T> callback : waiting){
+            notifyCallback(callback);
+        }
+    }
+
+    /**
+     * Complete the dependent future with the error, cancelling of the previous future cancels it
+     */
+    private static void fail(EncoderFuture<?> future, Throwable e){
+        if(e instanceof CancellationException){
+            future.cancel(false);
+        } else {
+            future.setException(e);
+        }
+    }
+
+    private void notifyCallback(BaseTask.TaskCallback<T> callback){
+        T result;
+
+        try {
+            result = get();
+        } catch (ExecutionException e) {
+            callback.onFailed(e.getCause());
+            return;
+        } catch (CancellationException e) {
+            callback.onFailed(e);
+            return;
+        } catch (InterruptedException e) {
+            // the future is completed, so get() doesn't wait
+            Thread.currentThread().interrupt();
+            callback.onFailed(e);
+            return;
+        }
+
+        callback.onFinish(result);
+    }
+}
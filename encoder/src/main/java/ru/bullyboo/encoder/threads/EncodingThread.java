@@ -2,8 +2,10 @@ package ru.bullyboo.encoder.threads;
 
 /**
  * Created by BullyBoo on 29.03.2017.
+ *
+ * @deprecated use {@link EncodingTask}
  */
-
+@Deprecated
 public class EncodingThread extends BaseThread<String>{
 
     public EncodingThread(EncodeAction<String> encodeAction, ThreadCallback<String> threadCallback) {
@@ -5,8 +5,10 @@ import java.security.KeyPair;
 
 /**
  * Created by BullyBoo on 30.03.2017.
+ *
+ * @deprecated use {@link KeyGenerateTask}
  */
-
+@Deprecated
 public class KeyGenerateThread extends BaseThread<KeyPair> {
 
     public KeyGenerateThread(EncodeAction<KeyPair> encodeAction, ThreadCallback<KeyPair> threadCallback) {
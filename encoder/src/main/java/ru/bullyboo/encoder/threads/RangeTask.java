@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.threads;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Task of {@link EncoderExecutor#getForkJoinPool()}, which computes the parts
+ * from, ..., to - 1 of a large message.
+ *
+ * The range is split in two, the left half is forked and the right half is computed
+ * by the current thread, until isLeaf() is true. Checked exceptions of computeLeaf()
+ * are passed out of the pool in {@link TaskException}, invokeOn() throws them again.
+ */
+public abstract class RangeTask<T> extends RecursiveTask<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    protected final long from;
+
+    protected final long to;
+
+    protected RangeTask(long from, long to){
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * True if the parts from, ..., to - 1 are computed by this task without splitting
+     */
+    protected abstract boolean isLeaf();
+
+    /**
+     * Compute the parts from, ..., to - 1
+     */
+    protected abstract T computeLeaf() throws Exception;
+
+    /**
+     * Create the task of the parts from, ..., to - 1
+     */
+    protected abstract RangeTask<T> create(long from, long to);
+
+    /**
+     * Join the results of the halves, left is the result of the parts before right
+     */
+    protected abstract T merge(T left, T right);
+
+    /**
+     * Index of the first part of the right half, the middle of the range by default
+     */
+    protected long split(){
+        return (from + to) >>> 1;
+    }
+
+    /**
+     * Compute the task on the pool and throw the exception of a part
+     * as it was thrown by computeLeaf()
+     */
+    public T invokeOn(ForkJoinPool pool) throws Exception {
+        try {
+            return pool.invoke(this);
+        } catch (TaskException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    protected final T compute() {
+        if(isLeaf()){
+            try {
+                return computeLeaf();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new TaskException(e);
+            }
+        }
+
+        long middle = split();
+
+        RangeTask<T> left = create(from, middle);
+        left.fork();
+
+        T right = create(middle, to).compute();
+
+        return merge(left.join(), right);
+    }
+}
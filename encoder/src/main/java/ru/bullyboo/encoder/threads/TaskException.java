@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.threads;
+
+/**
+ * Wrapper for passing exceptions out of {@link RangeTask}.
+ *
+ * It has no public constructor, so ForkJoinPool rethrows the instance
+ * of the task instead of creating a copy on the joining thread
+ */
+public class TaskException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    TaskException(Exception cause){
+        super(cause);
+    }
+
+    @Override
+    public synchronized Exception getCause() {
+        return (Exception) super.getCause();
+    }
+}
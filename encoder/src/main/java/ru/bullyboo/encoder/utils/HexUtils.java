@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.utils;
+
+import ru.bullyboo.encoder.constants.Constants;
+
+/**
+ * Class helper for converting bytes to hex strings
+ */
+public class HexUtils {
+
+    private static final char[] DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    /**
+     * Convert bytes to lower case hex string, every byte is written as two digits
+     */
+    public static String toHex(byte[] bytes){
+        return toHex(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Convert length bytes of the array, starting from offset, to lower case hex string
+     */
+    public static String toHex(byte[] bytes, int offset, int length){
+        char[] chars = new char[length * 2];
+
+        for(int i = 0; i < length; i++){
+            int b = bytes[offset + i] & 0xFF;
+
+            chars[i * 2] = DIGITS[b >>> 4];
+            chars[i * 2 + 1] = DIGITS[b & 0x0F];
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * Convert hex string of any case to bytes, the length of the string must be even
+     */
+    public static byte[] fromHex(String hex){
+        if(hex.length() % 2 != 0){
+            throw new IllegalArgumentException(Constants.HEX_EXCEPTION);
+        }
+
+        byte[] bytes = new byte[hex.length() / 2];
+
+        for(int i = 0; i < bytes.length; i++){
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+
+            if(high == -1 || low == -1){
+                throw new IllegalArgumentException(Constants.HEX_EXCEPTION);
+            }
+
+            bytes[i] = (byte) (high << 4 | low);
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.builders;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.security.Security;
+import java.util.Random;
+
+import ru.bullyboo.encoder.Encoder;
+import ru.bullyboo.encoder.methods.HMAC;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The incremental HMAC must give the same result as HMAC of the whole message
+ */
+public class BuilderHMACTest {
+
+    static {
+        // the names of the methods are the names of BouncyCastle, which is built into Android
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    private static final byte[] KEY = "key".getBytes();
+
+    private static final int[] SIZES = {0, 1, 63, 64, 65, 8191, 8192, 8193, 100000};
+
+    @Test
+    public void splitUpdates() throws Exception {
+        for(HMAC.Method method : HMAC.Method.values()){
+            BuilderHMAC builder = Encoder.BuilderHMAC().method(method).key(KEY);
+
+            for(int size : SIZES){
+                byte[] message = random(size);
+                byte[] expected = HMAC.encryptBytes(method, KEY, message);
+
+                int middle = size / 3;
+
+                builder.update(message, 0, middle)
+                        .update(new byte[0])
+                        .update(ByteBuffer.wrap(message, middle, middle))
+                        .update(new ByteArrayInputStream(message, 2 * middle, size - 2 * middle));
+
+                assertArrayEquals(method + " " + size, expected, builder.doFinalBytes());
+
+                // the builder starts the next message after doFinal()
+                builder.update(message);
+                assertEquals(HMAC.encrypt(method, KEY, message), builder.doFinal());
+            }
+        }
+    }
+
+    @Test
+    public void emptyUpdates() throws Exception {
+        byte[] expected = HMAC.encryptBytes(HMAC.Method.HMAC_SHA_256, KEY, new byte[0]);
+
+        BuilderHMAC builder = Encoder.BuilderHMAC().method(HMAC.Method.HMAC_SHA_256).key(KEY);
+
+        assertArrayEquals(expected, builder.doFinalBytes());
+
+        builder.update(new byte[0]).update(new byte[10], 5, 0).update(ByteBuffer.allocate(0));
+
+        assertArrayEquals(expected, builder.doFinalBytes());
+    }
+
+    /**
+     * The Mac of the builder is taken out of the pool, so HMACs of the same key
+     * on the same thread don't mix into its message
+     */
+    @Test
+    public void otherHmacBetweenUpdates() throws Exception {
+        HMAC.Method method = HMAC.Method.HMAC_SHA_1;
+
+        byte[] message = random(1000);
+        byte[] other = random(100);
+
+        BuilderHMAC builder = Encoder.BuilderHMAC().method(method).key(KEY);
+
+        builder.update(message, 0, 500);
+
+        assertArrayEquals(HMAC.encryptBytes(method, KEY, other),
+                Encoder.BuilderHMAC().method(method).key(KEY).update(other).doFinalBytes());
+
+        // the pooled Mac of the thread
+        HMAC.encryptBytes(method, KEY, other);
+
+        builder.update(message, 500, 500);
+
+        assertArrayEquals(HMAC.encryptBytes(method, KEY, message), builder.doFinalBytes());
+
+        // the key of the taken Mac is used till doFinal()
+        builder.update(message, 0, 500);
+        builder.key("other key");
+        builder.update(message, 500, 500);
+
+        assertArrayEquals(HMAC.encryptBytes(method, KEY, message), builder.doFinalBytes());
+        assertArrayEquals(HMAC.encryptBytes(method, "other key".getBytes(), message),
+                builder.update(message).doFinalBytes());
+    }
+
+    private static byte[] random(int size){
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.builders;
+
+import org.junit.Test;
+
+import ru.bullyboo.encoder.Encoder;
+import ru.bullyboo.encoder.methods.AES;
+import ru.bullyboo.encoder.methods.Blowfish;
+import ru.bullyboo.encoder.methods.CipherSpec;
+import ru.bullyboo.encoder.methods.DES;
+import ru.bullyboo.encoder.methods.PBE;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * build() freezes the block modes, the stream modes are refused at once,
+ * because the fixed vector of the spec would encrypt every message with the same key stream
+ */
+public class BuilderSpecTest {
+
+    private static final byte[] MESSAGE = "message of the spec".getBytes();
+
+    @Test
+    public void blockModes(){
+        check(Encoder.BuilderAES()
+                .method(AES.Method.AES_CBC_PKCS5PADDING)
+                .key("key")
+                .iVector("vector"));
+
+        check(Encoder.BuilderDES()
+                .method(DES.Method.DES_CBC_PKCS5Padding)
+                .key("key")
+                .iVector("vector"));
+
+        check(Encoder.BuilderBlowfish()
+                .method(Blowfish.Method.BLOWFISH_CBC_PKCS5Padding)
+                .key("key", 16)
+                .iVector("vector"));
+    }
+
+    @Test
+    public void streamModes(){
+        refused(Encoder.BuilderAES()
+                .method(AES.Method.AES_GCM_NO_PADDING)
+                .key("key")
+                .iVector("vector"));
+
+        refused(Encoder.BuilderAES()
+                .method(AES.Method.AES_CTR_NO_PADDING)
+                .key("key")
+                .iVector("vector"));
+
+        refused(Encoder.BuilderDES()
+                .method(DES.Method.DES_OFB_NoPadding)
+                .key("key")
+                .iVector("vector"));
+
+        refused(Encoder.BuilderBlowfish()
+                .method(Blowfish.Method.BLOWFISH_CFB_NoPadding)
+                .key("key", 16)
+                .iVector("vector"));
+
+        refused(Encoder.BuilderPBE()
+                .method(PBE.Method.PBE_with_SHA_1_and_RC4_128)
+                .key("key")
+                .iVector("vector"));
+
+        refused(Encoder.BuilderARCFOUR()
+                .key("key", 16));
+    }
+
+    private static void check(BaseBuilder<?> builder){
+        CipherSpec spec = build(builder);
+
+        assertNotNull(spec);
+
+        try {
+            byte[] encrypted = spec.encryptBytes(MESSAGE);
+
+            assertArrayEquals(encrypted, builder.message(MESSAGE).encryptBytes());
+            assertArrayEquals(MESSAGE, spec.decryptBytes(encrypted));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void refused(BaseBuilder<?> builder){
+        try {
+            build(builder);
+            fail("spec of the stream mode was built");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    private static CipherSpec build(BaseBuilder<?> builder){
+        if(builder instanceof BuilderAES){
+            return ((BuilderAES) builder).build();
+        }
+        if(builder instanceof BuilderDES){
+            return ((BuilderDES) builder).build();
+        }
+        if(builder instanceof BuilderBlowfish){
+            return ((BuilderBlowfish) builder).build();
+        }
+        if(builder instanceof BuilderPBE){
+            return ((BuilderPBE) builder).build();
+        }
+        return ((BuilderARCFOUR) builder).build();
+    }
+}
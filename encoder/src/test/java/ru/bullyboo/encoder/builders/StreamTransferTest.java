@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.builders;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import ru.bullyboo.encoder.Encoder;
+import ru.bullyboo.encoder.methods.AES;
+import ru.bullyboo.encoder.methods.Blowfish;
+import ru.bullyboo.encoder.methods.DES;
+import ru.bullyboo.encoder.methods.DESede;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Encryption of the streams by chunks must give the same result as encryption of the whole array
+ */
+public class StreamTransferTest {
+
+    private static final int[] SIZES = {0, 1, 7, 8, 9, 8191, 8192, 8193, 100000};
+
+    interface Factory {
+        BaseBuilder<?> create();
+    }
+
+    @Test
+    public void aes(){
+        check(new Factory() {
+            @Override
+            public BaseBuilder<?> create() {
+                return Encoder.BuilderAES()
+                        .method(AES.Method.AES_CBC_PKCS5PADDING)
+                        .key("key")
+                        .iVector("vector");
+            }
+        });
+    }
+
+    @Test
+    public void des(){
+        check(new Factory() {
+            @Override
+            public BaseBuilder<?> create() {
+                return Encoder.BuilderDES()
+                        .method(DES.Method.DES_CBC_PKCS5Padding)
+                        .key("key")
+                        .iVector("vector");
+            }
+        });
+    }
+
+    @Test
+    public void desede(){
+        check(new Factory() {
+            @Override
+            public BaseBuilder<?> create() {
+                return Encoder.BuilderDESede()
+                        .method(DESede.Method.DESEDE_CBC_PKCS5Padding)
+                        .key("key", DESede.Key.SIZE_192)
+                        .iVector("vector");
+            }
+        });
+    }
+
+    @Test
+    public void blowfish(){
+        check(new Factory() {
+            @Override
+            public BaseBuilder<?> create() {
+                return Encoder.BuilderBlowfish()
+                        .method(Blowfish.Method.BLOWFISH_CBC_PKCS5Padding)
+                        .key("key", 16)
+                        .iVector("vector");
+            }
+        });
+    }
+
+    @Test
+    public void arcfour(){
+        check(new Factory() {
+            @Override
+            public BaseBuilder<?> create() {
+                return Encoder.BuilderARCFOUR()
+                        .key("key", 16);
+            }
+        });
+    }
+
+    /**
+     * Wrong settings are thrown before the output file is opened, so the file is not truncated
+     */
+    @Test
+    public void wrongSettings() throws Exception {
+        byte[] content = "content of the file".getBytes();
+
+        File output = File.createTempFile("transfer", ".bin");
+
+        try {
+            Files.write(output.toPath(), content);
+
+            try {
+                Encoder.BuilderAES()
+                        .key("key")
+                        .message("message")
+                        .encryptTo(output);
+                fail("message was encrypted without the method");
+            } catch (RuntimeException e) {
+                // expected
+            }
+
+            assertArrayEquals(content, Files.readAllBytes(output.toPath()));
+        } finally {
+            output.delete();
+        }
+    }
+
+    private static void check(Factory factory){
+        Random random = new Random(42);
+
+        for(int size : SIZES){
+            byte[] message = new byte[size];
+            random.nextBytes(message);
+
+            byte[] expected = factory.create().message(message).encryptBytes();
+
+            ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+            assertTrue("size " + size, factory.create()
+                    .message(new ByteArrayInputStream(message))
+                    .encryptTo(encrypted));
+
+            assertArrayEquals("size " + size, expected, encrypted.toByteArray());
+
+            ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+            assertTrue("size " + size, factory.create()
+                    .message(new ByteArrayInputStream(expected))
+                    .decryptTo(decrypted));
+
+            assertArrayEquals("size " + size, message, decrypted.toByteArray());
+            assertArrayEquals("size " + size, message, factory.create().message(expected).decryptBytes());
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.hashes;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.Security;
+import java.util.Random;
+
+import ru.bullyboo.encoder.utils.HexUtils;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Hashes of the mapped files and of the byte buffers must be equal
+ * to the hashes of MessageDigest
+ */
+public class HashFileTest {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    /**
+     * Lengths around the end of the first block, where the padding
+     * moves the length into the next block
+     */
+    private static final int[] SIZES = {0, 55, 56, 63, 64, 65};
+
+    /**
+     * Size of the mapped region, which is not a multiple of the block size,
+     * so the blocks are split between the regions
+     */
+    private static final int MAP_SIZE = 100;
+
+    private static final String[] ALGORITHMS = {"MD2", "MD4", "MD5", "SHA-1", "SHA-224", "SHA-256",
+            "SHA-384", "SHA-512", "RIPEMD128", "RIPEMD160", "RIPEMD256", "RIPEMD320"};
+
+    @Test
+    public void files() throws Exception {
+        for(int size : SIZES){
+            check(new Hash(), size);
+        }
+    }
+
+    @Test
+    public void fileOfSeveralRegions() throws Exception {
+        check(new Hash(MAP_SIZE), 3 * MAP_SIZE + 17);
+        check(new Hash(MAP_SIZE), 4 * MAP_SIZE);
+    }
+
+    @Test
+    public void buffers() throws Exception {
+        for(Digest digest : digests(new Hash())){
+            for(int size : SIZES){
+                byte[] message = random(size);
+
+                for(ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}){
+                    ByteBuffer heap = ByteBuffer.wrap(message).order(order);
+                    ByteBuffer direct = ByteBuffer.allocateDirect(size).order(order);
+                    direct.put(message).flip();
+
+                    for(ByteBuffer buffer : new ByteBuffer[]{heap, direct}){
+                        digest.update(buffer);
+
+                        assertEquals(digest + " " + size, expected(digest, message, 0, size),
+                                HexUtils.toHex(digest.digest()));
+                        assertEquals(size, buffer.position());
+                        assertEquals(order, buffer.order());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Only the bytes between the position and the limit are hashed,
+     * a heap buffer may also start inside its array
+     */
+    @Test
+    public void bufferRegions() throws Exception {
+        byte[] message = random(300);
+
+        int position = 13;
+        int limit = 250;
+
+        for(Digest digest : digests(new Hash())){
+            ByteBuffer direct = ByteBuffer.allocateDirect(message.length);
+            direct.put(message).clear();
+
+            ByteBuffer[] buffers = {
+                    ByteBuffer.wrap(message),
+                    ByteBuffer.wrap(message).order(ByteOrder.LITTLE_ENDIAN),
+                    direct,
+                    direct.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+            };
+
+            for(ByteBuffer buffer : buffers){
+                buffer.limit(limit).position(position);
+
+                digest.update(buffer);
+
+                assertEquals(digest.toString(), expected(digest, message, position, limit - position),
+                        HexUtils.toHex(digest.digest()));
+                assertEquals(limit, buffer.position());
+            }
+
+            // buffer of the middle of the array, its position is not the offset of the array
+            ByteBuffer slice = ByteBuffer.wrap(message, 7, 200).slice();
+            slice.position(11);
+
+            digest.update(slice);
+
+            assertEquals(digest.toString(), expected(digest, message, 18, 189),
+                    HexUtils.toHex(digest.digest()));
+        }
+    }
+
+    private static void check(Hash hash, int size) throws Exception {
+        byte[] message = random(size);
+        File file = write(message);
+
+        try {
+            String[] actual = {hash.md2(file), hash.md4(file), hash.md5(file), hash.sha1(file),
+                    hash.sha224(file), hash.sha256(file), hash.sha384(file), hash.sha512(file),
+                    hash.ripemd128(file), hash.ripemd160(file), hash.ripemd256(file), hash.ripemd320(file)};
+
+            for(int i = 0; i < ALGORITHMS.length; i++){
+                assertEquals(ALGORITHMS[i] + " " + size,
+                        HexUtils.toHex(MessageDigest.getInstance(ALGORITHMS[i]).digest(message)), actual[i]);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static Digest[] digests(Hash hash) throws Exception {
+        return new Digest[]{hash.md2Digest(), hash.md4Digest(), hash.md5Digest(), hash.sha1Digest(),
+                hash.sha224Digest(), hash.sha256Digest(), new JdkDigest("SHA-512"),
+                hash.ripemd128Digest(), hash.ripemd160Digest(), hash.ripemd256Digest(), hash.ripemd320Digest()};
+    }
+
+    /**
+     * Hash of MessageDigest with the same output as the digest
+     */
+    private static String expected(Digest digest, byte[] message, int offset, int length) throws Exception {
+        String name = digest.getClass().getSimpleName();
+
+        String algorithm;
+
+        if(digest instanceof JdkDigest){
+            algorithm = "SHA-512";
+        } else if(name.startsWith("SHA")){
+            algorithm = "SHA-" + name.substring(3);
+        } else {
+            algorithm = name.replace("_", "");
+        }
+
+        MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
+        messageDigest.update(message, offset, length);
+
+        return HexUtils.toHex(messageDigest.digest());
+    }
+
+    static byte[] random(int size){
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    static File write(byte[] bytes) throws IOException {
+        File file = File.createTempFile("hash", ".bin");
+
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(bytes);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.hashes;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import ru.bullyboo.encoder.utils.HexUtils;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Known answers of RFC 1319 (MD2), RFC 1320 (MD4), RFC 1321 (MD5), FIPS 180 (SHA-1, SHA-224, SHA-256)
+ * and of the authors of RIPEMD (RIPEMD-128, RIPEMD-160, RIPEMD-256, RIPEMD-320)
+ */
+public class HashTest {
+
+    private static final String DIGITS = "12345678901234567890123456789012345678901234567890123456789012345678901234567890";
+
+    private static final String TWO_BLOCKS = "abcdbcdecdefdefgefghfghighijhijkijkljklmklmnlmnomnopnopq";
+
+    private final Hash hash = new Hash();
+
+    @Test
+    public void md2(){
+        assertEquals("8350e5a3e24c153df2275c9f80692773", hash.md2(""));
+        assertEquals("da853b0d3f88d99b30283a69e6ded6bb", hash.md2("abc"));
+        assertEquals("4e8ddff3650292ab5a4108c3aa47940b", hash.md2("abcdefghijklmnopqrstuvwxyz"));
+        assertEquals("d5976f79d83d3a0dc9806c3c66f3efd8", hash.md2(DIGITS));
+    }
+
+    /**
+     * Checksum of MD2 must include every block of the message, not only the first one
+     */
+    @Test
+    public void md2ByParts(){
+        Digest digest = hash.md2Digest();
+
+        byte[] message = DIGITS.getBytes();
+
+        for(int i = 0; i < message.length; i += 7){
+            digest.update(message, i, Math.min(7, message.length - i));
+        }
+
+        assertEquals("d5976f79d83d3a0dc9806c3c66f3efd8", HexUtils.toHex(digest.digest()));
+    }
+
+    @Test
+    public void md4(){
+        assertEquals("31d6cfe0d16ae931b73c59d7e0c089c0", hash.md4(""));
+        assertEquals("a448017aaf21d8525fc10ae87aa6729d", hash.md4("abc"));
+        assertEquals("e33b4ddc9c38f2199c3e7b164fcc0536", hash.md4(DIGITS));
+    }
+
+    @Test
+    public void md5(){
+        assertEquals("d41d8cd98f00b204e9800998ecf8427e", hash.md5(""));
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", hash.md5("abc"));
+        assertEquals("57edf4a22be3c955ac49da2e2107b67a", hash.md5(DIGITS));
+    }
+
+    @Test
+    public void sha1(){
+        assertEquals("da39a3ee5e6b4b0d3255bfef95601890afd80709", hash.sha1(""));
+        assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", hash.sha1("abc"));
+        assertEquals("84983e441c3bd26ebaae4aa1f95129e5e54670f1", hash.sha1(TWO_BLOCKS));
+        assertEquals("34aa973cd4c4daa4f61eeb2bdbad27316534016f", millionA(hash.sha1Digest()));
+    }
+
+    @Test
+    public void sha224(){
+        assertEquals("d14a028c2a3a2bc9476102bb288234c415a2b01f828ea62ac5b3e42f", hash.sha224(""));
+        assertEquals("23097d223405d8228642a477bda255b32aadbce4bda0b3f7e36c9da7", hash.sha224("abc"));
+        assertEquals("75388b16512776cc5dba5da1fd890150b0c6455cb4f58b1952522525", hash.sha224(TWO_BLOCKS));
+        assertEquals("20794655980c91d8bbb4c1ea97618a4bf03f42581948b2ee4ee7ad67", millionA(hash.sha224Digest()));
+    }
+
+    @Test
+    public void sha256(){
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", hash.sha256(""));
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", hash.sha256("abc"));
+        assertEquals("248d6a61d20638b8e5c026930c3e6039a33ce45964ff2167f6ecedd419db06c1", hash.sha256(TWO_BLOCKS));
+        assertEquals("cdc76e5c9914fb9281a1c7e284d73e67f1809a48a497200e046d39ccc7112cd0", millionA(hash.sha256Digest()));
+    }
+
+    @Test
+    public void ripemd128(){
+        assertEquals("cdf26213a150dc3ecb610f18f6b38b46", hash.ripemd128(""));
+        assertEquals("c14a12199c66e4ba84636b0f69144c77", hash.ripemd128("abc"));
+        assertEquals("9e327b3d6e523062afc1132d7df9d1b8", hash.ripemd128("message digest"));
+        assertEquals("3f45ef194732c2dbb2c4a2c769795fa3", hash.ripemd128(DIGITS));
+        assertEquals("a1aa0689d0fafa2ddc22e88b49133a06", hash.ripemd128(TWO_BLOCKS));
+        assertEquals("4a7f5723f954eba1216c9d8f6320431f", millionA(hash.ripemd128Digest()));
+    }
+
+    @Test
+    public void ripemd160(){
+        assertEquals("9c1185a5c5e9fc54612808977ee8f548b2258d31", hash.ripemd160(""));
+        assertEquals("8eb208f7e05d987a9b044a8e98c6b087f15a0bfc", hash.ripemd160("abc"));
+        assertEquals("5d0689ef49d2fae572b881b123a85ffa21595f36", hash.ripemd160("message digest"));
+        assertEquals("9b752e45573d4b39f4dbd3323cab82bf63326bfb", hash.ripemd160(DIGITS));
+        assertEquals("12a053384a9c0c88e405a06c27dcf49ada62eb2b", hash.ripemd160(TWO_BLOCKS));
+        assertEquals("52783243c1697bdbe16d37f97f68f08325dc1528", millionA(hash.ripemd160Digest()));
+    }
+
+    @Test
+    public void ripemd256(){
+        assertEquals("02ba4c4e5f8ecd1877fc52d64d30e37a2d9774fb1e5d026380ae0168e3c5522d", hash.ripemd256(""));
+        assertEquals("afbd6e228b9d8cbbcef5ca2d03e6dba10ac0bc7dcbe4680e1e42d2e975459b65", hash.ripemd256("abc"));
+        assertEquals("87e971759a1ce47a514d5c914c392c9018c7c46bc14465554afcdf54a5070c0e", hash.ripemd256("message digest"));
+        assertEquals("06fdcc7a409548aaf91368c06a6275b553e3f099bf0ea4edfd6778df89a890dd", hash.ripemd256(DIGITS));
+        assertEquals("3843045583aac6c8c8d9128573e7a9809afb2a0f34ccc36ea9e72f16f6368e3f", hash.ripemd256(TWO_BLOCKS));
+        assertEquals("ac953744e10e31514c150d4d8d7b677342e33399788296e43ae4850ce4f97978", millionA(hash.ripemd256Digest()));
+    }
+
+    @Test
+    public void ripemd320(){
+        assertEquals("22d65d5661536cdc75c1fdf5c6de7b41b9f27325ebc61e8557177d705a0ec880151c3a32a00899b8", hash.ripemd320(""));
+        assertEquals("de4c01b3054f8930a79d09ae738e92301e5a17085beffdc1b8d116713e74f82fa942d64cdbc4682d", hash.ripemd320("abc"));
+        assertEquals("3a8e28502ed45d422f68844f9dd316e7b98533fa3f2a91d29f84d425c88d6b4eff727df66a7c0197", hash.ripemd320("message digest"));
+        assertEquals("557888af5f6d8ed62ab66945c6d2a0a47ecd5341e915eb8fea1d0524955f825dc717e4a008ab2d42", hash.ripemd320(DIGITS));
+        assertEquals("d034a7950cf722021ba4b84df769a5de2060e259df4c9bb4a4268c0e935bbc7470a969c9d072a1ac", hash.ripemd320(TWO_BLOCKS));
+        assertEquals("bdee37f4371e20646b8b0d862dda16292ae36f40965e8c8509e63d1dbddecc503e2b63eb9245bb66", millionA(hash.ripemd320Digest()));
+    }
+
+    /**
+     * Hash of one million of "a", passed to the digest by parts of different sizes
+     */
+    static String millionA(Digest digest){
+        byte[] part = new byte[1000];
+        Arrays.fill(part, (byte) 'a');
+
+        int length = 0;
+        int size = 1;
+
+        while (length < 1000000){
+            int count = Math.min(size, 1000000 - length);
+
+            digest.update(part, 0, Math.min(count, part.length));
+
+            length += Math.min(count, part.length);
+            size = size % 997 + 7;
+        }
+
+        return HexUtils.toHex(digest.digest());
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.hashes;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ru.bullyboo.encoder.utils.HexUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Every hash of MultiDigest must be equal to the hash of its digest alone,
+ * with and without the executor
+ */
+public class MultiDigestTest {
+
+    private static final int[] SIZES = {0, 1, 63, 64, 65, 1000};
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(3);
+
+    private final Hash hash = new Hash();
+
+    @AfterClass
+    public static void shutdown(){
+        EXECUTOR.shutdown();
+    }
+
+    @Test
+    public void oneUpdate(){
+        for(ExecutorService executor : new ExecutorService[]{null, EXECUTOR}){
+            for(int size : SIZES){
+                byte[] message = HashFileTest.random(size);
+
+                MultiDigest multiDigest = new MultiDigest(executor, digests());
+                multiDigest.update(message);
+
+                assertArrayEquals("size " + size, expected(message), multiDigest.digests());
+            }
+        }
+    }
+
+    /**
+     * Parts of the message are passed by arrays and by buffers of different sizes,
+     * the blocks of the digests are split between the parts
+     */
+    @Test
+    public void severalUpdates(){
+        for(ExecutorService executor : new ExecutorService[]{null, EXECUTOR}){
+            for(int size : SIZES){
+                byte[] message = HashFileTest.random(size);
+
+                MultiDigest multiDigest = new MultiDigest(executor, digests());
+
+                int offset = 0;
+                int part = 1;
+
+                while (offset < size){
+                    int length = Math.min(part, size - offset);
+
+                    if(part % 2 == 0){
+                        ByteBuffer buffer = ByteBuffer.wrap(message, offset, length);
+                        multiDigest.update(buffer);
+
+                        assertEquals(offset + length, buffer.position());
+                    } else {
+                        multiDigest.update(message, offset, length);
+                    }
+
+                    offset += length;
+                    part = part * 3 % 101;
+                }
+
+                assertArrayEquals("size " + size, expected(message), multiDigest.digests());
+            }
+        }
+    }
+
+    /**
+     * digest() returns the concatenation of the hashes and resets the digests
+     */
+    @Test
+    public void concatenation(){
+        byte[] message = HashFileTest.random(100);
+
+        MultiDigest multiDigest = new MultiDigest(EXECUTOR, digests());
+        multiDigest.update(message);
+
+        byte[][] expected = expected(message);
+
+        byte[] hash = multiDigest.digest();
+
+        int offset = 0;
+
+        for(byte[] part : expected){
+            byte[] actual = new byte[part.length];
+            System.arraycopy(hash, offset, actual, 0, part.length);
+
+            assertArrayEquals(part, actual);
+
+            offset += part.length;
+        }
+
+        assertEquals(offset, hash.length);
+        assertEquals(offset, multiDigest.getDigestLength());
+
+        assertArrayEquals(expected(new byte[0]), multiDigest.digests());
+    }
+
+    @Test
+    public void hashes() throws Exception {
+        for(int size : SIZES){
+            byte[] message = HashFileTest.random(size);
+            String[] expected = toHex(expected(message));
+
+            assertArrayEquals(toHex(expected(new String(message, "ISO-8859-1").getBytes())),
+                    hash.hashes(new String(message, "ISO-8859-1"), digests()));
+
+            File file = HashFileTest.write(message);
+
+            try {
+                assertArrayEquals("size " + size, expected, hash.hashes(file, digests()));
+                assertArrayEquals("size " + size, expected, hash.hashes(file, EXECUTOR, digests()));
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * One instance passed twice would be updated by two threads at once
+     */
+    @Test
+    public void sameDigestTwice(){
+        Digest sha256 = hash.sha256Digest();
+
+        for(ExecutorService executor : new ExecutorService[]{null, EXECUTOR}){
+            try {
+                new MultiDigest(executor, hash.md5Digest(), sha256, sha256);
+                fail("digest passed twice was accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+
+        // equal, but different instances
+        MultiDigest multiDigest = new MultiDigest(EXECUTOR, hash.sha256Digest(), hash.sha256Digest());
+        multiDigest.update(new byte[100]);
+
+        byte[][] hashes = multiDigest.digests();
+        assertArrayEquals(hashes[0], hashes[1]);
+    }
+
+    private Digest[] digests(){
+        return new Digest[]{hash.md2Digest(), hash.md5Digest(), hash.sha1Digest(),
+                hash.sha256Digest(), hash.ripemd160Digest(), hash.ripemd320Digest()};
+    }
+
+    /**
+     * Hashes of every digest alone
+     */
+    private byte[][] expected(byte[] message){
+        Digest[] digests = digests();
+
+        byte[][] hashes = new byte[digests.length][];
+
+        for(int i = 0; i < digests.length; i++){
+            digests[i].update(message);
+            hashes[i] = digests[i].digest();
+        }
+
+        return hashes;
+    }
+
+    private static String[] toHex(byte[][] hashes){
+        String[] hex = new String[hashes.length];
+
+        for(int i = 0; i < hashes.length; i++){
+            hex[i] = HexUtils.toHex(hashes[i]);
+        }
+
+        return hex;
+    }
+}
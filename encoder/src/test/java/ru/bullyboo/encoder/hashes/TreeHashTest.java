@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.hashes;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.ForkJoinPool;
+
+import ru.bullyboo.encoder.utils.HexUtils;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Known answers of the tree of RFC 6962, computed by an independent implementation,
+ * messages are the bytes i % 251
+ */
+public class TreeHashTest {
+
+    private static final TreeHash.DigestFactory SHA256 = new TreeHash.DigestFactory() {
+        @Override
+        public Digest create() {
+            return new SHA256();
+        }
+    };
+
+    private static final TreeHash.DigestFactory RIPEMD160 = new TreeHash.DigestFactory() {
+        @Override
+        public Digest create() {
+            return new RIPEMD_160();
+        }
+    };
+
+    /**
+     * Hash of the empty message is the hash of the empty string
+     */
+    @Test
+    public void empty(){
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                hex(TreeHash.sha256().hash(new byte[0])));
+        assertEquals("9c1185a5c5e9fc54612808977ee8f548b2258d31",
+                hex(TreeHash.ripemd160().hash(new byte[0])));
+    }
+
+    /**
+     * Hash of one leaf is H(0x00 || leaf), not the plain hash of the message
+     */
+    @Test
+    public void oneLeaf(){
+        assertEquals("609f6e36d2405585188d5cfd761f407c7cc46a7d3f314c88270469dde315fcd1",
+                hex(TreeHash.sha256().hash("abc".getBytes())));
+        assertEquals("a13773492185f2329e18fa31be6d3ddfee9dee09",
+                hex(TreeHash.ripemd160().hash("abc".getBytes())));
+    }
+
+    @Test
+    public void defaultLeafSize(){
+        byte[] leaf = message(TreeHash.DEFAULT_LEAF_SIZE);
+        byte[] twoLeaves = message(TreeHash.DEFAULT_LEAF_SIZE + 1);
+
+        assertEquals("f4e53704c07aef05b5b12a89d6c1e54292fa7d9d8c3ee431c40b6f6ef6d19280",
+                hex(TreeHash.sha256().hash(leaf)));
+        assertEquals("73237652f8f9d598b9fff34ef2b96800d65b9856",
+                hex(TreeHash.ripemd160().hash(leaf)));
+
+        assertEquals("c782cd77b0f9139f9d7fab306f384a6cab7f6c65426252d0f67ef5aadffcc3f3",
+                hex(TreeHash.sha256().hash(twoLeaves)));
+        assertEquals("3ee6199b6887d533bf720c571f4db5dd9ea5ef6f",
+                hex(TreeHash.ripemd160().hash(twoLeaves)));
+    }
+
+    /**
+     * The left subtree takes the largest power of two of the leaves,
+     * the last leaf of 40 bytes is shorter than the others
+     */
+    @Test
+    public void leavesNotPowerOfTwo(){
+        assertEquals("a2c058ba292b2c7d687fe6f32595c02bf16e068f351aba4ad02db8374567e517",
+                hex(new TreeHash(SHA256, 16, null).hash(message(40))));
+        assertEquals("7f55ed5a512f8e4d011a0e5933f3f62ca5919b88",
+                hex(new TreeHash(RIPEMD160, 16, null).hash(message(40))));
+
+        assertEquals("538c01dfb749feb3ea05e277df41b5c34a4f5fa8a11c3d28fcd25f0a46d217ab",
+                hex(new TreeHash(SHA256, 16, null).hash(message(80))));
+        assertEquals("97cda17f29151cb419d82d13e2ec010c70e509d8",
+                hex(new TreeHash(RIPEMD160, 16, null).hash(message(80))));
+    }
+
+    @Test
+    public void file() throws Exception {
+        for(int size : new int[]{0, 1, 16, 40, 80, 64 * 1000 - 3}){
+            byte[] message = message(size);
+            File file = HashFileTest.write(message);
+
+            try {
+                TreeHash treeHash = new TreeHash(SHA256, 16, null);
+
+                assertEquals("size " + size, hex(treeHash.hash(message)), hex(treeHash.hash(file)));
+            } finally {
+                file.delete();
+            }
+        }
+
+        File file = HashFileTest.write(message(TreeHash.DEFAULT_LEAF_SIZE + 1));
+
+        try {
+            assertEquals("c782cd77b0f9139f9d7fab306f384a6cab7f6c65426252d0f67ef5aadffcc3f3",
+                    new Hash().sha256Tree(file));
+            assertEquals("3ee6199b6887d533bf720c571f4db5dd9ea5ef6f",
+                    new Hash().ripemd160Tree(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * The result must not depend on the count of threads, which compute the leaves
+     */
+    @Test
+    public void forked(){
+        byte[] message = message(64 * 1000 - 3);
+
+        ForkJoinPool sequential = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+
+        try {
+            for(ForkJoinPool pool : new ForkJoinPool[]{sequential, parallel, null}){
+                assertEquals("49b40b634aff84303462270176ce57fb8cb87b3f89189eb25fc92c3a2f1517c1",
+                        hex(new TreeHash(SHA256, 64, pool).hash(message)));
+                assertEquals("28db00be5f07603ab5651095c1be8865f7ab36a9",
+                        hex(new TreeHash(RIPEMD160, 64, pool).hash(message)));
+            }
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    private static byte[] message(int size){
+        byte[] bytes = new byte[size];
+
+        for(int i = 0; i < size; i++){
+            bytes[i] = (byte) (i % 251);
+        }
+
+        return bytes;
+    }
+
+    private static String hex(byte[] hash){
+        return HexUtils.toHex(hash);
+    }
+}
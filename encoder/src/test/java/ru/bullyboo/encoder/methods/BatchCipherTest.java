@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ru.bullyboo.encoder.Encoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Batches must give the same results as the messages encrypted one by one
+ */
+public class BatchCipherTest {
+
+    private static final byte[] KEY = "0123456789abcdef".getBytes();
+
+    private static final byte[] VECTOR = "fedcba9876543210".getBytes();
+
+    @Test
+    public void roundTrip() throws Exception {
+        CipherSpec spec = AES.createSpec(AES.Method.AES_CBC_PKCS5PADDING.getMethod(), KEY, AES.Key.SIZE_128, VECTOR);
+
+        List<byte[]> messages = new ArrayList<>();
+
+        // the groups of parallel mode have about PARALLEL_CHUNK_SIZE bytes
+        for(int size = 0; size < 3 * BaseMethod.PARALLEL_CHUNK_SIZE; size = size * 2 + 1){
+            messages.add(ParallelCipherTest.random(size));
+        }
+
+        for(boolean parallel : new boolean[]{false, true}){
+            BatchResult encrypted = spec.encryptBatch(messages, parallel);
+
+            assertEquals(messages.size(), encrypted.size());
+
+            List<byte[]> cipherTexts = new ArrayList<>();
+
+            for(int i = 0; i < messages.size(); i++){
+                assertArrayEquals("message " + i, spec.encryptBytes(messages.get(i)), encrypted.get(i));
+                cipherTexts.add(encrypted.get(i));
+            }
+
+            BatchResult decrypted = spec.decryptBatch(cipherTexts, parallel);
+
+            for(int i = 0; i < messages.size(); i++){
+                assertArrayEquals("message " + i, messages.get(i), decrypted.get(i));
+            }
+        }
+    }
+
+    /**
+     * All the messages of the batch would share one key stream, so the stream modes don't encrypt batches
+     */
+    @Test
+    public void streamModes() throws Exception {
+        List<byte[]> messages = new ArrayList<>();
+        messages.add(new byte[16]);
+        messages.add(new byte[16]);
+
+        String[] methods = {
+                AES.Method.AES_GCM_NO_PADDING.getMethod(),
+                AES.Method.AES_CTR_NO_PADDING.getMethod(),
+                AES.Method.AES_CFB_NO_PADDING.getMethod(),
+                AES.Method.AES_OFB_NO_PADDING.getMethod(),
+                "AES/CFB8/NoPadding"
+        };
+
+        for(String method : methods){
+            try {
+                AES.encryptBatch(method, KEY, AES.Key.SIZE_128, VECTOR, messages, false);
+                fail(method + " encrypted the batch");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+        }
+
+        for(boolean parallel : new boolean[]{false, true}){
+            try {
+                Encoder.BuilderARCFOUR()
+                        .key(KEY, 16)
+                        .encryptBatch(messages, parallel);
+                fail("ARCFOUR encrypted the batch");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+        }
+
+        try {
+            DES.encryptBatch(DES.Method.DES_CTR_NoPadding.getMethod(), KEY, VECTOR, messages, true);
+            fail("DES/CTR encrypted the batch");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Batches of the stream modes are decrypted
+     */
+    @Test
+    public void decryptionOfStreamMode() throws Exception {
+        String method = AES.Method.AES_CTR_NO_PADDING.getMethod();
+
+        List<byte[]> messages = new ArrayList<>();
+        List<byte[]> cipherTexts = new ArrayList<>();
+
+        for(int size : new int[]{0, 1, 100}){
+            byte[] message = ParallelCipherTest.random(size);
+
+            messages.add(message);
+            cipherTexts.add(AES.encryptBytes(method, KEY, AES.Key.SIZE_128, VECTOR, message));
+        }
+
+        BatchResult result = AES.decryptBatch(method, KEY, AES.Key.SIZE_128, VECTOR, cipherTexts, false);
+
+        for(int i = 0; i < messages.size(); i++){
+            assertArrayEquals(messages.get(i), result.get(i));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Ciphers from the pool must give the same results as the new ciphers
+ */
+public class CipherPoolTest {
+
+    private static final String CBC = AES.Method.AES_CBC_PKCS5PADDING.getMethod();
+
+    private static final String GCM = AES.Method.AES_GCM_NO_PADDING.getMethod();
+
+    private static final SecretKeySpec KEY = new SecretKeySpec("0123456789abcdef".getBytes(), "AES");
+
+    @Before
+    public void clear(){
+        CipherPool.clear();
+    }
+
+    /**
+     * The cipher of the key is initialized again, when the vector is changed
+     */
+    @Test
+    public void otherVector() throws Exception {
+        byte[] message = ParallelCipherTest.random(100);
+
+        for(String vector : new String[]{"fedcba9876543210", "0000000000000000", "fedcba9876543210"}){
+            IvParameterSpec ivSpec = new IvParameterSpec(vector.getBytes());
+
+            byte[] encrypted = CipherPool.doFinal(CBC, Cipher.ENCRYPT_MODE, KEY, ivSpec, message);
+
+            assertArrayEquals(vector, doFinal(CBC, Cipher.ENCRYPT_MODE, ivSpec, message), encrypted);
+            assertArrayEquals(vector, message, CipherPool.doFinal(CBC, Cipher.DECRYPT_MODE, KEY, ivSpec, encrypted));
+        }
+
+        // one cipher for encryption and one for decryption
+        assertEquals(2, CipherPool.size());
+    }
+
+    /**
+     * The least recently used cipher is dropped, when the pool is full
+     */
+    @Test
+    public void eviction() throws Exception {
+        byte[] message = ParallelCipherTest.random(20);
+        IvParameterSpec ivSpec = new IvParameterSpec(new byte[16]);
+
+        SecretKeySpec[] keys = new SecretKeySpec[CipherPool.MAX_SIZE + 1];
+
+        for(int i = 0; i < keys.length; i++){
+            byte[] key = new byte[16];
+            key[0] = (byte) i;
+            keys[i] = new SecretKeySpec(key, "AES");
+        }
+
+        for(int i = 0; i < CipherPool.MAX_SIZE; i++){
+            CipherPool.doFinal(CBC, Cipher.ENCRYPT_MODE, keys[i], ivSpec, message);
+        }
+
+        assertEquals(CipherPool.MAX_SIZE, CipherPool.size());
+
+        // the first key becomes the most recently used one
+        CipherPool.doFinal(CBC, Cipher.ENCRYPT_MODE, keys[0], ivSpec, message);
+
+        CipherPool.doFinal(CBC, Cipher.ENCRYPT_MODE, keys[CipherPool.MAX_SIZE], ivSpec, message);
+
+        assertEquals(CipherPool.MAX_SIZE, CipherPool.size());
+        assertTrue(CipherPool.contains(CBC, Cipher.ENCRYPT_MODE, keys[0]));
+        assertFalse(CipherPool.contains(CBC, Cipher.ENCRYPT_MODE, keys[1]));
+        assertTrue(CipherPool.contains(CBC, Cipher.ENCRYPT_MODE, keys[CipherPool.MAX_SIZE]));
+
+        // the dropped key gets a new cipher
+        assertArrayEquals(ParallelCipherTest.doFinal(Cipher.ENCRYPT_MODE, CBC, keys[1].getEncoded(), ivSpec.getIV(), message),
+                CipherPool.doFinal(CBC, Cipher.ENCRYPT_MODE, keys[1], ivSpec, message));
+        assertTrue(CipherPool.contains(CBC, Cipher.ENCRYPT_MODE, keys[1]));
+    }
+
+    /**
+     * After a failed doFinal() the state of the cipher is unknown, so it is not returned into the pool
+     */
+    @Test
+    public void failure() throws Exception {
+        byte[] message = ParallelCipherTest.random(100);
+        IvParameterSpec ivSpec = new IvParameterSpec("fedcba9876543210".getBytes());
+
+        byte[] encrypted = CipherPool.doFinal(CBC, Cipher.ENCRYPT_MODE, KEY, ivSpec, message);
+
+        assertArrayEquals(message, CipherPool.doFinal(CBC, Cipher.DECRYPT_MODE, KEY, ivSpec, encrypted));
+        assertTrue(CipherPool.contains(CBC, Cipher.DECRYPT_MODE, KEY));
+
+        try {
+            CipherPool.doFinal(CBC, Cipher.DECRYPT_MODE, KEY, ivSpec, Arrays.copyOf(encrypted, encrypted.length - 1));
+            fail("message of wrong length was decrypted");
+        } catch (GeneralSecurityException e) {
+            // expected
+        }
+
+        assertFalse(CipherPool.contains(CBC, Cipher.DECRYPT_MODE, KEY));
+        assertTrue(CipherPool.contains(CBC, Cipher.ENCRYPT_MODE, KEY));
+
+        assertArrayEquals(message, CipherPool.doFinal(CBC, Cipher.DECRYPT_MODE, KEY, ivSpec, encrypted));
+        assertTrue(CipherPool.contains(CBC, Cipher.DECRYPT_MODE, KEY));
+    }
+
+    /**
+     * Every GCM call initializes a new cipher with the nonce of the caller,
+     * a pooled cipher would be left with the nonce of the previous message
+     */
+    @Test
+    public void counterModeWithAuthentication() throws Exception {
+        byte[] message = ParallelCipherTest.random(100);
+
+        for(String vector : new String[]{"fedcba9876543210", "0123456789abcdef"}){
+            IvParameterSpec ivSpec = new IvParameterSpec(vector.getBytes());
+
+            byte[] encrypted = CipherPool.doFinal(GCM, Cipher.ENCRYPT_MODE, KEY, ivSpec, message);
+
+            assertArrayEquals(vector, doFinal(GCM, Cipher.ENCRYPT_MODE, ivSpec, message), encrypted);
+            assertArrayEquals(vector, message, CipherPool.doFinal(GCM, Cipher.DECRYPT_MODE, KEY, ivSpec, encrypted));
+        }
+
+        assertEquals(0, CipherPool.size());
+        assertFalse(CipherPool.contains(GCM, Cipher.ENCRYPT_MODE, KEY));
+    }
+
+    @Test
+    public void des() throws Exception {
+        byte[] key = "01234567".getBytes();
+        byte[] vector = "76543210".getBytes();
+
+        String cbc = DES.Method.DES_CBC_PKCS5Padding.getMethod();
+        String ecb = DES.Method.DES_ECB_PKCS5Padding.getMethod();
+
+        Cipher cipher = Cipher.getInstance(cbc);
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "DES"), new IvParameterSpec(vector));
+
+        Cipher ecbCipher = Cipher.getInstance(ecb);
+        ecbCipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "DES"));
+
+        for(int size : new int[]{0, 1, 7, 8, 9, 100}){
+            byte[] message = ParallelCipherTest.random(size);
+
+            // twice, the second time with the pooled cipher
+            for(int i = 0; i < 2; i++){
+                byte[] encrypted = DES.encryptBytes(cbc, key, vector, message);
+
+                assertArrayEquals("size " + size, cipher.doFinal(message), encrypted);
+                assertArrayEquals("size " + size, message, DES.decryptBytes(cbc, key, vector, encrypted));
+
+                encrypted = DES.encryptBytes(ecb, key, vector, message);
+
+                assertArrayEquals("size " + size, ecbCipher.doFinal(message), encrypted);
+                assertArrayEquals("size " + size, message, DES.decryptBytes(ecb, key, vector, encrypted));
+            }
+        }
+
+        assertEquals(4, CipherPool.size());
+        assertTrue(CipherPool.contains(cbc, Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "DES")));
+    }
+
+    private static byte[] doFinal(String method, int mode, IvParameterSpec ivSpec, byte[] message) throws Exception {
+        Cipher cipher = Cipher.getInstance(method);
+        cipher.init(mode, KEY, ivSpec);
+
+        return cipher.doFinal(message);
+    }
+}
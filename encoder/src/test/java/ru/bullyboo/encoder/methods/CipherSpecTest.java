@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Shared settings must give the same results as one initialized cipher
+ */
+public class CipherSpecTest {
+
+    private static final byte[] KEY = "0123456789abcdef".getBytes();
+
+    private static final byte[] VECTOR = "fedcba9876543210".getBytes();
+
+    @Test
+    public void roundTrip() throws Exception {
+        CipherSpec spec = AES.createSpec(AES.Method.AES_CBC_PKCS5PADDING.getMethod(), KEY, AES.Key.SIZE_128, VECTOR);
+
+        for(int size : new int[]{0, 1, 15, 16, 17, 1000}){
+            byte[] message = ParallelCipherTest.random(size);
+
+            byte[] output = new byte[spec.getEncryptedSize(size) + 3];
+            int written = spec.encrypt(message, 0, size, output, 3);
+
+            // the cipher of the thread is used again
+            byte[] encrypted = spec.encryptBytes(message);
+
+            assertEquals(encrypted.length, written);
+            assertArrayEquals(encrypted, Arrays.copyOfRange(output, 3, 3 + written));
+
+            ByteBuffer decrypted = ByteBuffer.allocate(spec.getDecryptedSize(written));
+            spec.decrypt(ByteBuffer.wrap(output, 3, written), decrypted);
+
+            assertArrayEquals(message, Arrays.copyOf(decrypted.array(), decrypted.position()));
+        }
+    }
+
+    /**
+     * The methods with the arrays and the buffers of the caller reuse the cipher of the thread,
+     * every call must give the same result as the first one
+     */
+    @Test
+    public void repeatedCalls() throws Exception {
+        CipherSpec spec = AES.createSpec(AES.Method.AES_CBC_PKCS5PADDING.getMethod(), KEY, AES.Key.SIZE_128, VECTOR);
+
+        byte[] message = ParallelCipherTest.random(100);
+        byte[] expected = spec.encryptBytes(message);
+
+        byte[] output = new byte[spec.getEncryptedSize(message.length)];
+        byte[] decrypted = new byte[spec.getDecryptedSize(output.length)];
+
+        ByteBuffer heap = ByteBuffer.allocate(output.length);
+        ByteBuffer direct = ByteBuffer.allocateDirect(output.length);
+
+        for(int i = 0; i < 100; i++){
+            assertEquals(expected.length, spec.encrypt(message, 0, message.length, output, 0));
+            assertArrayEquals(expected, output);
+
+            assertEquals(message.length, spec.decrypt(output, 0, output.length, decrypted, 0));
+            assertArrayEquals(message, Arrays.copyOf(decrypted, message.length));
+
+            for(ByteBuffer buffer : new ByteBuffer[]{heap, direct}){
+                buffer.clear();
+
+                assertEquals(expected.length, spec.encrypt(ByteBuffer.wrap(message), buffer));
+
+                buffer.flip();
+                byte[] result = new byte[buffer.remaining()];
+                buffer.get(result);
+
+                assertArrayEquals(expected, result);
+            }
+        }
+    }
+
+    @Test
+    public void counterModeWithAuthentication() throws Exception {
+        CipherSpec spec = AES.createSpec(AES.Method.AES_GCM_NO_PADDING.getMethod(), KEY, AES.Key.SIZE_128, VECTOR);
+
+        byte[] message = ParallelCipherTest.random(100);
+
+        // two messages would be encrypted with the same nonce
+        try {
+            spec.encryptBytes(message);
+            fail("spec of GCM encrypted the message");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        try {
+            spec.encrypt(new ByteArrayInputStream(message), new ByteArrayOutputStream());
+            fail("spec of GCM encrypted the stream");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void streamModes() throws Exception {
+        String[] methods = {
+                AES.Method.AES_CTR_NO_PADDING.getMethod(),
+                AES.Method.AES_CFB_NO_PADDING.getMethod(),
+                AES.Method.AES_OFB_NO_PADDING.getMethod(),
+                "AES/CFB8/NoPadding"
+        };
+
+        byte[] message = ParallelCipherTest.random(100);
+
+        for(String method : methods){
+            CipherSpec spec = AES.createSpec(method, KEY, AES.Key.SIZE_128, VECTOR);
+
+            // two messages would be encrypted with the same key stream
+            try {
+                spec.encryptBytes(message);
+                fail("spec of " + method + " encrypted the message");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+
+            try {
+                spec.encrypt(message, 0, message.length, new byte[message.length], 0);
+                fail("spec of " + method + " encrypted into the array");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+
+            // the message of the static method is still decrypted
+            byte[] encrypted = AES.encryptBytes(method, KEY, AES.Key.SIZE_128, VECTOR, message);
+
+            assertArrayEquals(method, message, spec.decryptBytes(encrypted));
+        }
+
+        CipherSpec spec = ARCFOUR.createSpec(KEY, 16);
+
+        try {
+            spec.encryptBytes(message);
+            fail("spec of ARCFOUR encrypted the message");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        assertArrayEquals(message, spec.decryptBytes(ARCFOUR.encryptBytes(KEY, 16, message)));
+    }
+}
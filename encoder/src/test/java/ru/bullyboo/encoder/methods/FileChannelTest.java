@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+import ru.bullyboo.encoder.Encoder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Encryption of the files through the channels must give the same result
+ * as one Cipher.doFinal() of the whole file, the damaged files must be rejected
+ */
+public class FileChannelTest {
+
+    private static final int CHUNK = BaseMethod.FILE_CHUNK_SIZE;
+
+    private static final byte[] KEY = "0123456789abcdef".getBytes();
+
+    private static final byte[] VECTOR = "fedcba9876543210".getBytes();
+
+    private static final int[] SIZES = {0, 1, CHUNK - 1, CHUNK, CHUNK + 1, 2 * CHUNK + 5};
+
+    private static final int SEGMENT = 4096;
+
+    @Test
+    public void aes() throws Exception {
+        String method = AES.Method.AES_CBC_PKCS5PADDING.getMethod();
+
+        for(int size : SIZES){
+            byte[] message = ParallelCipherTest.random(size);
+
+            File input = ParallelCipherTest.write(message);
+            File encrypted = temp();
+            File decrypted = temp();
+
+            try {
+                AES.encrypt(method, KEY, AES.Key.SIZE_128, VECTOR, input, encrypted);
+
+                assertArrayEquals("size " + size, ParallelCipherTest.doFinal(Cipher.ENCRYPT_MODE, method, KEY, VECTOR, message),
+                        ParallelCipherTest.read(encrypted));
+
+                AES.decrypt(method, KEY, AES.Key.SIZE_128, VECTOR, encrypted, decrypted);
+
+                assertArrayEquals("size " + size, message, ParallelCipherTest.read(decrypted));
+            } finally {
+                delete(input, encrypted, decrypted);
+            }
+        }
+    }
+
+    @Test
+    public void blowfish() throws Exception {
+        String method = Blowfish.Method.BLOWFISH_CBC_PKCS5Padding.getMethod();
+        byte[] vector = "vector!!".getBytes();
+
+        for(int size : SIZES){
+            byte[] message = ParallelCipherTest.random(size);
+
+            File input = ParallelCipherTest.write(message);
+            File encrypted = temp();
+            File decrypted = temp();
+
+            try {
+                Blowfish.encrypt(method, KEY, KEY.length, vector, input, encrypted);
+
+                assertArrayEquals("size " + size, ParallelCipherTest.doFinal(Cipher.ENCRYPT_MODE, method, KEY, vector, message),
+                        ParallelCipherTest.read(encrypted));
+
+                Blowfish.decrypt(method, KEY, KEY.length, vector, encrypted, decrypted);
+
+                assertArrayEquals("size " + size, message, ParallelCipherTest.read(decrypted));
+            } finally {
+                delete(input, encrypted, decrypted);
+            }
+        }
+    }
+
+    /**
+     * The builder passes the file message through the channels into the output file
+     */
+    @Test
+    public void builder() throws Exception {
+        byte[] message = ParallelCipherTest.random(CHUNK + 100);
+
+        File input = ParallelCipherTest.write(message);
+        File encrypted = temp();
+        File decrypted = temp();
+
+        try {
+            assertTrue(Encoder.BuilderAES()
+                    .method(AES.Method.AES_CTR_NO_PADDING)
+                    .key(KEY, AES.Key.SIZE_128)
+                    .iVector(VECTOR)
+                    .message(input)
+                    .encryptTo(encrypted));
+
+            assertTrue(Encoder.BuilderAES()
+                    .method(AES.Method.AES_CTR_NO_PADDING)
+                    .key(KEY, AES.Key.SIZE_128)
+                    .iVector(VECTOR)
+                    .message(encrypted)
+                    .decryptTo(decrypted));
+
+            assertArrayEquals(message, ParallelCipherTest.read(decrypted));
+        } finally {
+            delete(input, encrypted, decrypted);
+        }
+    }
+
+    /**
+     * The cipher text, which is not a whole count of blocks, is rejected
+     */
+    @Test
+    public void truncatedFile() throws Exception {
+        String method = AES.Method.AES_CBC_PKCS5PADDING.getMethod();
+
+        File input = ParallelCipherTest.write(ParallelCipherTest.random(CHUNK + 100));
+        File encrypted = temp();
+        File decrypted = temp();
+
+        try {
+            AES.encrypt(method, KEY, AES.Key.SIZE_128, VECTOR, input, encrypted);
+            truncate(encrypted, 1);
+
+            try {
+                AES.decrypt(method, KEY, AES.Key.SIZE_128, VECTOR, encrypted, decrypted);
+                fail("truncated file was decrypted");
+            } catch (GeneralSecurityException e) {
+                // expected
+            }
+        } finally {
+            delete(input, encrypted, decrypted);
+        }
+    }
+
+    @Test
+    public void segmentedFiles() throws Exception {
+        for(int size : new int[]{0, 1, SEGMENT, 3 * SEGMENT + 17}){
+            byte[] message = ParallelCipherTest.random(size);
+
+            File input = ParallelCipherTest.write(message);
+            File encrypted = temp();
+            File decrypted = temp();
+
+            try {
+                AES.encryptSegmentedParallel(KEY, AES.Key.SIZE_256, SEGMENT, input, encrypted);
+                AES.decryptSegmentedParallel(KEY, AES.Key.SIZE_256, encrypted, decrypted);
+
+                assertArrayEquals("size " + size, message, ParallelCipherTest.read(decrypted));
+            } finally {
+                delete(input, encrypted, decrypted);
+            }
+        }
+    }
+
+    /**
+     * Modified or truncated last segment of the file must be rejected
+     */
+    @Test
+    public void damagedLastSegment() throws Exception {
+        File input = ParallelCipherTest.write(ParallelCipherTest.random(3 * SEGMENT + 17));
+        File encrypted = temp();
+        File decrypted = temp();
+
+        try {
+            AES.encryptSegmentedParallel(KEY, AES.Key.SIZE_256, SEGMENT, input, encrypted);
+
+            byte[] original = ParallelCipherTest.read(encrypted);
+
+            // modified tag of the last segment
+            byte[] modified = original.clone();
+            modified[modified.length - 1] ^= 1;
+            assertRejected("modified last segment", modified, decrypted);
+
+            // the last segment without its last byte
+            byte[] truncated = new byte[original.length - 1];
+            System.arraycopy(original, 0, truncated, 0, truncated.length);
+            assertRejected("truncated last segment", truncated, decrypted);
+
+            // without the last segment
+            byte[] removed = new byte[original.length - 17 - SegmentedCipher.TAG_LENGTH];
+            System.arraycopy(original, 0, removed, 0, removed.length);
+            assertRejected("removed last segment", removed, decrypted);
+        } finally {
+            delete(input, encrypted, decrypted);
+        }
+    }
+
+    private static void assertRejected(String message, byte[] encrypted, File decrypted) throws Exception {
+        File file = ParallelCipherTest.write(encrypted);
+
+        try {
+            try {
+                AES.decryptSegmentedParallel(KEY, AES.Key.SIZE_256, file, decrypted);
+                fail(message + ": decrypted");
+            } catch (GeneralSecurityException e) {
+                // expected
+            }
+
+            // the builder decrypts the short file by the stream
+            try (FileOutputStream output = new FileOutputStream(decrypted)) {
+                assertFalse(message, Encoder.BuilderAES()
+                        .segmented(SEGMENT)
+                        .key(KEY, AES.Key.SIZE_256)
+                        .message(file)
+                        .decryptTo(output));
+            }
+
+            // random access reads the last segment
+            try (SegmentedFileChannel channel = AES.openSegmented(KEY, AES.Key.SIZE_256, file)) {
+                channel.readRange(0, (int) channel.size());
+                fail(message + ": read by the channel");
+            } catch (IOException | GeneralSecurityException e) {
+                // expected
+            }
+        } finally {
+            delete(file);
+        }
+    }
+
+    private static void truncate(File file, int count) throws Exception {
+        try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+            access.setLength(access.length() - count);
+        }
+    }
+
+    private static File temp() throws Exception {
+        return File.createTempFile("channel", ".bin");
+    }
+
+    private static void delete(File... files){
+        for(File file : files){
+            file.delete();
+        }
+    }
+}
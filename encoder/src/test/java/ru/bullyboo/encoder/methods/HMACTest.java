@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Test;
+
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check of the tags of one message and of the batches
+ */
+public class HMACTest {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    private static final HMAC.Method METHOD = HMAC.Method.HMAC_SHA_256;
+
+    private static final byte[] KEY = "key".getBytes();
+
+    @Test
+    public void verify() throws Exception {
+        byte[] message = ParallelCipherTest.random(100);
+        byte[] tag = HMAC.encryptBytes(METHOD, KEY, message);
+
+        assertTrue(HMAC.verify(METHOD, KEY, message, tag));
+        assertTrue(HMAC.verify(METHOD, KEY, new byte[0], HMAC.encryptBytes(METHOD, KEY, new byte[0])));
+
+        // every byte of the tag is checked
+        for(int i = 0; i < tag.length; i++){
+            byte[] wrong = tag.clone();
+            wrong[i] ^= 1;
+
+            assertFalse(HMAC.verify(METHOD, KEY, message, wrong));
+        }
+
+        assertFalse(HMAC.verify(METHOD, "other key".getBytes(), message, tag));
+
+        // the tag of the other length is wrong, even if it starts with the right bytes
+        assertFalse(HMAC.verify(METHOD, KEY, message, Arrays.copyOf(tag, tag.length - 1)));
+        assertFalse(HMAC.verify(METHOD, KEY, message, Arrays.copyOf(tag, tag.length + 1)));
+        assertFalse(HMAC.verify(METHOD, KEY, message, new byte[0]));
+        assertFalse(HMAC.verify(METHOD, KEY, message, null));
+
+        // the Mac of the thread is still in its initialized state
+        assertTrue(HMAC.verify(METHOD, KEY, message, tag));
+    }
+
+    @Test
+    public void verifyBatch() throws Exception {
+        List<byte[]> messages = new ArrayList<>();
+        List<byte[]> tags = new ArrayList<>();
+
+        // the messages are more than one group, so the parallel check is split
+        int size = 0;
+
+        for(int i = 0; size <= 4 * BaseMethod.PARALLEL_CHUNK_SIZE; i++){
+            byte[] message = ParallelCipherTest.random(i % 7 == 0 ? 0 : 1000 + i * 97 % 50000);
+            byte[] tag = HMAC.encryptBytes(METHOD, KEY, message);
+
+            if(i % 5 == 1){
+                tag[i % tag.length] ^= 1;
+            } else if(i % 5 == 3){
+                tag = Arrays.copyOf(tag, i % tag.length);
+            }
+
+            messages.add(message);
+            tags.add(tag);
+
+            size += message.length;
+        }
+
+        boolean[] expected = new boolean[messages.size()];
+
+        for(int i = 0; i < expected.length; i++){
+            expected[i] = HMAC.verify(METHOD, KEY, messages.get(i), tags.get(i));
+            assertEquals(i % 5 != 1 && i % 5 != 3, expected[i]);
+        }
+
+        assertArrayEquals(expected, HMAC.verifyBatch(METHOD, KEY, messages, tags, false));
+        assertArrayEquals(expected, HMAC.verifyBatch(METHOD, KEY, messages, tags, true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyBatchOfOtherSize() throws Exception {
+        HMAC.verifyBatch(METHOD, KEY, Arrays.asList(new byte[1], new byte[2]),
+                Arrays.asList(new byte[32]), true);
+    }
+}
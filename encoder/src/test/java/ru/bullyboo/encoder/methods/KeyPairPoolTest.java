@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.security.KeyPair;
+import java.security.interfaces.RSAKey;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Refill of the pool of RSA key pairs, also after failed generation
+ */
+public class KeyPairPoolTest {
+
+    private static final long TIMEOUT = 30000;
+
+    /**
+     * The provider rejects keys of this size
+     */
+    private static final RSA.KeySize WRONG_SIZE = RSA.setKeySize(65536);
+
+    private static final RSA.KeySize SIZE = RSA.setKeySize(512);
+
+    /**
+     * Generation of two keys of this size takes much longer than of the small ones
+     */
+    private static final RSA.KeySize LARGE_SIZE = RSA.setKeySize(4096);
+
+    @Test
+    public void failedGeneration() throws Exception {
+        KeyPairPool.setDepth(2);
+
+        PrintStream err = System.err;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try {
+            System.setErr(new PrintStream(output));
+
+            for(int i = 0; i < 3; i++){
+                // the caller gets the failure instead of waiting for the pool
+                assertTrue(take(WRONG_SIZE) instanceof RuntimeException);
+
+                // the failed generations of the refill free their places
+                await(WRONG_SIZE, 0);
+                assertEquals(0, KeyPairPool.size(WRONG_SIZE));
+            }
+
+            System.setErr(err);
+
+            // the failure is given to the callers, not printed by every retry of the refill
+            assertEquals("", output.toString());
+
+            // the thread of the refill survived the failures
+            KeyPairPool.prefill(SIZE);
+            await(SIZE, 2);
+
+            assertEquals(2, KeyPairPool.size(SIZE));
+            assertEquals(512, ((RSAKey) take(SIZE)).getModulus().bitLength());
+        } finally {
+            System.setErr(err);
+            KeyPairPool.setDepth(0);
+        }
+
+        assertEquals(0, KeyPairPool.size(SIZE));
+    }
+
+    /**
+     * The refill of the large keys doesn't hold up the refill of the small ones
+     */
+    @Test
+    public void severalSizes() throws Exception {
+        KeyPairPool.setDepth(2);
+
+        try {
+            KeyPairPool.prefill(LARGE_SIZE);
+            KeyPairPool.prefill(SIZE);
+
+            await(SIZE, 2);
+
+            // the small keys are ready, while the large ones are still being generated
+            assertTrue(KeyPairPool.size(LARGE_SIZE) < 2);
+        } finally {
+            KeyPairPool.setDepth(0);
+        }
+    }
+
+    /**
+     * Take the key pair on other thread, the public key or the failure is returned
+     */
+    private static Object take(final RSA.KeySize keySize) throws InterruptedException {
+        final AtomicReference<Object> result = new AtomicReference<>();
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    KeyPair key = KeyPairPool.take(keySize.getSize());
+
+                    assertNotNull(key);
+                    result.set(key.getPublic());
+                } catch (Throwable e) {
+                    result.set(e);
+                }
+            }
+        });
+
+        thread.start();
+        thread.join(TIMEOUT);
+
+        assertFalse("take() is blocked", thread.isAlive());
+
+        return result.get();
+    }
+
+    /**
+     * Wait until the pool has the count of ready key pairs and nothing is being generated
+     */
+    private static void await(RSA.KeySize keySize, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+
+        while (KeyPairPool.reserved(keySize) != count || KeyPairPool.size(keySize) != count){
+            if(System.currentTimeMillis() > deadline){
+                fail("pool has " + KeyPairPool.reserved(keySize) + " places instead of " + count);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Hits, misses and eviction of the cache of PBE settings
+ */
+public class PBESpecCacheTest {
+
+    private static final PBE.Method METHOD = PBE.Method.PBE_with_MD5_and_DES;
+
+    private static final PBE.KeySize KEY_SIZE = PBE.setKeySize(8);
+
+    private static final byte[] VECTOR = "vector".getBytes();
+
+    @Test
+    public void sameSettings() throws Exception {
+        PBESpecCache cache = new PBESpecCache(4);
+
+        byte[] key = "password".getBytes();
+
+        CipherSpec spec = cache.get(METHOD, key, KEY_SIZE, VECTOR);
+
+        assertTrue(spec == cache.get(METHOD, "password".getBytes(), KEY_SIZE, VECTOR.clone()));
+
+        // the cache keeps its own copy of the settings
+        key[0] = 'P';
+        assertTrue(spec == cache.get(METHOD, "password".getBytes(), KEY_SIZE, VECTOR));
+        assertFalse(spec == cache.get(METHOD, key, KEY_SIZE, VECTOR));
+    }
+
+    @Test
+    public void otherSettings() throws Exception {
+        PBESpecCache cache = new PBESpecCache(4);
+
+        CipherSpec spec = cache.get(METHOD, "password".getBytes(), KEY_SIZE, VECTOR);
+
+        assertFalse(spec == cache.get(METHOD, "password2".getBytes(), KEY_SIZE, VECTOR));
+        assertFalse(spec == cache.get(METHOD, "password".getBytes(), KEY_SIZE, "vector2".getBytes()));
+        assertFalse(spec == cache.get(PBE.Method.PBE_with_MD5_and_RC2, "password".getBytes(), KEY_SIZE, VECTOR));
+    }
+
+    @Test
+    public void leastRecentlyUsed() throws Exception {
+        PBESpecCache cache = new PBESpecCache(2);
+
+        CipherSpec first = cache.get(METHOD, "first".getBytes(), KEY_SIZE, VECTOR);
+        CipherSpec second = cache.get(METHOD, "second".getBytes(), KEY_SIZE, VECTOR);
+
+        Thread.sleep(1);
+        cache.get(METHOD, "first".getBytes(), KEY_SIZE, VECTOR);
+        Thread.sleep(1);
+
+        // the second settings are dropped, they were used before the first ones
+        cache.get(METHOD, "third".getBytes(), KEY_SIZE, VECTOR);
+
+        assertTrue(first == cache.get(METHOD, "first".getBytes(), KEY_SIZE, VECTOR));
+        assertFalse(second == cache.get(METHOD, "second".getBytes(), KEY_SIZE, VECTOR));
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        PBESpecCache cache = new PBESpecCache(4);
+        cache.setTimeout(1000000);
+
+        CipherSpec spec = cache.get(METHOD, "password".getBytes(), KEY_SIZE, VECTOR);
+
+        Thread.sleep(2);
+
+        assertFalse(spec == cache.get(METHOD, "password".getBytes(), KEY_SIZE, VECTOR));
+    }
+
+    /**
+     * The spec of RC4 only decrypts, so RC4 is never cached
+     */
+    @Test
+    public void streamModes() throws Exception {
+        PBESpecCache cache = new PBESpecCache(4);
+
+        assertNull(cache.get(PBE.Method.PBE_with_SHA_1_and_RC4_128, "password".getBytes(),
+                PBE.setKeySize(16), VECTOR));
+        assertNull(cache.get(PBE.Method.PBE_with_SHA_1_and_RC4_40, "password".getBytes(), KEY_SIZE, VECTOR));
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        PBESpecCache cache = new PBESpecCache(4);
+
+        CipherSpec spec = cache.get(METHOD, "password".getBytes(), KEY_SIZE, VECTOR);
+
+        cache.setMaxSize(0);
+
+        assertEquals(0, cache.getMaxSize());
+        assertNull(cache.get(METHOD, "password".getBytes(), KEY_SIZE, VECTOR));
+
+        cache.setMaxSize(4);
+
+        assertFalse(spec == cache.get(METHOD, "password".getBytes(), KEY_SIZE, VECTOR));
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Parallel encryption and decryption must give the same result as one Cipher.doFinal()
+ * of the whole message, especially at the boundaries of the chunks
+ */
+public class ParallelCipherTest {
+
+    private static final int CHUNK = BaseMethod.PARALLEL_CHUNK_SIZE;
+
+    private static final byte[] KEY = "0123456789abcdef".getBytes();
+
+    /**
+     * The low bytes are 0xFF, so the counter of CTR carries over several bytes
+     */
+    private static final byte[] VECTOR = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, (byte) 0xFF, (byte) 0xFF, (byte) 0xF0};
+
+    private static final int[] SIZES = {0, 1, CHUNK - 1, CHUNK, CHUNK + 1, 3 * CHUNK + 17};
+
+    @Test
+    public void counterEncryption() throws Exception {
+        String method = AES.Method.AES_CTR_NO_PADDING.getMethod();
+
+        for(int size : SIZES){
+            byte[] message = random(size);
+
+            assertArrayEquals("size " + size, doFinal(Cipher.ENCRYPT_MODE, method, message),
+                    AES.encryptParallel(method, KEY, AES.Key.SIZE_128, VECTOR, message));
+        }
+    }
+
+    @Test
+    public void counterDecryption() throws Exception {
+        String method = AES.Method.AES_CTR_NO_PADDING.getMethod();
+
+        for(int size : SIZES){
+            byte[] message = random(size);
+            byte[] cipherText = doFinal(Cipher.ENCRYPT_MODE, method, message);
+
+            assertArrayEquals("size " + size, message,
+                    AES.decryptParallel(method, KEY, AES.Key.SIZE_128, VECTOR, cipherText));
+        }
+    }
+
+    @Test
+    public void counterEncryptionOfFile() throws Exception {
+        String method = AES.Method.AES_CTR_NO_PADDING.getMethod();
+
+        byte[] message = random(2 * CHUNK + 3);
+
+        File input = write(message);
+        File output = File.createTempFile("parallel", ".enc");
+
+        try {
+            AES.encryptParallel(method, KEY, AES.Key.SIZE_128, VECTOR, input, output);
+
+            assertArrayEquals(doFinal(Cipher.ENCRYPT_MODE, method, message), read(output));
+        } finally {
+            input.delete();
+            output.delete();
+        }
+    }
+
+    /**
+     * Every chunk of CBC and CFB is decrypted with the last block of the previous chunk
+     * as the vector, the padding is removed only at the end of the message
+     */
+    @Test
+    public void chainedDecryption() throws Exception {
+        String[] methods = {
+                AES.Method.AES_CBC_PKCS5PADDING.getMethod(),
+                AES.Method.AES_CFB_PKCS5PADDING.getMethod(),
+                AES.Method.AES_CFB_NO_PADDING.getMethod()
+        };
+
+        // the cipher text of CHUNK - 16 bytes with the padding is exactly one chunk
+        int[] sizes = {0, 1, CHUNK - 16, CHUNK - 1, CHUNK, CHUNK + 1, 3 * CHUNK + 17};
+
+        for(String method : methods){
+            for(int size : sizes){
+                byte[] message = random(size);
+                byte[] cipherText = doFinal(Cipher.ENCRYPT_MODE, method, message);
+
+                assertArrayEquals(method + ", size " + size, message,
+                        AES.decryptParallel(method, KEY, AES.Key.SIZE_128, VECTOR, cipherText));
+            }
+        }
+    }
+
+    @Test
+    public void chainedDecryptionWithoutPadding() throws Exception {
+        String method = AES.Method.AES_CBC_NO_PADDING.getMethod();
+
+        int[] sizes = {16, CHUNK - 16, CHUNK, CHUNK + 16, 3 * CHUNK + 32};
+
+        for(int size : sizes){
+            byte[] message = random(size);
+            byte[] cipherText = doFinal(Cipher.ENCRYPT_MODE, method, message);
+
+            assertArrayEquals("size " + size, message,
+                    AES.decryptParallel(method, KEY, AES.Key.SIZE_128, VECTOR, cipherText));
+        }
+    }
+
+    @Test
+    public void chainedDecryptionOfFile() throws Exception {
+        String method = AES.Method.AES_CBC_PKCS5PADDING.getMethod();
+
+        byte[] message = random(2 * CHUNK + 3);
+
+        File input = write(doFinal(Cipher.ENCRYPT_MODE, method, message));
+        File output = File.createTempFile("parallel", ".dec");
+
+        try {
+            AES.decryptParallel(method, KEY, AES.Key.SIZE_128, VECTOR, input, output);
+
+            assertArrayEquals(message, read(output));
+        } finally {
+            input.delete();
+            output.delete();
+        }
+    }
+
+    /**
+     * Ciphers with 8-byte blocks have the chunks of the same size and the vectors of 8 bytes
+     */
+    @Test
+    public void chainedDecryptionOfSmallBlocks() throws Exception {
+        byte[] desKey = Arrays.copyOf(KEY, 8);
+        byte[] vector = Arrays.copyOf(VECTOR, 8);
+
+        int[] sizes = {0, CHUNK - 8, CHUNK, CHUNK + 1, 2 * CHUNK + 9};
+
+        for(int size : sizes){
+            byte[] message = random(size);
+
+            String des = DES.Method.DES_CBC_PKCS5Padding.getMethod();
+
+            assertArrayEquals("DES, size " + size, message, DES.decryptParallel(des, desKey, vector,
+                    doFinal(Cipher.ENCRYPT_MODE, des, desKey, vector, message)));
+
+            String blowfish = Blowfish.Method.BLOWFISH_CBC_PKCS5Padding.getMethod();
+
+            assertArrayEquals("Blowfish, size " + size, message, Blowfish.decryptParallel(blowfish, KEY, KEY.length, vector,
+                    doFinal(Cipher.ENCRYPT_MODE, blowfish, KEY, vector, message)));
+        }
+    }
+
+    static byte[] doFinal(int mode, String method, byte[] message) throws Exception {
+        return doFinal(mode, method, KEY, VECTOR, message);
+    }
+
+    static byte[] doFinal(int mode, String method, byte[] key, byte[] vector, byte[] message) throws Exception {
+        Cipher cipher = Cipher.getInstance(method);
+        cipher.init(mode, new SecretKeySpec(key, method.split("/")[0]), new IvParameterSpec(vector));
+
+        return cipher.doFinal(message);
+    }
+
+    static byte[] random(int size){
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    static File write(byte[] bytes) throws IOException {
+        File file = File.createTempFile("parallel", ".bin");
+
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(bytes);
+        }
+        return file;
+    }
+
+    static byte[] read(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+
+        try (FileInputStream input = new FileInputStream(file)) {
+            int offset = 0;
+
+            while (offset < bytes.length){
+                offset += input.read(bytes, offset, bytes.length - offset);
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.junit.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Round trips of the envelope of hybrid encryption, any change of it must be rejected
+ */
+public class RSAEnvelopeTest {
+
+    private static final KeyPair KEY = generateKey();
+
+    /**
+     * Length of the header before the nonce: version, length of the wrapped key and the wrapped key
+     */
+    private static final int HEADER = 1 + 2 + 256;
+
+    private static final int NONCE = 12;
+
+    @Test
+    public void roundTrip() throws Exception {
+        for(int size : new int[]{0, 1, 16, 1000, 100000}){
+            byte[] message = ParallelCipherTest.random(size);
+
+            byte[] envelope = RSA.encryptEnvelope(KEY.getPublic(), message, null);
+
+            assertEquals(HEADER + NONCE + size + 16, envelope.length);
+
+            assertArrayEquals("size " + size, message, RSA.decryptEnvelope(KEY, envelope));
+            assertArrayEquals("size " + size, message, RSA.decryptEnvelope(KEY.getPrivate(), envelope));
+        }
+    }
+
+    @Test
+    public void newDataKeyAndNonce() throws Exception {
+        byte[] message = ParallelCipherTest.random(100);
+
+        byte[] first = RSA.encryptEnvelope(KEY, message, null);
+        byte[] second = RSA.encryptEnvelope(KEY, message, null);
+
+        assertEquals(false, Arrays.equals(Arrays.copyOfRange(first, 3, HEADER + NONCE),
+                Arrays.copyOfRange(second, 3, HEADER + NONCE)));
+    }
+
+    @Test
+    public void wrongPrivateKey() throws Exception {
+        byte[] envelope = RSA.encryptEnvelope(KEY, ParallelCipherTest.random(100), null);
+
+        assertRejected("wrong private key", generateKey(), envelope);
+    }
+
+    @Test
+    public void modifiedEnvelope() throws Exception {
+        byte[] envelope = RSA.encryptEnvelope(KEY, ParallelCipherTest.random(100), null);
+
+        // version, length of the wrapped key, wrapped key, nonce, cipher text and tag
+        int[] positions = {0, 1, 2, 3, HEADER - 1, HEADER, HEADER + NONCE - 1, HEADER + NONCE, envelope.length - 1};
+
+        for(int position : positions){
+            byte[] modified = envelope.clone();
+            modified[position] ^= 1;
+
+            assertRejected("byte " + position, KEY, modified);
+        }
+    }
+
+    @Test
+    public void truncatedEnvelope() throws Exception {
+        byte[] envelope = RSA.encryptEnvelope(KEY, ParallelCipherTest.random(100), null);
+
+        for(int length : new int[]{0, 2, HEADER, HEADER + NONCE + 15, envelope.length - 1}){
+            assertRejected("length " + length, KEY, Arrays.copyOf(envelope, length));
+        }
+    }
+
+    private static void assertRejected(String message, KeyPair key, byte[] envelope) throws Exception {
+        try {
+            RSA.decryptEnvelope(key, envelope);
+            fail(message + ": decrypted");
+        } catch (GeneralSecurityException e) {
+            // expected
+        }
+    }
+
+    private static KeyPair generateKey(){
+        try {
+            return RSA.generateKey(RSA.setKeySize(2048));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
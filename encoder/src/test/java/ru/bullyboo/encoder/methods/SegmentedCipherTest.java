@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.methods;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Round trips and tamper checks of the segmented AES/GCM format
+ */
+public class SegmentedCipherTest {
+
+    private static final byte[] KEY = "segmented key".getBytes();
+
+    private static final int SEGMENT = 64;
+
+    private static final int SEGMENT_LENGTH = SEGMENT + SegmentedCipher.TAG_LENGTH;
+
+    private static final int HEADER = SegmentedCipher.HEADER_LENGTH;
+
+    private static final int[] SIZES = {0, 1, SEGMENT - 1, SEGMENT, SEGMENT + 1, 5 * SEGMENT + 7};
+
+    @Test
+    public void roundTrip() throws Exception {
+        for(int size : SIZES){
+            byte[] message = ParallelCipherTest.random(size);
+            byte[] encrypted = encrypt(message);
+
+            assertEquals("size " + size, SegmentedCipher.create(key(), SEGMENT).getEncryptedLength(size), encrypted.length);
+
+            assertArrayEquals("size " + size, message, AES.decryptSegmented(KEY, AES.Key.SIZE_256, encrypted));
+            assertArrayEquals("size " + size, message, AES.decryptSegmentedParallel(KEY, AES.Key.SIZE_256, encrypted));
+        }
+    }
+
+    @Test
+    public void roundTripOfStreams() throws Exception {
+        for(int size : SIZES){
+            byte[] message = ParallelCipherTest.random(size);
+
+            ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+            AES.encryptSegmented(KEY, AES.Key.SIZE_256, SEGMENT, new ByteArrayInputStream(message), encrypted);
+
+            ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+            AES.decryptSegmented(KEY, AES.Key.SIZE_256, new ByteArrayInputStream(encrypted.toByteArray()), decrypted);
+
+            assertArrayEquals("size " + size, message, decrypted.toByteArray());
+        }
+    }
+
+    @Test
+    public void roundTripOfFiles() throws Exception {
+        for(int size : SIZES){
+            byte[] message = ParallelCipherTest.random(size);
+
+            File input = ParallelCipherTest.write(message);
+            File encrypted = File.createTempFile("segmented", ".enc");
+            File decrypted = File.createTempFile("segmented", ".dec");
+
+            try {
+                AES.encryptSegmentedParallel(KEY, AES.Key.SIZE_256, SEGMENT, input, encrypted);
+                AES.decryptSegmentedParallel(KEY, AES.Key.SIZE_256, encrypted, decrypted);
+
+                assertArrayEquals("size " + size, message, ParallelCipherTest.read(decrypted));
+            } finally {
+                input.delete();
+                encrypted.delete();
+                decrypted.delete();
+            }
+        }
+    }
+
+    @Test
+    public void modifiedHeader() throws Exception {
+        byte[] encrypted = encrypt(ParallelCipherTest.random(3 * SEGMENT));
+
+        // version, segment size, salt and nonce prefix
+        for(int position : new int[]{0, 4, 10, HEADER - 1}){
+            byte[] modified = encrypted.clone();
+            modified[position] ^= 1;
+
+            assertRejected("header byte " + position, modified);
+        }
+    }
+
+    @Test
+    public void modifiedCipherText() throws Exception {
+        byte[] encrypted = encrypt(ParallelCipherTest.random(3 * SEGMENT));
+
+        for(int position : new int[]{HEADER, HEADER + SEGMENT_LENGTH + 5, encrypted.length - 1}){
+            byte[] modified = encrypted.clone();
+            modified[position] ^= 1;
+
+            assertRejected("byte " + position, modified);
+        }
+    }
+
+    @Test
+    public void swappedSegments() throws Exception {
+        byte[] encrypted = encrypt(ParallelCipherTest.random(3 * SEGMENT));
+        byte[] modified = encrypted.clone();
+
+        System.arraycopy(encrypted, HEADER, modified, HEADER + SEGMENT_LENGTH, SEGMENT_LENGTH);
+        System.arraycopy(encrypted, HEADER + SEGMENT_LENGTH, modified, HEADER, SEGMENT_LENGTH);
+
+        assertRejected("swapped segments", modified);
+    }
+
+    @Test
+    public void truncatedMessage() throws Exception {
+        byte[] encrypted = encrypt(ParallelCipherTest.random(3 * SEGMENT + 10));
+
+        // without the last segment the previous one is not marked as the last one
+        assertRejected("without the last segment", Arrays.copyOf(encrypted, encrypted.length - (10 + SegmentedCipher.TAG_LENGTH)));
+        assertRejected("part of the last segment", Arrays.copyOf(encrypted, encrypted.length - 1));
+        assertRejected("part of the header", Arrays.copyOf(encrypted, HEADER - 1));
+    }
+
+    @Test
+    public void readRange() throws Exception {
+        byte[] message = ParallelCipherTest.random(5 * SEGMENT + 7);
+
+        File file = ParallelCipherTest.write(encrypt(message));
+
+        try (SegmentedFileChannel channel = AES.openSegmented(KEY, AES.Key.SIZE_256, file)) {
+            assertEquals(message.length, channel.size());
+
+            int[][] ranges = {
+                    {0, 1},
+                    {SEGMENT - 3, 6},
+                    {SEGMENT, SEGMENT},
+                    {SEGMENT + 1, 3 * SEGMENT},
+                    {5 * SEGMENT - 1, 8},
+                    {5 * SEGMENT + 5, 100}
+            };
+
+            for(int[] range : ranges){
+                int end = Math.min(message.length, range[0] + range[1]);
+
+                assertArrayEquals("range " + range[0], Arrays.copyOfRange(message, range[0], end),
+                        channel.readRange(range[0], range[1]));
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(2 * SEGMENT);
+
+            channel.position(SEGMENT / 2);
+            channel.read(buffer);
+
+            assertArrayEquals(Arrays.copyOfRange(message, SEGMENT / 2, SEGMENT / 2 + 2 * SEGMENT), buffer.array());
+            assertEquals(SEGMENT / 2 + 2 * SEGMENT, channel.position());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void readRangeOfModifiedSegment() throws Exception {
+        byte[] encrypted = encrypt(ParallelCipherTest.random(3 * SEGMENT));
+        encrypted[HEADER + SEGMENT_LENGTH + 1] ^= 1;
+
+        File file = ParallelCipherTest.write(encrypted);
+
+        try (SegmentedFileChannel channel = AES.openSegmented(KEY, AES.Key.SIZE_256, file)) {
+            assertEquals(SEGMENT, channel.readRange(0, SEGMENT).length);
+
+            try {
+                channel.readRange(SEGMENT - 1, 2);
+                fail("modified segment was read");
+            } catch (IOException e) {
+                assertEquals(true, e.getCause() instanceof GeneralSecurityException);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static byte[] encrypt(byte[] message) throws Exception {
+        return AES.encryptSegmented(KEY, AES.Key.SIZE_256, SEGMENT, message);
+    }
+
+    private static byte[] key(){
+        return Arrays.copyOf(KEY, 32);
+    }
+
+    /**
+     * Every way of decryption must fail
+     */
+    private static void assertRejected(String message, byte[] encrypted) throws Exception {
+        try {
+            AES.decryptSegmented(KEY, AES.Key.SIZE_256, encrypted);
+            fail(message + ": decrypted");
+        } catch (GeneralSecurityException e) {
+            // expected
+        }
+
+        try {
+            AES.decryptSegmentedParallel(KEY, AES.Key.SIZE_256, encrypted);
+            fail(message + ": decrypted in parallel");
+        } catch (GeneralSecurityException e) {
+            // expected
+        }
+
+        try {
+            AES.decryptSegmented(KEY, AES.Key.SIZE_256, new ByteArrayInputStream(encrypted), new ByteArrayOutputStream());
+            fail(message + ": decrypted as stream");
+        } catch (GeneralSecurityException | IOException e) {
+            // expected
+        }
+    }
+}
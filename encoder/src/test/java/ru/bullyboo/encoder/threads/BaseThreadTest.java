@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.threads;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The deprecated thread classes must call exactly one of the callbacks
+ */
+@SuppressWarnings("deprecation")
+public class BaseThreadTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    public void finish() throws Exception {
+        EncodingThread thread = new EncodingThread(action("result", null), callback(null));
+
+        thread.run();
+
+        assertEquals("[finish result]", calls.toString());
+        assertEquals("result", thread.get());
+        assertTrue(thread.isDone());
+    }
+
+    @Test
+    public void failure() throws Exception {
+        IllegalStateException error = new IllegalStateException("action");
+
+        EncodingThread thread = new EncodingThread(action(null, error), callback(null));
+
+        thread.run();
+
+        assertEquals("[failed action]", calls.toString());
+
+        try {
+            thread.get();
+            fail("failure was not passed to get()");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() == error);
+        }
+    }
+
+    /**
+     * The exception of onFinish() is not the failure of the action
+     */
+    @Test
+    public void failureOfCallback() throws Exception {
+        IllegalStateException error = new IllegalStateException("callback");
+
+        EncodingThread thread = new EncodingThread(action("result", null), callback(error));
+
+        try {
+            thread.run();
+            fail("exception of the callback was lost");
+        } catch (IllegalStateException e) {
+            assertTrue(e == error);
+        }
+
+        assertEquals("[finish result]", calls.toString());
+    }
+
+    /**
+     * The deprecated classes are still threads, join() waits for the action
+     */
+    @Test
+    public void start() throws Exception {
+        EncodingThread thread = new EncodingThread(action("result", null), callback(null));
+
+        thread.start();
+        thread.join();
+
+        assertFalse(thread.isAlive());
+        assertEquals("[finish result]", calls.toString());
+        assertEquals("result", thread.get());
+    }
+
+    private static BaseThread.EncodeAction<String> action(final String result, final RuntimeException error){
+        return new BaseThread.EncodeAction<String>() {
+            @Override
+            public String action() {
+                if(error != null){
+                    throw error;
+                }
+                return result;
+            }
+        };
+    }
+
+    private BaseThread.ThreadCallback<String> callback(final RuntimeException error){
+        return new BaseThread.ThreadCallback<String>() {
+            @Override
+            public void onFinish(String parametr) {
+                synchronized (calls){
+                    calls.add("finish " + parametr);
+                }
+
+                if(error != null){
+                    throw error;
+                }
+            }
+
+            @Override
+            public void onFailed(Throwable e) {
+                synchronized (calls){
+                    calls.add("failed " + e.getMessage());
+                }
+            }
+        };
+    }
+}
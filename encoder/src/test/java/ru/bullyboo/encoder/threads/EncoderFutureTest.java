@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.threads;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ru.bullyboo.encoder.Encoder;
+import ru.bullyboo.encoder.methods.AES;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Results, errors, continuations and callbacks of the futures of the builders
+ */
+public class EncoderFutureTest {
+
+    @Test
+    public void result() throws Exception {
+        EncoderFuture<String> future = run(action("result", null));
+
+        assertEquals("result", future.get(10, TimeUnit.SECONDS));
+        assertTrue(future.isDone());
+    }
+
+    @Test
+    public void error() throws Exception {
+        IllegalStateException error = new IllegalStateException("action");
+
+        EncoderFuture<String> future = run(action(null, error));
+
+        assertTrue(getError(future) == error);
+    }
+
+    @Test
+    public void then() throws Exception {
+        EncoderFuture<Integer> length = run(action("result", null)).then(new EncoderFuture.Continuation<String, Integer>() {
+            @Override
+            public Integer apply(String result) throws Exception {
+                return result.length();
+            }
+        });
+
+        assertEquals(6, (int) length.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void thenAfterError() throws Exception {
+        IllegalStateException error = new IllegalStateException("action");
+
+        EncoderFuture<Integer> length = run(action(null, error)).then(new EncoderFuture.Continuation<String, Integer>() {
+            @Override
+            public Integer apply(String result) throws Exception {
+                fail("continuation of the failed future");
+                return null;
+            }
+        });
+
+        assertTrue(getError(length) == error);
+    }
+
+    @Test
+    public void errorOfContinuation() throws Exception {
+        final IllegalStateException error = new IllegalStateException("continuation");
+
+        EncoderFuture<Integer> length = run(action("result", null)).then(new EncoderFuture.Continuation<String, Integer>() {
+            @Override
+            public Integer apply(String result) throws Exception {
+                throw error;
+            }
+        });
+
+        assertTrue(getError(length) == error);
+    }
+
+    @Test
+    public void thenAsync() throws Exception {
+        EncoderFuture<String> twice = run(action("result", null)).thenAsync(new EncoderFuture.AsyncContinuation<String, String>() {
+            @Override
+            public EncoderFuture<String> apply(String result) throws Exception {
+                return run(action(result + result, null));
+            }
+        });
+
+        assertEquals("resultresult", twice.get(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * The dependent futures are completed only by the future they depend on
+     */
+    @Test
+    public void dependentRun() throws Exception {
+        EncoderFuture<String> source = new EncoderFuture<>(action("result", null));
+
+        EncoderFuture<Integer> length = source.then(new EncoderFuture.Continuation<String, Integer>() {
+            @Override
+            public Integer apply(String result) throws Exception {
+                return result.length();
+            }
+        });
+
+        length.run();
+        assertFalse(length.isDone());
+
+        EncoderFuture<String> completed = EncoderFuture.completed("completed");
+        completed.run();
+        assertEquals("completed", completed.get());
+
+        source.run();
+        assertEquals(6, (int) length.get(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Cancelling of the previous future cancels the dependent ones
+     */
+    @Test
+    public void cancel() throws Exception {
+        EncoderFuture<String> source = new EncoderFuture<>(action("result", null));
+
+        EncoderFuture<Integer> length = source.then(new EncoderFuture.Continuation<String, Integer>() {
+            @Override
+            public Integer apply(String result) throws Exception {
+                fail("continuation of the cancelled future");
+                return null;
+            }
+        });
+
+        final EncoderFuture<String> next = new EncoderFuture<>(action("next", null));
+
+        EncoderFuture<String> afterNext = EncoderFuture.completed("result").thenAsync(new EncoderFuture.AsyncContinuation<String, String>() {
+            @Override
+            public EncoderFuture<String> apply(String result) throws Exception {
+                return next;
+            }
+        });
+
+        assertTrue(source.cancel(false));
+        assertTrue(length.isCancelled());
+
+        assertFalse(afterNext.isDone());
+        assertTrue(next.cancel(false));
+        assertTrue(afterNext.isCancelled());
+    }
+
+    /**
+     * The callback is called on the thread, which completes the future,
+     * or on the calling thread, if the future is already completed
+     */
+    @Test
+    public void callbackThread() throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+
+        EncoderFuture<String> future = new EncoderFuture<>(new BaseTask.EncodeAction<String>() {
+            @Override
+            public String action() throws Exception {
+                start.await();
+                return "result";
+            }
+        });
+
+        Thread worker = new Thread(future, "worker");
+        worker.start();
+
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final CountDownLatch called = new CountDownLatch(1);
+
+        future.addCallback(callback(thread, called));
+
+        start.countDown();
+
+        assertTrue(called.await(10, TimeUnit.SECONDS));
+        assertTrue(thread.get() == worker);
+
+        thread.set(null);
+        future.addCallback(callback(thread, null));
+
+        assertTrue(thread.get() == Thread.currentThread());
+    }
+
+    @Test
+    public void completed() throws Exception {
+        assertEquals("result", EncoderFuture.completed("result").get());
+
+        IllegalStateException error = new IllegalStateException("error");
+
+        assertTrue(getError(EncoderFuture.<String>failed(error)) == error);
+    }
+
+    @Test
+    public void builder() throws Exception {
+        EncoderFuture<byte[]> encrypted = Encoder.BuilderAES()
+                .method(AES.Method.AES_CBC_PKCS5PADDING)
+                .key("key")
+                .iVector("vector")
+                .message("message")
+                .executor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        new Thread(command).start();
+                    }
+                })
+                .encryptBytesFuture();
+
+        String decrypted = Encoder.BuilderAES()
+                .method(AES.Method.AES_CBC_PKCS5PADDING)
+                .key("key")
+                .iVector("vector")
+                .message(encrypted.get(10, TimeUnit.SECONDS))
+                .decryptBytesFuture()
+                .then(new EncoderFuture.Continuation<byte[], String>() {
+                    @Override
+                    public String apply(byte[] result) throws Exception {
+                        return new String(result);
+                    }
+                })
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals("message", decrypted);
+    }
+
+    /**
+     * The incomplete builder returns the failed future at once, nothing is executed
+     */
+    @Test
+    public void incompleteBuilder() throws Exception {
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                fail("incomplete builder started the operation");
+            }
+        };
+
+        EncoderFuture<String> future = Encoder.BuilderAES()
+                .key("key")
+                .message("message")
+                .executor(executor)
+                .encryptFuture();
+
+        assertTrue(future.isDone());
+        assertTrue(getError(future) instanceof NullPointerException);
+
+        future = Encoder.BuilderAES()
+                .method(AES.Method.AES_CBC_PKCS5PADDING)
+                .key("key")
+                .executor(executor)
+                .decryptFuture();
+
+        assertTrue(getError(future) instanceof NullPointerException);
+    }
+
+    @Test
+    public void defaultExecutor() throws Exception {
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final CountDownLatch called = new CountDownLatch(1);
+
+        EncoderExecutor.getDefault().execute(new Runnable() {
+            @Override
+            public void run() {
+                thread.set(Thread.currentThread());
+                called.countDown();
+            }
+        });
+
+        assertTrue(called.await(10, TimeUnit.SECONDS));
+        assertTrue(thread.get().isDaemon());
+        assertTrue(thread.get().getName().startsWith("encoder-"));
+    }
+
+    @Test
+    public void replacedExecutor() throws Exception {
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+
+        try {
+            EncoderExecutor.setDefault(executor);
+
+            assertTrue(EncoderExecutor.getDefault() == executor);
+        } finally {
+            EncoderExecutor.setDefault(null);
+        }
+
+        // null restores the default pool
+        assertFalse(EncoderExecutor.getDefault() == executor);
+    }
+
+    private static <T> EncoderFuture<T> run(BaseTask.EncodeAction<T> action){
+        EncoderFuture<T> future = new EncoderFuture<>(action);
+
+        EncoderExecutor.getDefault().execute(future);
+
+        return future;
+    }
+
+    private static Throwable getError(EncoderFuture<?> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+
+        fail("future was completed without error");
+        return null;
+    }
+
+    private static BaseTask.EncodeAction<String> action(final String result, final Exception error){
+        return new BaseTask.EncodeAction<String>() {
+            @Override
+            public String action() throws Exception {
+                if(error != null){
+                    throw error;
+                }
+                return result;
+            }
+        };
+    }
+
+    private static BaseTask.TaskCallback<String> callback(final AtomicReference<Thread> thread,
+                                                          final CountDownLatch called){
+        return new BaseTask.TaskCallback<String>() {
+            @Override
+            public void onFinish(String parameter) {
+                thread.set(Thread.currentThread());
+
+                if(called != null){
+                    called.countDown();
+                }
+            }
+
+            @Override
+            public void onFailed(Throwable e) {
+                fail(e.toString());
+            }
+        };
+    }
+}
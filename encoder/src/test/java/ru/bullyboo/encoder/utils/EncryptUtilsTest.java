@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.utils;
+
+import org.junit.Test;
+
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+
+import ru.bullyboo.encoder.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Parsed keys are cached by their PEM text
+ */
+public class EncryptUtilsTest {
+
+    @Test
+    public void samePem() throws Exception {
+        PublicKey key = generate();
+        String pem = toPem(key);
+
+        PublicKey parsed = EncryptUtils.getRsaPublicKey(pem);
+
+        assertNotNull(parsed);
+        assertEquals(key, parsed);
+
+        // the equal text, which is not the same string, is found in the cache
+        assertTrue(parsed == EncryptUtils.getRsaPublicKey(new String(pem.toCharArray())));
+    }
+
+    @Test
+    public void otherPem() throws Exception {
+        PublicKey first = generate();
+        PublicKey second = generate();
+
+        PublicKey parsed = EncryptUtils.getRsaPublicKey(toPem(first));
+        PublicKey other = EncryptUtils.getRsaPublicKey(toPem(second));
+
+        // the other key is parsed, not taken from the entry of the first one
+        assertFalse(parsed == other);
+        assertEquals(first, parsed);
+        assertEquals(second, other);
+
+        // the same key with other line breaks is a new entry of the same key
+        String unwrapped = toPem(first).replace("\n", "");
+        assertEquals(first, EncryptUtils.getRsaPublicKey(unwrapped));
+        assertTrue(parsed == EncryptUtils.getRsaPublicKey(toPem(first)));
+    }
+
+    /**
+     * The least recently used key is dropped, when the cache is full
+     */
+    @Test
+    public void eviction() throws Exception {
+        String[] pems = new String[EncryptUtils.CACHE_SIZE + 1];
+        PublicKey[] parsed = new PublicKey[pems.length];
+
+        for(int i = 0; i < EncryptUtils.CACHE_SIZE; i++){
+            pems[i] = toPem(generate());
+            parsed[i] = EncryptUtils.getRsaPublicKey(pems[i]);
+        }
+
+        // the first key becomes the most recently used one
+        assertTrue(parsed[0] == EncryptUtils.getRsaPublicKey(pems[0]));
+
+        pems[EncryptUtils.CACHE_SIZE] = toPem(generate());
+        EncryptUtils.getRsaPublicKey(pems[EncryptUtils.CACHE_SIZE]);
+
+        assertTrue(parsed[0] == EncryptUtils.getRsaPublicKey(pems[0]));
+
+        PublicKey dropped = EncryptUtils.getRsaPublicKey(pems[1]);
+
+        assertFalse(parsed[1] == dropped);
+        assertEquals(parsed[1], dropped);
+    }
+
+    private static PublicKey generate() throws Exception {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+        kpg.initialize(512);
+
+        return kpg.generateKeyPair().getPublic();
+    }
+
+    private static String toPem(PublicKey key){
+        return "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.encodeToString(key.getEncoded(), Base64.DEFAULT)
+                + "-----END PUBLIC KEY-----\n";
+    }
+}
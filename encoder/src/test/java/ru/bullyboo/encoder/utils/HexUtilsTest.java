@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2017 BullyBoo
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ru.bullyboo.encoder.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HexUtilsTest {
+
+    /**
+     * Every byte is written as two digits, including the leading zero
+     */
+    @Test
+    public void toHex(){
+        assertEquals("", HexUtils.toHex(new byte[0]));
+        assertEquals("00010fa0ff", HexUtils.toHex(new byte[]{0, 1, 0x0f, (byte) 0xa0, (byte) 0xff}));
+        assertEquals("0fa0", HexUtils.toHex(new byte[]{0, 0x0f, (byte) 0xa0, 1}, 1, 2));
+    }
+
+    /**
+     * Both cases of the digits are accepted
+     */
+    @Test
+    public void fromHex(){
+        assertArrayEquals(new byte[0], HexUtils.fromHex(""));
+        assertArrayEquals(new byte[]{0, 1, 0x0f, (byte) 0xa0, (byte) 0xff}, HexUtils.fromHex("00010fa0ff"));
+        assertArrayEquals(new byte[]{(byte) 0xab, (byte) 0xcd}, HexUtils.fromHex("aBCd"));
+
+        byte[] bytes = {0, 1, 0x7f, (byte) 0x80, (byte) 0xfe, (byte) 0xff};
+        assertArrayEquals(bytes, HexUtils.fromHex(HexUtils.toHex(bytes)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromHexOfOddLength(){
+        HexUtils.fromHex("abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromHexOfWrongDigit(){
+        HexUtils.fromHex("0g");
+    }
+}